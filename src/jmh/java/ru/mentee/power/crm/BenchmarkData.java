@@ -0,0 +1,27 @@
+package ru.mentee.power.crm;
+
+import java.util.List;
+import java.util.UUID;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+
+/** Детерминированные синтетические данные для JMH-бенчмарков. */
+public final class BenchmarkData {
+
+  public static final List<String> STATUSES = List.of("NEW", "CONTACTED", "QUALIFIED");
+
+  private BenchmarkData() {}
+
+  public static String email(int i) {
+    return "lead" + i + "@bench.ru";
+  }
+
+  public static Lead lead(int i) {
+    return new Lead(
+        new UUID(0, i),
+        new Contact(email(i), "+7999" + i, new Address("Moscow", "Tverskaya " + i, "101000")),
+        "Company " + (i % 1000),
+        STATUSES.get(i % STATUSES.size()));
+  }
+}
@@ -0,0 +1,49 @@
+package ru.mentee.power.crm.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.mentee.power.crm.BenchmarkData;
+import ru.mentee.power.crm.model.Lead;
+
+/** save (обновление существующего лида), findByEmail и findAll на хранилище из size лидов. */
+@State(Scope.Benchmark)
+public class InMemoryLeadRepositoryBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private InMemoryLeadRepository repository;
+  private Lead[] leads;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    repository = new InMemoryLeadRepository();
+    leads = new Lead[size];
+    for (int i = 0; i < size; i++) {
+      leads[i] = BenchmarkData.lead(i);
+      repository.save(leads[i]);
+    }
+  }
+
+  @Benchmark
+  public void save() {
+    repository.save(leads[ThreadLocalRandom.current().nextInt(size)]);
+  }
+
+  @Benchmark
+  public Optional<Lead> findByEmail() {
+    return repository.findByEmail(BenchmarkData.email(ThreadLocalRandom.current().nextInt(size)));
+  }
+
+  @Benchmark
+  public List<Lead> findAll() {
+    return repository.findAll();
+  }
+}
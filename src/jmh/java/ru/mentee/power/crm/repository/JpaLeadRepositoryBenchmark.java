@@ -0,0 +1,53 @@
+package ru.mentee.power.crm.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.mentee.power.crm.BenchmarkData;
+import ru.mentee.power.crm.entity.LeadEntity;
+
+/**
+ * JpaLeadRepository.toModel (LeadEntity → Lead) для size сущностей за вызов — как при чтении
+ * страницы или findAll. Зависимости репозитория маппингу не нужны.
+ */
+@State(Scope.Benchmark)
+public class JpaLeadRepositoryBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private JpaLeadRepository repository;
+  private LeadEntity[] entities;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    repository = new JpaLeadRepository(null, null, null, null);
+    entities = new LeadEntity[size];
+    for (int i = 0; i < size; i++) {
+      LeadEntity e = new LeadEntity();
+      e.setId(new UUID(0, i));
+      e.setEmail(BenchmarkData.email(i));
+      e.setPhone("+7999" + i);
+      e.setCompanyName("Company " + (i % 1000));
+      e.setStatus(BenchmarkData.STATUSES.get(i % BenchmarkData.STATUSES.size()));
+      e.setCity("Moscow");
+      e.setStreet("Tverskaya " + i);
+      e.setZip("101000");
+      e.setCreatedAt(Instant.EPOCH);
+      entities[i] = e;
+    }
+  }
+
+  @Benchmark
+  public void toModel(Blackhole blackhole) {
+    for (LeadEntity entity : entities) {
+      blackhole.consume(repository.toModel(entity));
+    }
+  }
+}
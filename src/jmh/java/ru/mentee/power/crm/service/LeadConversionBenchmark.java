@@ -0,0 +1,161 @@
+package ru.mentee.power.crm.service;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Конверсия лида под конкуренцией: прежний путь (SELECT ... FOR UPDATE, UPDATE, INSERT сделки)
+ * против compare-and-set (условный UPDATE, INSERT только при 1 изменённой строке). Каждые
+ * convertersPerLead подряд идущих попыток целятся в один лид — потоки одновременно конвертируют
+ * одни и те же строки. SQL тот же, что выполняют JpaLeadRepository и LeadLockingService, но через
+ * JDBC на H2: без Spring-контекста, чтобы мерить блокировки, а не ORM.
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class LeadConversionBenchmark {
+
+  private static final String URL = "jdbc:h2:mem:conversion;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000";
+  private static final int LEADS = 200_000;
+
+  @Param({"8", "64"})
+  public int convertersPerLead;
+
+  private final AtomicLong attempts = new AtomicLong();
+  private UUID[] leadIds;
+  private Connection admin;
+
+  @Setup(Level.Trial)
+  public void createSchema() throws SQLException {
+    admin = DriverManager.getConnection(URL);
+    try (Statement ddl = admin.createStatement()) {
+      ddl.execute("DROP TABLE IF EXISTS deals");
+      ddl.execute("DROP TABLE IF EXISTS leads");
+      ddl.execute(
+          "CREATE TABLE leads (id UUID PRIMARY KEY, status VARCHAR(50) NOT NULL,"
+              + " version BIGINT NOT NULL)");
+      ddl.execute(
+          "CREATE TABLE deals (id UUID PRIMARY KEY, lead_id UUID NOT NULL,"
+              + " amount DECIMAL(19, 2) NOT NULL)");
+    }
+    leadIds = new UUID[LEADS];
+    try (PreparedStatement insert =
+        admin.prepareStatement("INSERT INTO leads (id, status, version) VALUES (?, ?, 0)")) {
+      for (int i = 0; i < LEADS; i++) {
+        leadIds[i] = UUID.randomUUID();
+        insert.setObject(1, leadIds[i]);
+        insert.setString(2, "QUALIFIED");
+        insert.addBatch();
+        if (i % 1000 == 999) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+    }
+  }
+
+  /** Каждая итерация начинает с неконвертированных лидов. */
+  @Setup(Level.Iteration)
+  public void resetLeads() throws SQLException {
+    attempts.set(0);
+    try (Statement reset = admin.createStatement()) {
+      reset.execute("DELETE FROM deals");
+      reset.execute("UPDATE leads SET status = 'QUALIFIED', version = 0");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void dropSchema() throws SQLException {
+    try (Statement ddl = admin.createStatement()) {
+      ddl.execute("DROP ALL OBJECTS");
+    }
+    admin.close();
+  }
+
+  UUID nextLead() {
+    long attempt = attempts.getAndIncrement();
+    return leadIds[(int) ((attempt / convertersPerLead) % LEADS)];
+  }
+
+  /** Соединение на поток бенчмарка — как соединение из пула на запрос. */
+  @State(Scope.Thread)
+  public static class Session {
+    Connection connection;
+    PreparedStatement selectForUpdate;
+    PreparedStatement updateStatus;
+    PreparedStatement compareAndSet;
+    PreparedStatement insertDeal;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+      connection = DriverManager.getConnection(URL);
+      connection.setAutoCommit(false);
+      selectForUpdate =
+          connection.prepareStatement("SELECT status, version FROM leads WHERE id = ? FOR UPDATE");
+      updateStatus =
+          connection.prepareStatement(
+              "UPDATE leads SET status = 'CONVERTED', version = version + 1 WHERE id = ?");
+      compareAndSet =
+          connection.prepareStatement(
+              "UPDATE leads SET status = 'CONVERTED', version = version + 1"
+                  + " WHERE id = ? AND status <> 'CONVERTED'");
+      insertDeal =
+          connection.prepareStatement("INSERT INTO deals (id, lead_id, amount) VALUES (?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+      connection.close();
+    }
+
+    void insertDeal(UUID leadId) throws SQLException {
+      insertDeal.setObject(1, UUID.randomUUID());
+      insertDeal.setObject(2, leadId);
+      insertDeal.setBigDecimal(3, BigDecimal.TEN);
+      insertDeal.executeUpdate();
+    }
+  }
+
+  @Benchmark
+  public boolean pessimisticLock(Session session) throws SQLException {
+    UUID leadId = nextLead();
+    boolean converted = false;
+    session.selectForUpdate.setObject(1, leadId);
+    try (ResultSet row = session.selectForUpdate.executeQuery()) {
+      if (row.next() && !"CONVERTED".equals(row.getString(1))) {
+        session.updateStatus.setObject(1, leadId);
+        session.updateStatus.executeUpdate();
+        session.insertDeal(leadId);
+        converted = true;
+      }
+    }
+    session.connection.commit();
+    return converted;
+  }
+
+  @Benchmark
+  public boolean compareAndSet(Session session) throws SQLException {
+    UUID leadId = nextLead();
+    session.compareAndSet.setObject(1, leadId);
+    boolean converted = session.compareAndSet.executeUpdate() == 1;
+    if (converted) {
+      session.insertDeal(leadId);
+    }
+    session.connection.commit();
+    return converted;
+  }
+}
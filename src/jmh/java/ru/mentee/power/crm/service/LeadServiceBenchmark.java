@@ -0,0 +1,43 @@
+package ru.mentee.power.crm.service;
+
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import ru.mentee.power.crm.BenchmarkData;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.repository.InMemoryLeadRepository;
+import ru.mentee.power.crm.spring.repository.InMemoryDealRepository;
+
+/** LeadService.findLeads поверх InMemoryLeadRepository: полный список и первая страница. */
+@State(Scope.Benchmark)
+public class LeadServiceBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private LeadService leadService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    InMemoryLeadRepository repository = new InMemoryLeadRepository();
+    for (int i = 0; i < size; i++) {
+      repository.save(BenchmarkData.lead(i));
+    }
+    leadService = new LeadService(repository, new InMemoryDealRepository());
+  }
+
+  @Benchmark
+  public List<Lead> findLeadsBySearchAndStatus() {
+    return leadService.findLeads("company 42", "NEW");
+  }
+
+  @Benchmark
+  public Page<Lead> findLeadsFirstPage() {
+    return leadService.findLeads(null, "CONTACTED", 0, 20);
+  }
+}
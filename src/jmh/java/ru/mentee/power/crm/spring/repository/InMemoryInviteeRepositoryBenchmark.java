@@ -0,0 +1,48 @@
+package ru.mentee.power.crm.spring.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.mentee.power.crm.BenchmarkData;
+import ru.mentee.power.crm.domain.Invitee;
+
+/** existsByEmail для существующего (последнего) и отсутствующего email. */
+@State(Scope.Benchmark)
+public class InMemoryInviteeRepositoryBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private InMemoryInviteeRepository repository;
+  private String lastEmail;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    repository = new InMemoryInviteeRepository();
+    for (int i = 0; i < size; i++) {
+      Invitee invitee = new Invitee();
+      invitee.setId(new UUID(0, i));
+      invitee.setEmail(BenchmarkData.email(i));
+      invitee.setFirstName("Invitee " + i);
+      invitee.setStatus("ACTIVE");
+      invitee.setCreatedAt(Instant.EPOCH);
+      repository.save(invitee);
+    }
+    lastEmail = BenchmarkData.email(size - 1);
+  }
+
+  @Benchmark
+  public boolean existsByEmailHit() {
+    return repository.existsByEmail(lastEmail);
+  }
+
+  @Benchmark
+  public boolean existsByEmailMiss() {
+    return repository.existsByEmail("missing@bench.ru");
+  }
+}
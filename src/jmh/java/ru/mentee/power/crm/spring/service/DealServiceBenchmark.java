@@ -0,0 +1,55 @@
+package ru.mentee.power.crm.spring.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.repository.InMemoryLeadRepository;
+import ru.mentee.power.crm.service.LeadService;
+import ru.mentee.power.crm.spring.repository.InMemoryDealRepository;
+import ru.mentee.power.crm.spring.repository.LeadRepositoryAdapter;
+
+/** DealService.getDealsByStatusForKanban на size сделках, равномерно по статусам. */
+@State(Scope.Benchmark)
+public class DealServiceBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private DealService dealService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    InMemoryDealRepository dealRepository = new InMemoryDealRepository();
+    DealStatus[] statuses = DealStatus.values();
+    for (int i = 0; i < size; i++) {
+      dealRepository.save(
+          new Deal(
+              new UUID(1, i),
+              new UUID(0, i),
+              BigDecimal.valueOf(i),
+              statuses[i % statuses.length],
+              LocalDateTime.of(2025, 1, 1, 0, 0)));
+    }
+    InMemoryLeadRepository leadRepository = new InMemoryLeadRepository();
+    dealService =
+        new DealService(
+            dealRepository,
+            new LeadRepositoryAdapter(leadRepository),
+            new LeadService(leadRepository, dealRepository));
+  }
+
+  @Benchmark
+  public Map<DealStatus, List<Deal>> getDealsByStatusForKanban() {
+    return dealService.getDealsByStatusForKanban();
+  }
+}
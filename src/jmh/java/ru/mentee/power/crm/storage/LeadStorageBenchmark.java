@@ -0,0 +1,53 @@
+package ru.mentee.power.crm.storage;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.mentee.power.crm.BenchmarkData;
+import ru.mentee.power.crm.model.Lead;
+
+/**
+ * LeadStorage.add: проверка дубликата email перед вставкой. Хранилище пересобирается на каждой
+ * итерации, чтобы рост списка за итерацию не искажал замер. Заполнение идёт напрямую в приватный
+ * список: через сам add оно квадратично и на 1M записей не завершилось бы.
+ */
+@State(Scope.Benchmark)
+public class LeadStorageBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private LeadStorage storage;
+  private Lead duplicate;
+  private int next;
+
+  @Setup(Level.Iteration)
+  public void setUp() throws ReflectiveOperationException {
+    List<Lead> leads = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      leads.add(BenchmarkData.lead(i));
+    }
+    storage = new LeadStorage();
+    Field field = LeadStorage.class.getDeclaredField("leads");
+    field.setAccessible(true);
+    field.set(storage, leads);
+    duplicate = BenchmarkData.lead(size - 1);
+    next = size;
+  }
+
+  @Benchmark
+  public boolean addNew() {
+    return storage.add(BenchmarkData.lead(next++));
+  }
+
+  @Benchmark
+  public boolean addDuplicate() {
+    return storage.add(duplicate);
+  }
+}
@@ -0,0 +1,133 @@
+package ru.mentee.power.crm.util;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Вставка в таблицу с UUID первичным ключом: случайные UUIDv4 против монотонных UUIDv7. Результат —
+ * время на одну строку (пакеты по {@link #BATCH} с commit); размер таблицы с индексом на строку
+ * печатается после предзаполнения (равное число строк) и в конце trial. Таблица растёт между
+ * итерациями и предварительно заполнена {@link #PRELOAD} строками, чтобы индекс не помещался в
+ * несколько страниц.
+ *
+ * <p>По умолчанию — файловая H2 во временном каталоге. Для PostgreSQL: {@code -p
+ * jdbcUrl=jdbc:postgresql://localhost:5432/crm?user=...&password=...} — размер тогда берётся из
+ * pg_relation_size первичного ключа.
+ */
+@State(Scope.Benchmark)
+public class UuidInsertBenchmark {
+
+  static final int BATCH = 1000;
+  private static final int PRELOAD = 200_000;
+
+  @Param({"random", "uuid-v7"})
+  public String generator;
+
+  @Param({"h2"})
+  public String jdbcUrl;
+
+  private IdGenerator ids;
+  private Connection connection;
+  private PreparedStatement insert;
+  private long seq;
+
+  @Setup(Level.Trial)
+  public void createTable() throws SQLException {
+    ids = generator.equals("uuid-v7") ? new UuidV7Generator() : IdGenerator.random();
+    connection = DriverManager.getConnection(url());
+    try (Statement ddl = connection.createStatement()) {
+      ddl.execute("DROP TABLE IF EXISTS uuid_insert_bench");
+      ddl.execute(
+          "CREATE TABLE uuid_insert_bench (id UUID PRIMARY KEY, email VARCHAR(255) NOT NULL,"
+              + " created_at TIMESTAMP NOT NULL)");
+    }
+    connection.setAutoCommit(false);
+    insert =
+        connection.prepareStatement(
+            "INSERT INTO uuid_insert_bench (id, email, created_at) VALUES (?, ?, ?)");
+    for (int i = 0; i < PRELOAD / BATCH; i++) {
+      insertBatch();
+    }
+    printSize("after preload");
+  }
+
+  @TearDown(Level.Trial)
+  public void dropTable() throws SQLException {
+    printSize("after run");
+    try (Statement ddl = connection.createStatement()) {
+      ddl.execute("DROP TABLE uuid_insert_bench");
+    }
+    connection.commit();
+    connection.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void insertBatch() throws SQLException {
+    Timestamp now = Timestamp.from(Instant.now());
+    for (int i = 0; i < BATCH; i++) {
+      insert.setObject(1, ids.next());
+      insert.setString(2, "lead" + seq++ + "@example.com");
+      insert.setTimestamp(3, now);
+      insert.addBatch();
+    }
+    insert.executeBatch();
+    connection.commit();
+  }
+
+  private void printSize(String stage) throws SQLException {
+    if (!isPostgres()) {
+      try (Statement checkpoint = connection.createStatement()) {
+        checkpoint.execute("CHECKPOINT");
+      }
+    }
+    long rows = queryLong("SELECT COUNT(*) FROM uuid_insert_bench");
+    long bytes =
+        isPostgres()
+            ? queryLong("SELECT pg_relation_size('uuid_insert_bench_pkey')")
+            : queryLong("SELECT DISK_SPACE_USED('UUID_INSERT_BENCH')");
+    System.out.printf(
+        "%n%s %s: %d rows, %s %d bytes, %.1f bytes/row%n",
+        generator,
+        stage,
+        rows,
+        isPostgres() ? "primary key index" : "table + indexes",
+        bytes,
+        (double) bytes / rows);
+  }
+
+  private String url() {
+    if (!jdbcUrl.equals("h2")) {
+      return jdbcUrl;
+    }
+    File file = new File(System.getProperty("java.io.tmpdir"), "uuid-insert-" + generator);
+    return "jdbc:h2:file:" + file.getAbsolutePath();
+  }
+
+  private boolean isPostgres() {
+    return jdbcUrl.startsWith("jdbc:postgresql:");
+  }
+
+  private long queryLong(String sql) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(sql)) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+}
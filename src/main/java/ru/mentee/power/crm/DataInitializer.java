@@ -295,7 +295,7 @@ public class DataInitializer implements CommandLineRunner {
               "+7999123456" + i);
       if (lead != null) {
         var deal = new Deal(lead.id(), new BigDecimal("100000").add(BigDecimal.valueOf(i * 10000)));
-        dealRepository.save(deal);
+        dealRepository.insert(deal);
       }
     }
     for (int i = 3; i < 5; i++) {
@@ -309,7 +309,7 @@ public class DataInitializer implements CommandLineRunner {
       if (lead != null) {
         var deal = new Deal(lead.id(), new BigDecimal("150000").add(BigDecimal.valueOf(i * 5000)));
         deal.transitionTo(DealStatus.QUALIFIED);
-        dealRepository.save(deal);
+        dealRepository.insert(deal);
       }
     }
     for (int i = 5; i < 7; i++) {
@@ -324,7 +324,7 @@ public class DataInitializer implements CommandLineRunner {
         var deal = new Deal(lead.id(), new BigDecimal("200000").add(BigDecimal.valueOf(i * 3000)));
         deal.transitionTo(DealStatus.QUALIFIED);
         deal.transitionTo(DealStatus.PROPOSAL_SENT);
-        dealRepository.save(deal);
+        dealRepository.insert(deal);
       }
     }
     var lead7 =
@@ -335,7 +335,7 @@ public class DataInitializer implements CommandLineRunner {
       deal7.transitionTo(DealStatus.QUALIFIED);
       deal7.transitionTo(DealStatus.PROPOSAL_SENT);
       deal7.transitionTo(DealStatus.NEGOTIATION);
-      dealRepository.save(deal7);
+      dealRepository.insert(deal7);
     }
 
     var lead8 =
@@ -347,7 +347,7 @@ public class DataInitializer implements CommandLineRunner {
       deal8.transitionTo(DealStatus.PROPOSAL_SENT);
       deal8.transitionTo(DealStatus.NEGOTIATION);
       deal8.transitionTo(DealStatus.WON);
-      dealRepository.save(deal8);
+      dealRepository.insert(deal8);
     }
 
     var lead9 =
@@ -356,7 +356,7 @@ public class DataInitializer implements CommandLineRunner {
     if (lead9 != null) {
       var deal9 = new Deal(lead9.id(), new BigDecimal("50000"));
       deal9.transitionTo(DealStatus.LOST);
-      dealRepository.save(deal9);
+      dealRepository.insert(deal9);
     }
   }
 
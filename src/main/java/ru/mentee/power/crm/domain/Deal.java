@@ -4,16 +4,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
+import ru.mentee.power.crm.util.Ids;
 
 public class Deal {
   private final UUID id;
   private final UUID leadId;
-  private final BigDecimal amount;
+  private BigDecimal amount;
   private DealStatus status;
   private final LocalDateTime createdAt;
 
   public Deal(UUID leadId, BigDecimal amount) {
-    this.id = UUID.randomUUID();
+    this.id = Ids.next();
     this.leadId = Objects.requireNonNull(leadId, "leadId must not be null");
     this.amount = Objects.requireNonNull(amount, "amount must not be null");
     this.status = DealStatus.NEW;
@@ -35,6 +36,14 @@ public class Deal {
     this.status = newStatus;
   }
 
+  public void changeAmount(BigDecimal newAmount) {
+    Objects.requireNonNull(newAmount, "amount must not be null");
+    if (newAmount.signum() < 0) {
+      throw new IllegalArgumentException("amount must not be negative: " + newAmount);
+    }
+    this.amount = newAmount;
+  }
+
   public UUID getId() {
     return id;
   }
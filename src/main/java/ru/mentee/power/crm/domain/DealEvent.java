@@ -0,0 +1,58 @@
+package ru.mentee.power.crm.domain;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Изменение сделки для живой канбан-доски. Публикуется как Spring application event из DealService
+ * и LeadService.convertLeadToDeal; previous* — значения до изменения (null у CREATED), чтобы клиент
+ * поправил итоги колонок без перезагрузки.
+ */
+public record DealEvent(
+    Type type,
+    UUID dealId,
+    UUID leadId,
+    DealStatus status,
+    DealStatus previousStatus,
+    BigDecimal amount,
+    BigDecimal previousAmount) {
+
+  public enum Type {
+    CREATED,
+    TRANSITIONED,
+    AMOUNT_CHANGED
+  }
+
+  public static DealEvent created(Deal deal) {
+    return new DealEvent(
+        Type.CREATED,
+        deal.getId(),
+        deal.getLeadId(),
+        deal.getStatus(),
+        null,
+        deal.getAmount(),
+        null);
+  }
+
+  public static DealEvent transitioned(Deal deal, DealStatus previousStatus) {
+    return new DealEvent(
+        Type.TRANSITIONED,
+        deal.getId(),
+        deal.getLeadId(),
+        deal.getStatus(),
+        previousStatus,
+        deal.getAmount(),
+        deal.getAmount());
+  }
+
+  public static DealEvent amountChanged(Deal deal, BigDecimal previousAmount) {
+    return new DealEvent(
+        Type.AMOUNT_CHANGED,
+        deal.getId(),
+        deal.getLeadId(),
+        deal.getStatus(),
+        deal.getStatus(),
+        deal.getAmount(),
+        previousAmount);
+  }
+}
@@ -0,0 +1,11 @@
+package ru.mentee.power.crm.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Вход сделки в статус: создание (previousStatus == null) или переход. Время в статусе — от
+ * changedAt до следующей записи той же сделки.
+ */
+public record DealStatusChange(
+    UUID dealId, DealStatus status, DealStatus previousStatus, Instant changedAt) {}
@@ -0,0 +1,20 @@
+package ru.mentee.power.crm.domain;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Колонка канбан-доски: первые N сделок статуса (от новых к старым) и итоги по всем сделкам
+ * статуса. totalCount может быть больше deals.size() — доска показывает только верх колонки.
+ */
+public record KanbanColumn(
+    DealStatus status, List<Deal> deals, long totalCount, BigDecimal totalAmount) {
+
+  public static KanbanColumn empty(DealStatus status) {
+    return new KanbanColumn(status, List.of(), 0, BigDecimal.ZERO);
+  }
+
+  public boolean isTruncated() {
+    return totalCount > deals.size();
+  }
+}
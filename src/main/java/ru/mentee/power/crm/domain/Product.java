@@ -9,19 +9,25 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.mentee.power.crm.entity.CacheInvalidationListener;
 import ru.mentee.power.crm.entity.DealProduct;
+import ru.mentee.power.crm.entity.GeneratedUuid;
+import ru.mentee.power.crm.spring.config.SecondLevelCacheConfig;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "sku")
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.PRODUCT_REGION)
 @Table(name = "products")
 public class Product {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
-  private UUID id;
+  @Id @GeneratedUuid private UUID id;
 
   @Column(nullable = false)
   private String name;
@@ -0,0 +1,49 @@
+package ru.mentee.power.crm.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Строка ленты межузловой инвалидации (миграция 012). Пишет и читает её
+ * ru.mentee.power.crm.repository.CacheInvalidationFeed через JDBC — запись идёт из JPA-колбэков во
+ * время flush, где трогать persistence context нельзя; маппинг описывает схему для ddl-auto.
+ */
+@Entity
+@Immutable
+@Table(
+    name = "cache_invalidation",
+    indexes = @Index(name = "idx_cache_invalidation_created_at", columnList = "created_at"))
+@Getter
+@NoArgsConstructor
+public class CacheInvalidationEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 32)
+  private String region;
+
+  @Column(name = "entity_id")
+  private UUID entityId;
+
+  private Long version;
+
+  @Column(nullable = false, length = 64)
+  private String origin;
+
+  @ColumnDefault("CURRENT_TIMESTAMP")
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+}
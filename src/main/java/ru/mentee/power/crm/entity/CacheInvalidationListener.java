@@ -0,0 +1,38 @@
+package ru.mentee.power.crm.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.mentee.power.crm.domain.Product;
+import ru.mentee.power.crm.repository.CacheInvalidation;
+
+/**
+ * Сообщает об изменениях справочников событием {@link CacheInvalidation} — его пишет в межузловую
+ * ленту CacheInvalidationFeed. Новые строки тоже: на других узлах кэш запросов мог запомнить пустой
+ * findByName/findBySku или список без новой записи.
+ */
+public class CacheInvalidationListener {
+
+  private final ApplicationEventPublisher publisher;
+
+  public CacheInvalidationListener(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  void changed(Object entity) {
+    CacheInvalidation invalidation =
+        switch (entity) {
+          case Company company ->
+              CacheInvalidation.of(CacheInvalidation.COMPANIES, company.getId());
+          case Product product -> CacheInvalidation.of(CacheInvalidation.PRODUCTS, product.getId());
+          default -> null;
+        };
+    if (invalidation != null) {
+      publisher.publishEvent(invalidation);
+    }
+  }
+}
@@ -1,14 +1,15 @@
 package ru.mentee.power.crm.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -16,19 +17,28 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.mentee.power.crm.spring.config.SecondLevelCacheConfig;
 
-/** Сущность компании. Связь 1:N с Lead по company_id — компании идентифицируются по id. */
+/**
+ * Сущность компании. Связь 1:N с Lead по company_id — компании идентифицируются по id. Справочник:
+ * читается на каждом сохранении лида, поэтому лежит в second-level cache (коллекция leads — нет).
+ */
 @Entity
-@Table(name = "companies")
+@EntityListeners(CacheInvalidationListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.COMPANY_REGION)
+@Table(
+    name = "companies",
+    uniqueConstraints = @UniqueConstraint(name = "uq_companies_name", columnNames = "name"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Company {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
-  private UUID id;
+  @Id @GeneratedUuid private UUID id;
 
   @Column(nullable = false, length = 255)
   private String name;
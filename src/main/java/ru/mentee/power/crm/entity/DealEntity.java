@@ -7,19 +7,33 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 @Entity
-@Table(name = "deals")
+@Table(
+    name = "deals",
+    indexes =
+        @Index(name = "idx_deals_status_created_at_id", columnList = "status, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
-public class DealEntity {
+public class DealEntity implements Persistable<UUID> {
 
   @Id private UUID id;
 
+  /**
+   * id назначается до сохранения (UUIDv7 из доменной Deal), поэтому новизну по id не определить:
+   * без флага Spring Data вызывал бы merge с SELECT перед каждым INSERT.
+   */
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private boolean newEntity = true;
+
   @Column(name = "lead_id", nullable = false)
   private UUID leadId;
 
@@ -35,6 +49,17 @@ public class DealEntity {
   @OneToMany(mappedBy = "deal", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<DealProduct> dealProducts = new ArrayList<>();
 
+  @Override
+  public boolean isNew() {
+    return newEntity;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markPersisted() {
+    newEntity = false;
+  }
+
   public void addDealProduct(DealProduct dealProduct) {
     dealProducts.add(dealProduct);
     dealProduct.setDeal(this);
@@ -1,10 +1,55 @@
 package ru.mentee.power.crm.entity;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface DealEntityRepository extends JpaRepository<DealEntity, UUID> {
 
   List<DealEntity> findByStatus(String status);
+
+  /**
+   * Первые limit сделок каждого статуса, от новых к старым. Оконная функция нумерует строки внутри
+   * статуса, так что в приложение приходит не больше limit строк на колонку канбана (индекс
+   * idx_deals_status_created_at_id).
+   */
+  @Query(
+      value =
+          "SELECT id, lead_id, amount, status, created_at FROM ("
+              + " SELECT d.id, d.lead_id, d.amount, d.status, d.created_at,"
+              + " ROW_NUMBER() OVER (PARTITION BY d.status ORDER BY d.created_at DESC, d.id DESC)"
+              + " AS rn FROM deals d) ranked"
+              + " WHERE rn <= :limit ORDER BY status, created_at DESC, id DESC",
+      nativeQuery = true)
+  List<DealEntity> findTopPerStatus(@Param("limit") int limit);
+
+  /** UPDATE существующей сделки без предварительного SELECT (merge). 0 — строки с таким id нет. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE DealEntity d SET d.leadId = :leadId, d.amount = :amount, d.status = :status"
+          + " WHERE d.id = :id")
+  int updateDeal(
+      @Param("id") UUID id,
+      @Param("leadId") UUID leadId,
+      @Param("amount") BigDecimal amount,
+      @Param("status") String status);
+
+  /** Число сделок и сумма amount по каждому статусу — итоги колонок канбана. */
+  @Query(
+      "SELECT d.status AS status, COUNT(d) AS dealCount, COALESCE(SUM(d.amount), 0) AS totalAmount"
+          + " FROM DealEntity d GROUP BY d.status")
+  List<StatusSummary> summarizeByStatus();
+
+  /** Итоги одного статуса (проекция summarizeByStatus). */
+  interface StatusSummary {
+    String getStatus();
+
+    long getDealCount();
+
+    BigDecimal getTotalAmount();
+  }
 }
@@ -17,9 +17,7 @@ import ru.mentee.power.crm.domain.Product;
 @Table(name = "deal_product")
 public class DealProduct {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
-  private UUID id;
+  @Id @GeneratedUuid private UUID id;
 
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "deal_id", nullable = false)
@@ -0,0 +1,50 @@
+package ru.mentee.power.crm.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Строка истории статусов сделки (миграция 013). Пишет и агрегирует её
+ * ru.mentee.power.crm.spring.repository.JpaDealStatusHistoryRepository через JDBC; маппинг
+ * описывает схему для ddl-auto.
+ */
+@Entity
+@Immutable
+@Table(
+    name = "deal_status_history",
+    indexes = {
+      @Index(
+          name = "idx_deal_status_history_deal_id_changed_at",
+          columnList = "deal_id, changed_at"),
+      @Index(name = "idx_deal_status_history_status_changed_at", columnList = "status, changed_at")
+    })
+@Getter
+@NoArgsConstructor
+public class DealStatusHistoryEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "deal_id", nullable = false)
+  private UUID dealId;
+
+  @Column(nullable = false, length = 50)
+  private String status;
+
+  @Column(name = "previous_status", length = 50)
+  private String previousStatus;
+
+  @Column(name = "changed_at", nullable = false)
+  private Instant changedAt;
+}
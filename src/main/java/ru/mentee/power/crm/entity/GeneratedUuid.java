@@ -0,0 +1,18 @@
+package ru.mentee.power.crm.entity;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Идентификатор сущности от {@link ru.mentee.power.crm.util.Ids} (UUIDv7 по умолчанию) вместо
+ * GenerationType.UUID, который выдаёт случайные UUIDv4.
+ */
+@IdGeneratorType(IdsGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface GeneratedUuid {}
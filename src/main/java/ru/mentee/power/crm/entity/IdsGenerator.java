@@ -0,0 +1,26 @@
+package ru.mentee.power.crm.entity;
+
+import java.util.EnumSet;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import ru.mentee.power.crm.util.Ids;
+
+/** Генератор Hibernate для {@link GeneratedUuid}: id выдаётся до INSERT текущим IdGenerator. */
+public class IdsGenerator implements BeforeExecutionGenerator {
+
+  @Override
+  public Object generate(
+      SharedSessionContractImplementor session,
+      Object owner,
+      Object currentValue,
+      EventType eventType) {
+    return Ids.next();
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+}
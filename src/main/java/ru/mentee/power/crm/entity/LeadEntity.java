@@ -2,10 +2,14 @@ package ru.mentee.power.crm.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
@@ -16,13 +20,28 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+import ru.mentee.power.crm.util.Ids;
 
 @Entity
-@Table(name = "leads")
+@EntityListeners(LeadEntityListener.class)
+@NamedEntityGraph(name = LeadEntity.WITH_COMPANY, attributeNodes = @NamedAttributeNode("company"))
+@Table(
+    name = "leads",
+    indexes = {
+      @Index(name = "idx_leads_status", columnList = "status"),
+      @Index(name = "idx_leads_created_at_id", columnList = "created_at, id")
+    })
 @Getter
 @Setter
 @NoArgsConstructor
-public class LeadEntity {
+public class LeadEntity implements Persistable<UUID> {
+
+  /**
+   * План выборки списков: компания подгружается тем же SELECT (LEFT JOIN), иначе getCompanyName()
+   * инициализирует LAZY-прокси Company отдельным запросом на каждого лида.
+   */
+  public static final String WITH_COMPANY = "Lead.withCompany";
 
   @Id private UUID id;
 
@@ -57,11 +76,20 @@ public class LeadEntity {
   @Column(length = 20)
   private String zip;
 
-  @Column(name = "created_at")
+  @Column(name = "created_at", nullable = false)
   private Instant createdAt;
 
   @Version private Long version;
 
+  /**
+   * Новизна по @Version: id назначается заранее (ensureId, импорт), поэтому по одному id Spring
+   * Data не отличит новую сущность и сделал бы merge с SELECT перед INSERT.
+   */
+  @Override
+  public boolean isNew() {
+    return version == null;
+  }
+
   /** Имя компании для доменной модели: из связи Company или денормализованное поле. */
   public String getCompanyName() {
     return company != null ? company.getName() : companyName;
@@ -82,10 +110,27 @@ public class LeadEntity {
     }
   }
 
+  /**
+   * Устанавливает связь по ссылке на компанию (в т.ч. прокси из getReference) и её имя, не загружая
+   * строку Company.
+   */
+  public void assignCompany(Company company, String companyName) {
+    this.company = company;
+    this.companyName = companyName;
+  }
+
+  /** Значение колонки company как есть — без обращения к ленивой связи Company. */
+  public String getStoredCompanyName() {
+    return companyName;
+  }
+
   @PrePersist
   void ensureId() {
     if (id == null) {
-      id = UUID.randomUUID();
+      id = Ids.next();
+    }
+    if (createdAt == null) {
+      createdAt = Instant.now();
     }
   }
 
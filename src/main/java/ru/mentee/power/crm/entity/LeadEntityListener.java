@@ -0,0 +1,32 @@
+package ru.mentee.power.crm.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.mentee.power.crm.repository.LeadChangedEvent;
+
+/**
+ * Сообщает об изменениях LeadEntity событием {@link LeadChangedEvent} с новой @Version — так кэш
+ * лидов узнаёт о записях через Spring Data репозиторий в обход LeadDomainRepository. Создаётся
+ * Hibernate через Spring (SpringBeanContainer), колбэки срабатывают при flush в потоке транзакции.
+ */
+public class LeadEntityListener {
+
+  private final ApplicationEventPublisher publisher;
+
+  public LeadEntityListener(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  @PostPersist
+  @PostUpdate
+  void changed(LeadEntity lead) {
+    publisher.publishEvent(new LeadChangedEvent(lead.getId(), lead.getVersion()));
+  }
+
+  @PostRemove
+  void removed(LeadEntity lead) {
+    publisher.publishEvent(new LeadChangedEvent(lead.getId(), null));
+  }
+}
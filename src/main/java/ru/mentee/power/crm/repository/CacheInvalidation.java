@@ -0,0 +1,24 @@
+package ru.mentee.power.crm.repository;
+
+import java.util.UUID;
+
+/**
+ * Изменение, которое должны забыть кэши других узлов. Публикуется как Spring application event
+ * (JPA-колбэки Company, Product и native-вставка CompanyIdResolver), CacheInvalidationFeed
+ * дописывает его в ленту cache_invalidation в той же транзакции. Лиды идут в ленту через {@link
+ * LeadChangedEvent}.
+ *
+ * @param region LEADS | COMPANIES | PRODUCTS
+ * @param id изменённая запись; null — изменены все записи региона
+ * @param version новая @Version; null — версия неизвестна или запись удалена
+ */
+public record CacheInvalidation(String region, UUID id, Long version) {
+
+  public static final String LEADS = "lead";
+  public static final String COMPANIES = "company";
+  public static final String PRODUCTS = "product";
+
+  public static CacheInvalidation of(String region, UUID id) {
+    return new CacheInvalidation(region, id, null);
+  }
+}
@@ -0,0 +1,315 @@
+package ru.mentee.power.crm.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.mentee.power.crm.domain.Product;
+import ru.mentee.power.crm.entity.Company;
+import ru.mentee.power.crm.util.Ids;
+
+/**
+ * Межузловая инвалидация in-process кэшей (CachingLeadDomainRepository, CompanyIdResolver,
+ * second-level cache Hibernate) при нескольких экземплярах приложения на одной БД.
+ *
+ * <p>Запись: изменения лидов ({@link LeadChangedEvent}), справочников ({@link CacheInvalidation})
+ * дописываются строкой в cache_invalidation на соединении текущей транзакции — строка появляется
+ * ровно тогда, когда коммитится само изменение, и исчезает при откате.
+ *
+ * <p>Чтение: каждый узел раз в cache.invalidation.poll-interval дочитывает ленту после последнего
+ * виденного id и вытесняет затронутые ключи — задержка ограничена интервалом опроса. Identity
+ * выдаётся при INSERT, а коммиты идут в другом порядке, поэтому пропуски в id перечитываются до
+ * gap-timeout (дольше самой длинной пишущей транзакции). Свои строки узел пропускает: локальные
+ * кэши вытесняются синхронно. Строки старше retention удаляются.
+ */
+@Component
+@Profile({"dev", "test"})
+public class CacheInvalidationFeed {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheInvalidationFeed.class);
+
+  /** Пропусков в id, которые перечитываются одновременно; сверх — пропуск считается откатом. */
+  static final int MAX_TRACKED_GAPS = 1000;
+
+  private static final String INSERT =
+      "INSERT INTO cache_invalidation (region, entity_id, version, origin) VALUES (?, ?, ?, ?)";
+
+  private static final String SELECT_AFTER =
+      "SELECT id, region, entity_id, version, origin FROM cache_invalidation"
+          + " WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+  private static final String SELECT_GAPS =
+      "SELECT id, region, entity_id, version, origin FROM cache_invalidation"
+          + " WHERE id IN (:ids) ORDER BY id";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManagerFactory entityManagerFactory;
+  private final ObjectProvider<CachingLeadDomainRepository> leadCache;
+  private final ObjectProvider<CompanyIdResolver> companyIdResolver;
+  private final String nodeId;
+  private final Duration pollInterval;
+  private final int batchSize;
+  private final Duration gapTimeout;
+  private final Duration retention;
+  private final Clock clock;
+
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("cache-invalidation-feed").daemon().factory());
+
+  /** Последний прочитанный id. Под монитором this. */
+  private long cursor;
+
+  /** Непрочитанные id ниже курсора → когда пропуск замечен. Под монитором this. */
+  private final Map<Long, Instant> gaps = new LinkedHashMap<>();
+
+  private Instant lastPurge;
+
+  private final LongAdder appended = new LongAdder();
+  private final LongAdder applied = new LongAdder();
+  private final LongAdder lateRows = new LongAdder();
+
+  @Autowired
+  public CacheInvalidationFeed(
+      JdbcTemplate jdbcTemplate,
+      EntityManagerFactory entityManagerFactory,
+      ObjectProvider<CachingLeadDomainRepository> leadCache,
+      ObjectProvider<CompanyIdResolver> companyIdResolver,
+      @Value("${cache.invalidation.node-id:}") String nodeId,
+      @Value("${cache.invalidation.poll-interval:1s}") Duration pollInterval,
+      @Value("${cache.invalidation.batch-size:500}") int batchSize,
+      @Value("${cache.invalidation.gap-timeout:1m}") Duration gapTimeout,
+      @Value("${cache.invalidation.retention:1h}") Duration retention) {
+    this(
+        jdbcTemplate,
+        entityManagerFactory,
+        leadCache,
+        companyIdResolver,
+        nodeId,
+        pollInterval,
+        batchSize,
+        gapTimeout,
+        retention,
+        Clock.systemUTC());
+  }
+
+  CacheInvalidationFeed(
+      JdbcTemplate jdbcTemplate,
+      EntityManagerFactory entityManagerFactory,
+      ObjectProvider<CachingLeadDomainRepository> leadCache,
+      ObjectProvider<CompanyIdResolver> companyIdResolver,
+      String nodeId,
+      Duration pollInterval,
+      int batchSize,
+      Duration gapTimeout,
+      Duration retention,
+      Clock clock) {
+    if (pollInterval.isNegative() || pollInterval.isZero() || batchSize <= 0) {
+      throw new IllegalArgumentException(
+          "cache.invalidation.poll-interval and batch-size must be positive");
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManagerFactory = entityManagerFactory;
+    this.leadCache = leadCache;
+    this.companyIdResolver = companyIdResolver;
+    this.nodeId = nodeId == null || nodeId.isBlank() ? Ids.next().toString() : nodeId;
+    this.pollInterval = pollInterval;
+    this.batchSize = batchSize;
+    this.gapTimeout = gapTimeout;
+    this.retention = retention;
+    this.clock = clock;
+  }
+
+  /** Новый узел начинает с конца ленты: его кэши пусты, и прошлые изменения их не касаются. */
+  @PostConstruct
+  public void start() {
+    synchronized (this) {
+      Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidation", Long.class);
+      cursor = max != null ? max : 0;
+      lastPurge = clock.instant();
+    }
+    long millis = pollInterval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::pollQuietly, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  // ========== Запись ==========
+
+  @EventListener
+  public void onLeadChanged(LeadChangedEvent event) {
+    if (Long.valueOf(0).equals(event.version())) {
+      return; // только что вставленный лид ещё не лежит ни в одном кэше
+    }
+    append(new CacheInvalidation(CacheInvalidation.LEADS, event.id(), event.version()));
+  }
+
+  @EventListener
+  public void onInvalidation(CacheInvalidation invalidation) {
+    append(invalidation);
+  }
+
+  /**
+   * JdbcTemplate берёт соединение, привязанное к текущей JPA-транзакции, — поэтому строку можно
+   * писать и из JPA-колбэка посреди flush.
+   */
+  private void append(CacheInvalidation invalidation) {
+    jdbcTemplate.update(
+        INSERT, invalidation.region(), invalidation.id(), invalidation.version(), nodeId);
+    appended.increment();
+  }
+
+  // ========== Чтение ==========
+
+  private void pollQuietly() {
+    try {
+      poll();
+    } catch (RuntimeException e) {
+      log.warn("Cache invalidation poll failed, retrying in {}", pollInterval, e);
+    }
+  }
+
+  /**
+   * Дочитывает ленту: сначала незакрытые пропуски, затем строки после курсора.
+   *
+   * @return вытеснений, применённых к кэшам этого узла
+   */
+  synchronized int poll() {
+    int count = 0;
+    Instant now = clock.instant();
+    if (!gaps.isEmpty()) {
+      List<Row> late =
+          new NamedParameterJdbcTemplate(jdbcTemplate)
+              .query(SELECT_GAPS, Map.of("ids", List.copyOf(gaps.keySet())), this::mapRow);
+      for (Row row : late) {
+        gaps.remove(row.id());
+        lateRows.increment();
+        count += apply(row);
+      }
+      gaps.values().removeIf(seen -> seen.plus(gapTimeout).isBefore(now));
+    }
+    List<Row> rows;
+    do {
+      rows = jdbcTemplate.query(SELECT_AFTER, this::mapRow, cursor, batchSize);
+      for (Row row : rows) {
+        rememberGaps(row.id(), now);
+        cursor = row.id();
+        count += apply(row);
+      }
+    } while (rows.size() == batchSize);
+    purgeIfDue(now);
+    return count;
+  }
+
+  private void rememberGaps(long id, Instant now) {
+    for (long missing = cursor + 1; missing < id; missing++) {
+      if (gaps.size() >= MAX_TRACKED_GAPS) {
+        Iterator<Long> oldest = gaps.keySet().iterator();
+        oldest.next();
+        oldest.remove();
+      }
+      gaps.put(missing, now);
+    }
+  }
+
+  private int apply(Row row) {
+    if (nodeId.equals(row.origin())) {
+      return 0;
+    }
+    CacheInvalidation invalidation = row.invalidation();
+    switch (invalidation.region()) {
+      case CacheInvalidation.LEADS ->
+          leadCache.ifAvailable(
+              cache ->
+                  cache.onLeadChanged(
+                      new LeadChangedEvent(invalidation.id(), invalidation.version())));
+      case CacheInvalidation.COMPANIES -> {
+        companyIdResolver.ifAvailable(resolver -> resolver.evictId(invalidation.id()));
+        evictSecondLevel(Company.class, invalidation.id());
+      }
+      case CacheInvalidation.PRODUCTS -> evictSecondLevel(Product.class, invalidation.id());
+      default -> {
+        return 0; // регион, который этот узел не кэширует
+      }
+    }
+    applied.increment();
+    return 1;
+  }
+
+  /** Сущность из региона и все результаты кэша запросов: их зависимость от id не отслеживается. */
+  private void evictSecondLevel(Class<?> type, UUID id) {
+    if (id == null) {
+      entityManagerFactory.getCache().evict(type);
+    } else {
+      entityManagerFactory.getCache().evict(type, id);
+    }
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+  }
+
+  private void purgeIfDue(Instant now) {
+    if (lastPurge.plus(retention).isAfter(now)) {
+      return;
+    }
+    int purged =
+        jdbcTemplate.update(
+            "DELETE FROM cache_invalidation WHERE created_at < ?",
+            Timestamp.from(now.minus(retention)));
+    lastPurge = now;
+    log.debug("Purged {} cache invalidation rows older than {}", purged, retention);
+  }
+
+  private Row mapRow(ResultSet rs, int rowNum) throws SQLException {
+    return new Row(
+        rs.getLong("id"),
+        new CacheInvalidation(
+            rs.getString("region"),
+            rs.getObject("entity_id", UUID.class),
+            rs.getObject("version", Long.class)),
+        rs.getString("origin"));
+  }
+
+  public synchronized Stats stats() {
+    return new Stats(appended.sum(), applied.sum(), lateRows.sum(), gaps.size(), cursor, nodeId);
+  }
+
+  private record Row(long id, CacheInvalidation invalidation, String origin) {}
+
+  /**
+   * @param appended строк, записанных этим узлом
+   * @param applied вытеснений по строкам других узлов
+   * @param lateRows строк, дочитанных из пропусков (закоммичены позже строк с большим id)
+   * @param pendingGaps пропусков в id, ещё ожидающих коммита или истечения gap-timeout
+   * @param cursor последний прочитанный id ленты
+   * @param nodeId идентификатор узла в колонке origin
+   */
+  public record Stats(
+      long appended, long applied, long lateRows, int pendingGaps, long cursor, String nodeId) {}
+}
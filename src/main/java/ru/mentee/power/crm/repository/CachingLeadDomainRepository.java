@@ -0,0 +1,539 @@
+package ru.mentee.power.crm.repository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.mentee.power.crm.model.Lead;
+
+/**
+ * Read-through кэш над хранилищем лидов (бин с квалификатором {@link #STORE}) для горячих чтений
+ * findById / findByEmail / findAllByIds.
+ *
+ * <ul>
+ *   <li>LRU не больше lead.cache.max-size записей, каждая живёт lead.cache.ttl. Ключ — id, плюс
+ *       индекс email → id.
+ *   <li>Одновременные промахи по одному ключу схлопываются: в хранилище уходит одна загрузка.
+ *   <li>Запись хранит @Version строки. save/delete/конверсия через декоратор и {@link
+ *       LeadChangedEvent} (JPA-колбэки LeadEntity, bulk-операции) вытесняют запись сразу и ещё раз
+ *       после завершения транзакции; версия из события становится нижней границей — строка старее
+ *       не попадёт в кэш, даже если прочитана до commit.
+ *   <li>Загрузка, во время которой случилась инвалидация, результат в кэш не кладёт. Внутри пишущей
+ *       транзакции кэш не пополняется, а лиды, изменённые в ней, читаются мимо кэша.
+ * </ul>
+ */
+@Component
+@Primary
+@ManagedResource(objectName = "ru.mentee.power.crm:type=LeadCache")
+public class CachingLeadDomainRepository implements LeadDomainRepository {
+
+  /** Квалификатор реального хранилища (JPA или in-memory), которое оборачивает кэш. */
+  public static final String STORE = "leadStore";
+
+  private final LeadDomainRepository delegate;
+  private final Duration ttl;
+  private final Clock clock;
+
+  private final Map<UUID, Entry> entries;
+  private final Map<String, UUID> idsByEmail;
+  private final Map<UUID, Long> versionFloors;
+  private final ConcurrentMap<Object, CompletableFuture<VersionedLead>> inFlight =
+      new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @Autowired
+  public CachingLeadDomainRepository(
+      @Qualifier(STORE) LeadDomainRepository delegate,
+      @Value("${lead.cache.max-size:10000}") int maxSize,
+      @Value("${lead.cache.ttl:5m}") Duration ttl) {
+    this(delegate, maxSize, ttl, Clock.systemUTC());
+  }
+
+  /** Для тестов: управляемые часы для проверки TTL. */
+  CachingLeadDomainRepository(
+      LeadDomainRepository delegate, int maxSize, Duration ttl, Clock clock) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("lead.cache.max-size must be positive");
+    }
+    this.delegate = delegate;
+    this.ttl = ttl;
+    this.clock = clock;
+    this.entries = new LruMap<>(maxSize);
+    this.idsByEmail = new LruMap<>(maxSize);
+    this.versionFloors = new LruMap<>(maxSize);
+  }
+
+  // ========== Чтения через кэш ==========
+
+  @Override
+  public Lead findById(UUID id) {
+    if (writtenInCurrentTransaction(id)) {
+      return delegate.findById(id);
+    }
+    Lead cached = cached(id);
+    if (cached != null) {
+      return cached;
+    }
+    VersionedLead loaded =
+        load(id, () -> delegate.findVersionedByIds(List.of(id)).stream().findFirst().orElse(null));
+    return loaded != null ? loaded.lead() : null;
+  }
+
+  @Override
+  public Optional<Lead> findByEmail(String email) {
+    if (hasWritesInCurrentTransaction()) {
+      return delegate.findByEmail(email);
+    }
+    UUID id;
+    synchronized (entries) {
+      id = idsByEmail.get(email);
+    }
+    if (id != null) {
+      Lead cached = cached(id);
+      if (cached != null && cached.contact().email().equals(email)) {
+        return Optional.of(cached);
+      }
+    }
+    VersionedLead loaded =
+        load("email:" + email, () -> delegate.findVersionedByEmail(email).orElse(null));
+    return Optional.ofNullable(loaded).map(VersionedLead::lead);
+  }
+
+  /** Закэшированные лиды отдаются сразу, остальные догружаются одним пакетным запросом. */
+  @Override
+  public List<Lead> findAllByIds(Collection<UUID> ids) {
+    List<Lead> result = new ArrayList<>(ids.size());
+    Set<UUID> missing = new HashSet<>();
+    for (UUID id : ids) {
+      if (id == null || missing.contains(id)) {
+        continue;
+      }
+      Lead cached = writtenInCurrentTransaction(id) ? null : cached(id);
+      if (cached != null) {
+        result.add(cached);
+      } else {
+        missing.add(id);
+      }
+    }
+    if (!missing.isEmpty()) {
+      misses.add(missing.size());
+      long stamp = invalidations.get();
+      long start = System.nanoTime();
+      List<VersionedLead> loaded = delegate.findVersionedByIds(missing);
+      recordLoad(start);
+      for (VersionedLead versioned : loaded) {
+        remember(versioned, stamp);
+        result.add(versioned.lead());
+      }
+    }
+    return result;
+  }
+
+  // ========== Записи с инвалидацией ==========
+
+  @Override
+  public void save(Lead lead) {
+    delegate.save(lead);
+    invalidate(lead.id(), null);
+  }
+
+  @Override
+  public boolean saveIfEmailAbsent(Lead lead) {
+    boolean saved = delegate.saveIfEmailAbsent(lead);
+    if (saved) {
+      invalidate(lead.id(), null);
+    }
+    return saved;
+  }
+
+  @Override
+  public boolean markConvertedIfNotConverted(UUID id) {
+    boolean converted = delegate.markConvertedIfNotConverted(id);
+    if (converted) {
+      invalidate(id, null);
+    }
+    return converted;
+  }
+
+  @Override
+  public void delete(UUID id) {
+    delegate.delete(id);
+    invalidate(id, null);
+  }
+
+  /** Изменения лидов мимо декоратора: JPA-колбэки LeadEntity и bulk-операции. */
+  @EventListener
+  public void onLeadChanged(LeadChangedEvent event) {
+    invalidate(event.id(), event.version());
+  }
+
+  // ========== Без кэша ==========
+
+  /** Блокирующее чтение под запись — всегда из хранилища. */
+  @Override
+  public Lead findByIdForUpdate(UUID id) {
+    return delegate.findByIdForUpdate(id);
+  }
+
+  @Override
+  public List<Lead> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<VersionedLead> findVersionedByIds(Collection<UUID> ids) {
+    return delegate.findVersionedByIds(ids);
+  }
+
+  @Override
+  public Optional<VersionedLead> findVersionedByEmail(String email) {
+    return delegate.findVersionedByEmail(email);
+  }
+
+  @Override
+  public Page<Lead> findLeads(String search, String status, Pageable pageable) {
+    return delegate.findLeads(search, status, pageable);
+  }
+
+  @Override
+  public Page<Lead> findByStatus(String status, Pageable pageable) {
+    return delegate.findByStatus(status, pageable);
+  }
+
+  @Override
+  public void inSavepoint(Runnable action) {
+    delegate.inSavepoint(action);
+  }
+
+  @Override
+  public int size() {
+    return delegate.size();
+  }
+
+  public Stats stats() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new Stats(
+        hits.sum(),
+        misses.sum(),
+        coalesced.sum(),
+        loads.sum(),
+        Duration.ofNanos(loadNanos.sum()),
+        evictions.sum(),
+        size);
+  }
+
+  // ========== JMX: те же счётчики, что в stats() ==========
+
+  @ManagedAttribute(description = "Чтения, отданные из кэша")
+  public long getHits() {
+    return hits.sum();
+  }
+
+  @ManagedAttribute(description = "Ключи, которых не было в кэше")
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @ManagedAttribute(description = "Промахи, дождавшиеся уже идущей загрузки того же ключа")
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  @ManagedAttribute(description = "Обращения к хранилищу")
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  @ManagedAttribute(description = "Суммарное время обращений к хранилищу, мс")
+  public long getLoadTimeMillis() {
+    return Duration.ofNanos(loadNanos.sum()).toMillis();
+  }
+
+  @ManagedAttribute(description = "Записи, вытесненные инвалидацией")
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  @ManagedAttribute(description = "Записей в кэше сейчас")
+  public int getSize() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @ManagedAttribute(description = "Доля чтений из кэша")
+  public double getHitRatio() {
+    return stats().hitRatio();
+  }
+
+  // ========== Внутреннее ==========
+
+  private Lead cached(UUID id) {
+    Instant now = clock.instant();
+    synchronized (entries) {
+      Entry entry = entries.get(id);
+      if (entry == null) {
+        return null;
+      }
+      if (!now.isBefore(entry.expiresAt())) {
+        removeEntry(id, entry);
+        return null;
+      }
+      hits.increment();
+      return entry.value().lead();
+    }
+  }
+
+  /**
+   * Загрузка с схлопыванием по ключу: первый вызов идёт в хранилище, остальные ждут его результат.
+   */
+  private VersionedLead load(Object key, Supplier<VersionedLead> loader) {
+    CompletableFuture<VersionedLead> call = new CompletableFuture<>();
+    CompletableFuture<VersionedLead> running = inFlight.putIfAbsent(key, call);
+    if (running != null) {
+      coalesced.increment();
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    }
+    misses.increment();
+    long stamp = invalidations.get();
+    long start = System.nanoTime();
+    try {
+      VersionedLead loaded = loader.get();
+      recordLoad(start);
+      if (loaded != null) {
+        remember(loaded, stamp);
+      }
+      call.complete(loaded);
+      return loaded;
+    } catch (RuntimeException e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  private void recordLoad(long startNanos) {
+    loads.increment();
+    loadNanos.add(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Кладёт загруженного лида, если с начала загрузки (stamp) не было инвалидаций, версия не ниже
+   * известной и текущая транзакция не пишущая.
+   */
+  private void remember(VersionedLead loaded, long stamp) {
+    if (!mayPopulate()) {
+      return;
+    }
+    UUID id = loaded.lead().id();
+    Instant expiresAt = clock.instant().plus(ttl);
+    synchronized (entries) {
+      if (invalidations.get() != stamp) {
+        return;
+      }
+      Long floor = versionFloors.get(id);
+      if (floor != null && loaded.version() < floor) {
+        return;
+      }
+      Entry previous = entries.put(id, new Entry(loaded, expiresAt));
+      if (previous != null) {
+        idsByEmail.remove(previous.value().lead().contact().email(), id);
+      }
+      idsByEmail.put(loaded.lead().contact().email(), id);
+    }
+  }
+
+  /**
+   * Вытесняет лид (id == null — все) сразу и после завершения текущей транзакции. version != null —
+   * версия изменённой строки: запись этой же версии или новее остаётся.
+   */
+  private void invalidate(UUID id, Long version) {
+    evict(id, version);
+    evictAfterTransaction(id);
+  }
+
+  private void evict(UUID id, Long version) {
+    invalidations.incrementAndGet();
+    synchronized (entries) {
+      if (id == null) {
+        evictions.add(entries.size());
+        entries.clear();
+        idsByEmail.clear();
+        return;
+      }
+      Entry entry = entries.get(id);
+      if (entry != null && (version == null || entry.value().version() < version)) {
+        removeEntry(id, entry);
+        evictions.increment();
+      }
+      if (version != null) {
+        versionFloors.merge(id, version, Math::max);
+      }
+    }
+  }
+
+  private void removeEntry(UUID id, Entry entry) {
+    entries.remove(id);
+    idsByEmail.remove(entry.value().lead().contact().email(), id);
+  }
+
+  /**
+   * Лиды, изменённые в текущей транзакции, до её конца читаются мимо кэша; после commit или отката
+   * вытесняются повторно — чтения между записью и commit могли положить в кэш старую строку. При
+   * откате нижние границы версий снимаются: новая версия так и не появилась.
+   */
+  private void evictAfterTransaction(UUID id) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    WrittenLeads written = writtenLeads();
+    if (written == null) {
+      WrittenLeads created = new WrittenLeads();
+      TransactionSynchronizationManager.bindResource(this, created);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(
+                  CachingLeadDomainRepository.this);
+              afterTransaction(created, status == STATUS_COMMITTED);
+            }
+          });
+      written = created;
+    }
+    if (id == null) {
+      written.all = true;
+    } else {
+      written.ids.add(id);
+    }
+  }
+
+  private void afterTransaction(WrittenLeads written, boolean committed) {
+    if (written.all) {
+      evict(null, null);
+    }
+    for (UUID id : written.ids) {
+      evict(id, null);
+      if (!committed) {
+        synchronized (entries) {
+          versionFloors.remove(id);
+        }
+      }
+    }
+  }
+
+  private boolean writtenInCurrentTransaction(UUID id) {
+    WrittenLeads written = writtenLeads();
+    return written != null && (written.all || written.ids.contains(id));
+  }
+
+  private boolean hasWritesInCurrentTransaction() {
+    return writtenLeads() != null;
+  }
+
+  private WrittenLeads writtenLeads() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return null;
+    }
+    return (WrittenLeads) TransactionSynchronizationManager.getResource(this);
+  }
+
+  /** Пишущая транзакция может видеть свои незакоммиченные изменения — их в общий кэш не кладём. */
+  private static boolean mayPopulate() {
+    return !TransactionSynchronizationManager.isActualTransactionActive()
+        || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  /**
+   * @param hits чтения, отданные из кэша
+   * @param misses ключи, которых не было в кэше
+   * @param coalesced промахи, дождавшиеся уже идущей загрузки того же ключа
+   * @param loads обращения к хранилищу
+   * @param loadTime суммарное время этих обращений
+   * @param evictions записи, вытесненные инвалидацией
+   * @param size записей в кэше сейчас
+   */
+  public record Stats(
+      long hits,
+      long misses,
+      long coalesced,
+      long loads,
+      Duration loadTime,
+      long evictions,
+      int size) {
+
+    public double hitRatio() {
+      long total = hits + misses;
+      return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public Duration averageLoadTime() {
+      return loads == 0 ? Duration.ZERO : loadTime.dividedBy(loads);
+    }
+  }
+
+  private record Entry(VersionedLead value, Instant expiresAt) {}
+
+  /** Лиды, изменённые в текущей транзакции (ресурс TransactionSynchronizationManager). */
+  private static final class WrittenLeads {
+    final Set<UUID> ids = new HashSet<>();
+    boolean all;
+  }
+
+  /** LinkedHashMap в порядке доступа: при переполнении вытесняется давно не использованный ключ. */
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+    private final int maxSize;
+
+    LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package ru.mentee.power.crm.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.mentee.power.crm.entity.Company;
+import ru.mentee.power.crm.util.Ids;
+
+/**
+ * Разрешение имени компании в id для JpaLeadRepository.save. Перед CompanyRepository.findByName
+ * стоит ограниченный LRU-кэш имя → id; промах кэша разрешается через INSERT ... ON CONFLICT (name)
+ * DO NOTHING (на H2 — эквивалентный MERGE), так что параллельные создатели одной компании не
+ * получают дублей. Опирается на ограничение uq_companies_name.
+ */
+@Component
+public class CompanyIdResolver {
+
+  private static final String INSERT_IF_ABSENT_POSTGRESQL =
+      "INSERT INTO companies (id, name) VALUES (:id, :name) ON CONFLICT (name) DO NOTHING";
+
+  private static final String INSERT_IF_ABSENT_STANDARD =
+      "MERGE INTO companies c USING (VALUES (CAST(:id AS UUID), CAST(:name AS VARCHAR(255))))"
+          + " s (id, name) ON c.name = s.name"
+          + " WHEN NOT MATCHED THEN INSERT (id, name) VALUES (s.id, s.name)";
+
+  private final EntityManager entityManager;
+  private final CompanyRepository companyRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Map<String, UUID> cache;
+  private volatile String insertIfAbsentSql;
+
+  public CompanyIdResolver(
+      EntityManager entityManager,
+      CompanyRepository companyRepository,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${company.cache.max-size:1000}") int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("company.cache.max-size must be positive");
+    }
+    this.entityManager = entityManager;
+    this.companyRepository = companyRepository;
+    this.eventPublisher = eventPublisher;
+    this.cache = new LruMap(maxSize);
+  }
+
+  /**
+   * Возвращает ссылку на компанию с данным именем (прокси без загрузки строки), создавая компанию
+   * при необходимости. Вызывать внутри транзакции.
+   */
+  public Company resolve(String name) {
+    UUID id;
+    synchronized (cache) {
+      id = cache.get(name);
+    }
+    if (id == null) {
+      id = findOrInsert(name);
+      remember(name, id);
+    }
+    return entityManager.getReference(Company.class, id);
+  }
+
+  /** Сбрасывает запись кэша (например, после переименования или удаления компании). */
+  public void evict(String name) {
+    synchronized (cache) {
+      cache.remove(name);
+    }
+  }
+
+  /**
+   * Сбрасывает имена, указывающие на компанию с данным id (изменение пришло с другого узла и имени
+   * не несёт); null — весь кэш.
+   */
+  public void evictId(UUID id) {
+    synchronized (cache) {
+      if (id == null) {
+        cache.clear();
+      } else {
+        cache.values().removeIf(id::equals);
+      }
+    }
+  }
+
+  int cachedSize() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * Промах кэша: сразу INSERT-если-нет (новая компания — одно обращение), а при конфликте по имени
+   * — SELECT id уже существующей строки. Native-запрос объявляет, что трогает только companies:
+   * иначе Hibernate сбросил бы после него все регионы second-level cache.
+   */
+  private UUID findOrInsert(String name) {
+    UUID candidate = Ids.next();
+    int inserted =
+        entityManager
+            .createNativeQuery(insertIfAbsentSql())
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(Company.class)
+            .setParameter("id", candidate)
+            .setParameter("name", name)
+            .executeUpdate();
+    if (inserted == 1) {
+      evictOnRollback(name);
+      // Native INSERT идёт мимо JPA-колбэков Company: другие узлы могли закэшировать пустой
+      // findByName
+      eventPublisher.publishEvent(CacheInvalidation.of(CacheInvalidation.COMPANIES, candidate));
+      return candidate;
+    }
+    return companyRepository.findByName(name).orElseThrow().getId();
+  }
+
+  private void remember(String name, UUID id) {
+    synchronized (cache) {
+      cache.put(name, id);
+    }
+  }
+
+  /**
+   * Компания, вставленная в текущей транзакции, вычищается из кэша при откате — иначе в кэше
+   * осталась бы ссылка на несуществующую строку.
+   */
+  private void evictOnRollback(String name) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+              evict(name);
+            }
+          }
+        });
+  }
+
+  private String insertIfAbsentSql() {
+    String sql = insertIfAbsentSql;
+    if (sql == null) {
+      boolean postgres =
+          entityManager
+                  .getEntityManagerFactory()
+                  .unwrap(SessionFactoryImplementor.class)
+                  .getJdbcServices()
+                  .getDialect()
+              instanceof PostgreSQLDialect;
+      sql = postgres ? INSERT_IF_ABSENT_POSTGRESQL : INSERT_IF_ABSENT_STANDARD;
+      insertIfAbsentSql = sql;
+    }
+    return sql;
+  }
+
+  /** LinkedHashMap в порядке доступа: при переполнении вытесняется давно не использованное имя. */
+  private static final class LruMap extends LinkedHashMap<String, UUID> {
+    private final int maxSize;
+
+    LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
@@ -1,12 +1,16 @@
 package ru.mentee.power.crm.repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.mentee.power.crm.entity.Company;
+import ru.mentee.power.crm.spring.config.SecondLevelCacheConfig;
 
 public interface CompanyRepository extends JpaRepository<Company, UUID> {
 
@@ -14,5 +18,10 @@ public interface CompanyRepository extends JpaRepository<Company, UUID> {
   @Query("SELECT c FROM Company c WHERE c.id = :id")
   Optional<Company> findByIdWithLeads(@Param("id") UUID id);
 
+  /** Кэш запросов хранит id, сама компания берётся из региона сущности — повтор без SQL. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.QUERY_REGION)
+  })
   Optional<Company> findByName(String name);
 }
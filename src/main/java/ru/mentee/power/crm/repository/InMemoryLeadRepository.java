@@ -1,26 +1,68 @@
 package ru.mentee.power.crm.repository;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.model.LeadStatus;
 
+/**
+ * Потокобезопасное хранилище для профиля по умолчанию и standalone Tomcat. Все изменения лида идут
+ * через storage.compute по его id: блокируется только бин ConcurrentHashMap с этим id (striping по
+ * ключу), внутри обновляются email- и статус-индексы. Порядок захвата всегда storage → индекс,
+ * поэтому взаимных блокировок нет. Читатели не блокируются и сверяют индекс с самим лидом, так что
+ * никогда не видят устаревшую запись индекса.
+ */
 @Repository
 @Profile("!dev & !test")
+@Qualifier(CachingLeadDomainRepository.STORE)
 public class InMemoryLeadRepository implements LeadDomainRepository {
 
-  private final Map<UUID, Lead> storage = new HashMap<>();
-  private final Map<String, UUID> emailIndex = new HashMap<>();
+  private final ConcurrentMap<UUID, Lead> storage = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, UUID> emailIndex = new ConcurrentHashMap<>();
+
+  /** Вторичный индекс статус → id лидов, чтобы findByStatus не сканировал всё хранилище. */
+  private final ConcurrentMap<String, Set<UUID>> statusIndex = new ConcurrentHashMap<>();
 
   @Override
   public void save(Lead lead) {
-    storage.put(lead.id(), lead);
-    emailIndex.put(lead.contact().email(), lead.id());
+    storage.compute(
+        lead.id(),
+        (id, previous) -> {
+          if (previous != null && !previous.contact().email().equals(lead.contact().email())) {
+            emailIndex.remove(previous.contact().email(), id);
+          }
+          emailIndex.put(lead.contact().email(), id);
+          if (previous != null && !previous.status().equals(lead.status())) {
+            removeFromStatusIndex(previous);
+          }
+          addToStatusIndex(lead.status(), id);
+          return lead;
+        });
+  }
+
+  /** Email занимается атомарным putIfAbsent; при успехе лид сохраняется как обычно. */
+  @Override
+  public boolean saveIfEmailAbsent(Lead lead) {
+    UUID owner = emailIndex.putIfAbsent(lead.contact().email(), lead.id());
+    if (owner != null && !owner.equals(lead.id())) {
+      return false;
+    }
+    save(lead);
+    return true;
   }
 
   @Override
@@ -33,17 +75,81 @@ public class InMemoryLeadRepository implements LeadDomainRepository {
     return storage.get(id);
   }
 
+  /** Проверка и смена статуса внутри storage.compute — атомарно для данного id. */
+  @Override
+  public boolean markConvertedIfNotConverted(UUID id) {
+    String converted = LeadStatus.CONVERTED.name();
+    boolean[] changed = new boolean[1];
+    storage.computeIfPresent(
+        id,
+        (key, lead) -> {
+          if (lead.status().equals(converted)) {
+            return lead;
+          }
+          removeFromStatusIndex(lead);
+          addToStatusIndex(converted, key);
+          changed[0] = true;
+          return new Lead(key, lead.contact(), lead.company(), converted);
+        });
+    return changed[0];
+  }
+
   @Override
   public List<Lead> findAll() {
     return new ArrayList<>(storage.values());
   }
 
+  @Override
+  public List<Lead> findAllByIds(Collection<UUID> ids) {
+    return ids.stream()
+        .filter(Objects::nonNull)
+        .distinct()
+        .map(storage::get)
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  @Override
+  public int size() {
+    return storage.size();
+  }
+
   @Override
   public void delete(UUID id) {
-    Lead lead = storage.remove(id);
-    if (lead != null) {
-      emailIndex.remove(lead.contact().email());
-    }
+    storage.computeIfPresent(
+        id,
+        (key, lead) -> {
+          emailIndex.remove(lead.contact().email(), key);
+          removeFromStatusIndex(lead);
+          return null;
+        });
+  }
+
+  /**
+   * add внутри compute: иначе набор, полученный computeIfAbsent, мог быть удалён из индекса
+   * параллельным removeFromStatusIndex до add, и id попал бы в отцепленный набор.
+   */
+  private void addToStatusIndex(String status, UUID id) {
+    statusIndex.compute(
+        status,
+        (s, ids) -> {
+          Set<UUID> target = ids != null ? ids : ConcurrentHashMap.newKeySet();
+          target.add(id);
+          return target;
+        });
+  }
+
+  /**
+   * Пустой набор удаляется в том же compute, что и id; добавление тоже идёт через compute по
+   * статусу, поэтому параллельный add в тот же статус не теряется.
+   */
+  private void removeFromStatusIndex(Lead lead) {
+    statusIndex.computeIfPresent(
+        lead.status(),
+        (status, ids) -> {
+          ids.remove(lead.id());
+          return ids.isEmpty() ? null : ids;
+        });
   }
 
   @Override
@@ -52,6 +158,44 @@ public class InMemoryLeadRepository implements LeadDomainRepository {
     if (id == null) {
       return Optional.empty();
     }
-    return Optional.ofNullable(storage.get(id));
+    return Optional.ofNullable(storage.get(id))
+        .filter(lead -> lead.contact().email().equals(email));
+  }
+
+  @Override
+  public Page<Lead> findLeads(String search, String status, Pageable pageable) {
+    String needle = (search == null || search.isBlank()) ? null : search.toLowerCase();
+    String statusFilter = (status == null || status.isBlank()) ? null : status;
+    List<Lead> matches =
+        storage.values().stream()
+            .filter(
+                lead ->
+                    needle == null
+                        || lead.company().toLowerCase().contains(needle)
+                        || lead.contact().email().toLowerCase().contains(needle))
+            .filter(lead -> statusFilter == null || lead.status().equals(statusFilter))
+            .sorted(Comparator.comparing(lead -> lead.contact().email()))
+            .toList();
+    return toPage(matches, pageable);
+  }
+
+  @Override
+  public Page<Lead> findByStatus(String status, Pageable pageable) {
+    List<Lead> matches =
+        statusIndex.getOrDefault(status, Set.of()).stream()
+            .map(storage::get)
+            .filter(lead -> lead != null && lead.status().equals(status))
+            .sorted(Comparator.comparing(lead -> lead.contact().email()))
+            .toList();
+    return toPage(matches, pageable);
+  }
+
+  private static Page<Lead> toPage(List<Lead> matches, Pageable pageable) {
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(matches, pageable, matches.size());
+    }
+    int from = (int) Math.min(pageable.getOffset(), matches.size());
+    int to = Math.min(from + pageable.getPageSize(), matches.size());
+    return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
   }
 }
@@ -1,57 +1,95 @@
 package ru.mentee.power.crm.repository;
 
 import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import ru.mentee.power.crm.domain.Address;
 import ru.mentee.power.crm.domain.Contact;
-import ru.mentee.power.crm.entity.Company;
 import ru.mentee.power.crm.entity.LeadEntity;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.model.LeadStatus;
 
 @Repository
 @Profile({"dev", "test"})
+@Qualifier(CachingLeadDomainRepository.STORE)
 public class JpaLeadRepository implements LeadDomainRepository {
 
   private static final Logger log = LoggerFactory.getLogger(JpaLeadRepository.class);
+
+  /** Верхняя граница размера IN-списка в одном запросе findAllByIds. */
+  static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
   private final LeadRepository jpaRepository;
   private final EntityManager entityManager;
-  private final CompanyRepository companyRepository;
+  private final CompanyIdResolver companyIdResolver;
+  private final ApplicationEventPublisher eventPublisher;
 
   public JpaLeadRepository(
       LeadRepository jpaRepository,
       EntityManager entityManager,
-      CompanyRepository companyRepository) {
+      CompanyIdResolver companyIdResolver,
+      ApplicationEventPublisher eventPublisher) {
     this.jpaRepository = jpaRepository;
     this.entityManager = entityManager;
-    this.companyRepository = companyRepository;
+    this.companyIdResolver = companyIdResolver;
+    this.eventPublisher = eventPublisher;
   }
 
+  /**
+   * Одна проверка существования: новый лид — persist, существующий — правка управляемой сущности
+   * (UPDATE при flush через dirty checking). Компания резолвится только при смене имени.
+   */
   @Override
   @Transactional
   public void save(Lead lead) {
-    if (jpaRepository.findById(lead.id()).isEmpty()) {
+    LeadEntity existing = entityManager.find(LeadEntity.class, lead.id());
+    if (existing == null) {
       entityManager.persist(toEntity(lead));
     } else {
-      LeadEntity e = jpaRepository.findById(lead.id()).orElseThrow();
-      copyLeadToEntity(lead, e);
-      jpaRepository.save(e);
+      copyLeadToEntity(lead, existing);
+    }
+  }
+
+  /**
+   * Проверка по индексу email; окончательный арбитр при гонке — уникальный индекс leads.email
+   * (DataIntegrityViolationException при commit).
+   */
+  @Override
+  @Transactional
+  public boolean saveIfEmailAbsent(Lead lead) {
+    if (jpaRepository.existsByEmail(lead.contact().email())) {
+      return false;
     }
+    save(lead);
+    return true;
   }
 
   private void copyLeadToEntity(Lead lead, LeadEntity e) {
     e.setEmail(lead.contact().email());
     e.setPhone(lead.contact().phone());
     e.setStatus(lead.status());
-    resolveAndSetCompany(e, lead.company());
+    if (e.getCompany() == null || !Objects.equals(e.getStoredCompanyName(), lead.company())) {
+      resolveAndSetCompany(e, lead.company());
+    }
     if (lead.contact().address() != null) {
       e.setCity(lead.contact().address().city());
       e.setStreet(lead.contact().address().street());
@@ -59,22 +97,38 @@ public class JpaLeadRepository implements LeadDomainRepository {
     }
   }
 
-  /** Находит компанию по имени или создаёт новую; устанавливает связь по company_id. */
+  /**
+   * Находит компанию по имени (через кэш CompanyIdResolver) или создаёт новую; устанавливает связь
+   * по company_id.
+   */
   private void resolveAndSetCompany(LeadEntity e, String companyName) {
     if (companyName == null || companyName.isBlank()) {
-      e.setCompanyName("-");
+      e.assignCompany(null, "-");
       return;
     }
-    Company company =
-        companyRepository
-            .findByName(companyName)
-            .orElseGet(
-                () -> {
-                  Company newCompany = new Company();
-                  newCompany.setName(companyName);
-                  return companyRepository.save(newCompany);
-                });
-    e.setCompany(company);
+    e.assignCompany(companyIdResolver.resolve(companyName), companyName);
+  }
+
+  /**
+   * JDBC savepoint на соединении сессии (HibernateJpaDialect savepoint'ы не поддерживает).
+   * Изменения action сбрасываются flush'ем до release, чтобы ошибка записи проявилась под
+   * savepoint; после отката persistence context очищается — откат к savepoint состояние сессии не
+   * восстанавливает. Ошибка самой БД при flush помечает транзакцию rollback-only (так делает
+   * Hibernate), её commit уже не пройдёт.
+   */
+  @Override
+  public void inSavepoint(Runnable action) {
+    Session session = entityManager.unwrap(Session.class);
+    Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+    try {
+      action.run();
+      entityManager.flush();
+    } catch (RuntimeException e) {
+      session.doWork(connection -> connection.rollback(savepoint));
+      entityManager.clear();
+      throw e;
+    }
+    session.doWork(connection -> connection.releaseSavepoint(savepoint));
   }
 
   @Override
@@ -105,9 +159,60 @@ public class JpaLeadRepository implements LeadDomainRepository {
     return jpaRepository.findByIdForUpdate(id).map(this::toModel).orElse(null);
   }
 
+  /** Условный UPDATE ... WHERE status <> CONVERTED: из конкурирующих конвертаций проходит одна. */
+  @Override
+  @Transactional
+  public boolean markConvertedIfNotConverted(UUID id) {
+    boolean converted = jpaRepository.markConverted(id, LeadStatus.CONVERTED.name()) == 1;
+    if (converted) {
+      // Условный UPDATE идёт мимо LeadEntityListener: новую версию знает только БД
+      eventPublisher.publishEvent(new LeadChangedEvent(id, null));
+    }
+    return converted;
+  }
+
+  /** Через проекцию LeadRow: один SELECT без загрузки сущностей, сколько бы лидов ни было. */
   @Override
   public List<Lead> findAll() {
-    return jpaRepository.findAll().stream().map(this::toModel).collect(Collectors.toList());
+    return jpaRepository.findAllRows().stream().map(this::toModel).collect(Collectors.toList());
+  }
+
+  /** Id делятся на чанки по IN_CLAUSE_CHUNK_SIZE: один запрос на чанк, а не на каждый лид. */
+  @Override
+  public List<Lead> findAllByIds(Collection<UUID> ids) {
+    List<UUID> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+    List<Lead> result = new ArrayList<>(distinct.size());
+    for (int from = 0; from < distinct.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+      List<UUID> chunk =
+          distinct.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinct.size()));
+      jpaRepository.findAllByIdInWithCompany(chunk).forEach(entity -> result.add(toModel(entity)));
+    }
+    return result;
+  }
+
+  @Override
+  public List<VersionedLead> findVersionedByIds(Collection<UUID> ids) {
+    List<UUID> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+    List<VersionedLead> result = new ArrayList<>(distinct.size());
+    for (int from = 0; from < distinct.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+      List<UUID> chunk =
+          distinct.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinct.size()));
+      jpaRepository
+          .findAllByIdInWithCompany(chunk)
+          .forEach(entity -> result.add(versioned(entity)));
+    }
+    return result;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<VersionedLead> findVersionedByEmail(String email) {
+    return jpaRepository.findByEmail(email).map(this::versioned);
+  }
+
+  private VersionedLead versioned(LeadEntity entity) {
+    return new VersionedLead(
+        toModel(entity), entity.getVersion() != null ? entity.getVersion() : 0);
   }
 
   @Override
@@ -120,6 +225,29 @@ public class JpaLeadRepository implements LeadDomainRepository {
     return jpaRepository.findByEmail(email).map(this::toModel);
   }
 
+  @Override
+  public Page<Lead> findLeads(String search, String status, Pageable pageable) {
+    String pattern = (search == null || search.isBlank()) ? null : toLikePattern(search);
+    String statusFilter = (status == null || status.isBlank()) ? null : status;
+    return jpaRepository.searchLeads(pattern, statusFilter, pageable).map(this::toModel);
+  }
+
+  @Override
+  public Page<Lead> findByStatus(String status, Pageable pageable) {
+    Sort byEmail = Sort.by("email");
+    Pageable ordered =
+        pageable.isPaged()
+            ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), byEmail)
+            : Pageable.unpaged(byEmail);
+    return jpaRepository.findByStatus(status, ordered).map(this::toModel);
+  }
+
+  /** Строка поиска → LIKE-шаблон '%text%' в нижнем регистре; %, _ и ! экранируются через '!'. */
+  private static String toLikePattern(String search) {
+    String escaped = search.toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    return "%" + escaped + "%";
+  }
+
   private LeadEntity toEntity(Lead lead) {
     LeadEntity e = new LeadEntity();
     e.setId(lead.id());
@@ -135,7 +263,8 @@ public class JpaLeadRepository implements LeadDomainRepository {
     return e;
   }
 
-  private Lead toModel(LeadEntity e) {
+  /** Package-private: горячий путь каждого чтения, замеряется в JpaLeadRepositoryBenchmark. */
+  Lead toModel(LeadEntity e) {
     try {
       if (e == null) {
         log.error("LeadEntity is null");
@@ -247,6 +376,21 @@ public class JpaLeadRepository implements LeadDomainRepository {
     }
   }
 
+  /** Проекция → Lead с теми же умолчаниями для пустых полей, что и toModel(LeadEntity). */
+  Lead toModel(LeadRow row) {
+    Address address = new Address(orDash(row.city()), orDash(row.street()), orDash(row.zip()));
+    String email =
+        (row.email() != null && !row.email().isEmpty()) ? row.email() : "unknown@example.com";
+    Contact contact = new Contact(email, orDash(row.phone()), address);
+    String company =
+        (row.company() != null && !row.company().isEmpty()) ? row.company() : "Unknown";
+    return new Lead(row.id(), contact, company, validLeadStatus(row.status()));
+  }
+
+  private static String orDash(String value) {
+    return (value != null && !value.isEmpty()) ? value : "-";
+  }
+
   private static String validLeadStatus(String value) {
     if (value == null || value.isEmpty()) return "NEW";
     for (LeadStatus s : LeadStatus.values()) {
@@ -0,0 +1,17 @@
+package ru.mentee.power.crm.repository;
+
+import java.util.UUID;
+
+/**
+ * Лид изменён в обход LeadDomainRepository (JPA-сущность, bulk-запрос). Публикуется как Spring
+ * application event, слушает CachingLeadDomainRepository.
+ *
+ * @param id лид; null — изменены все лиды (bulk UPDATE/DELETE)
+ * @param version новая @Version; null — версия неизвестна или лид удалён
+ */
+public record LeadChangedEvent(UUID id, Long version) {
+
+  public static LeadChangedEvent allLeads() {
+    return new LeadChangedEvent(null, null);
+  }
+}
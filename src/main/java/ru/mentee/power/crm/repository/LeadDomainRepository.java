@@ -1,8 +1,11 @@
 package ru.mentee.power.crm.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import ru.mentee.power.crm.model.Lead;
 
 /**
@@ -13,6 +16,13 @@ public interface LeadDomainRepository {
 
   void save(Lead lead);
 
+  /**
+   * Атомарно сохраняет лида, только если его email ещё не занят другим лидом.
+   *
+   * @return false — email уже занят, лид не сохранён
+   */
+  boolean saveIfEmailAbsent(Lead lead);
+
   Lead findById(UUID id);
 
   /**
@@ -21,12 +31,61 @@ public interface LeadDomainRepository {
    */
   Lead findByIdForUpdate(UUID id);
 
+  /**
+   * Атомарный compare-and-set статуса: переводит лид в CONVERTED, только если он ещё не CONVERTED.
+   * Без блокировки строки на чтение — для JPA один условный UPDATE.
+   *
+   * @return true — статус изменил именно этот вызов; false — лида нет или он уже конвертирован
+   */
+  boolean markConvertedIfNotConverted(UUID id);
+
   List<Lead> findAll();
 
+  /**
+   * Пакетная загрузка лидов по набору id (для JPA — запросы WHERE id IN (...) вместо N запросов
+   * findById). Отсутствующие id пропускаются, порядок результата не гарантируется.
+   */
+  List<Lead> findAllByIds(Collection<UUID> ids);
+
+  /**
+   * Как findAllByIds, но с @Version каждой строки — для кэширующего декоратора. По умолчанию версия
+   * 0 (хранилище без версий).
+   */
+  default List<VersionedLead> findVersionedByIds(Collection<UUID> ids) {
+    return findAllByIds(ids).stream().map(lead -> new VersionedLead(lead, 0)).toList();
+  }
+
+  /** Как findByEmail, но с @Version строки. */
+  default Optional<VersionedLead> findVersionedByEmail(String email) {
+    return findByEmail(email).map(lead -> new VersionedLead(lead, 0));
+  }
+
   void delete(UUID id);
 
   Optional<Lead> findByEmail(String email);
 
+  /**
+   * Поиск лидов по подстроке в названии компании или email (без учёта регистра) и по статусу.
+   * Пустые search/status означают «без фильтра». Результат упорядочен по email, чтобы страницы были
+   * стабильными в обеих реализациях.
+   */
+  Page<Lead> findLeads(String search, String status, Pageable pageable);
+
+  /**
+   * Лиды с указанным статусом, упорядоченные по email. Использует индекс по статусу, поэтому
+   * стоимость пропорциональна числу найденных записей, а не размеру таблицы.
+   */
+  Page<Lead> findByStatus(String status, Pageable pageable);
+
+  /**
+   * Выполняет запись под savepoint текущей транзакции: при исключении откатываются только изменения
+   * action, остальная транзакция продолжается. In-memory реализация пишет сразу и без транзакций —
+   * просто выполняет action.
+   */
+  default void inSavepoint(Runnable action) {
+    action.run();
+  }
+
   default int size() {
     return findAll().size();
   }
@@ -2,11 +2,14 @@ package ru.mentee.power.crm.repository;
 
 import jakarta.persistence.LockModeType;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
@@ -20,12 +23,30 @@ import ru.mentee.power.crm.entity.LeadEntity;
  */
 public interface LeadRepository extends JpaRepository<LeadEntity, UUID> {
 
+  // ========== Fetch Plans ==========
+
+  /** Все лиды вместе с компанией одним SELECT (план LeadEntity.WITH_COMPANY). */
+  @Override
+  @EntityGraph(LeadEntity.WITH_COMPANY)
+  List<LeadEntity> findAll();
+
+  /**
+   * Read-only проекция для списков без сущностей: ни managed-объектов в persistence context, ни
+   * прокси Company — только колонки, нужные для доменной модели Lead.
+   */
+  @Query(
+      "SELECT new ru.mentee.power.crm.repository.LeadRow(l.id, l.email, l.phone,"
+          + " COALESCE(c.name, l.companyName), l.status, l.city, l.street, l.zip)"
+          + " FROM LeadEntity l LEFT JOIN l.company c")
+  List<LeadRow> findAllRows();
+
   // ========== Derived Methods ==========
 
   /** Поиск лида по email (точное совпадение). SQL: SELECT * FROM leads WHERE email = ? */
   Optional<LeadEntity> findByEmail(String email);
 
   /** Поиск лидов по статусу. SQL: SELECT * FROM leads WHERE status = ? */
+  @EntityGraph(LeadEntity.WITH_COMPANY)
   List<LeadEntity> findByStatus(String status);
 
   /**
@@ -41,6 +62,17 @@ public interface LeadRepository extends JpaRepository<LeadEntity, UUID> {
   /** Проверка существования по email. SQL: SELECT EXISTS(SELECT 1 FROM leads WHERE email = ?) */
   boolean existsByEmail(String email);
 
+  /** Какие из переданных email уже есть в БД: одна проверка уникальности на чанк импорта. */
+  @Query("SELECT l.email FROM LeadEntity l WHERE l.email IN :emails")
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  /**
+   * Пакетная загрузка по набору id вместе с компанией (fetch join): toModel читает имя компании, и
+   * без join каждый лид инициализировал бы свой прокси Company отдельным SELECT.
+   */
+  @Query("SELECT l FROM LeadEntity l LEFT JOIN FETCH l.company WHERE l.id IN :ids")
+  List<LeadEntity> findAllByIdInWithCompany(@Param("ids") Collection<UUID> ids);
+
   /**
    * Поиск лидов по части email (LIKE запрос). SQL: SELECT * FROM leads WHERE email LIKE
    * '%emailPart%'
@@ -100,9 +132,11 @@ public interface LeadRepository extends JpaRepository<LeadEntity, UUID> {
    * — первая страница, 20 элементов
    */
   @Override
+  @EntityGraph(LeadEntity.WITH_COMPANY)
   Page<LeadEntity> findAll(Pageable pageable);
 
   /** Поиск по статусу с пагинацией (derived method). */
+  @EntityGraph(LeadEntity.WITH_COMPANY)
   Page<LeadEntity> findByStatus(String status, Pageable pageable);
 
   /** Поиск по названию компании с пагинацией. */
@@ -113,6 +147,44 @@ public interface LeadRepository extends JpaRepository<LeadEntity, UUID> {
   @Query("SELECT l FROM LeadEntity l WHERE l.status IN :statuses")
   Page<LeadEntity> findByStatusInPaged(@Param("statuses") List<String> statuses, Pageable pageable);
 
+  /**
+   * Поиск по подстроке в компании/email без учёта регистра и по статусу с пагинацией. Параметр
+   * pattern — уже подготовленный LIKE-шаблон в нижнем регистре ('%text%', спецсимволы экранированы
+   * '!'), null — без фильтра. На PostgreSQL использует trigram-индексы по lower(email) и
+   * lower(company).
+   */
+  @Query(
+      "SELECT l FROM LeadEntity l"
+          + " WHERE (:pattern IS NULL"
+          + " OR LOWER(l.companyName) LIKE :pattern ESCAPE '!'"
+          + " OR LOWER(l.email) LIKE :pattern ESCAPE '!')"
+          + " AND (:status IS NULL OR l.status = :status)"
+          + " ORDER BY l.email")
+  @EntityGraph(LeadEntity.WITH_COMPANY)
+  Page<LeadEntity> searchLeads(
+      @Param("pattern") String pattern, @Param("status") String status, Pageable pageable);
+
+  // ========== Keyset Pagination ==========
+
+  /**
+   * Первая страница keyset-пагинации: от новых к старым, id — tie-breaker при равном created_at.
+   * Индекс idx_leads_created_at_id.
+   */
+  @Query("SELECT l FROM LeadEntity l ORDER BY l.createdAt DESC, l.id DESC")
+  @EntityGraph(LeadEntity.WITH_COMPANY)
+  List<LeadEntity> findKeysetFirstPage(Limit limit);
+
+  /**
+   * Страница после курсора (createdAt, id): сравнение кортежей даёт range scan по индексу вместо
+   * OFFSET — стоимость не зависит от глубины страницы.
+   */
+  @Query(
+      "SELECT l FROM LeadEntity l WHERE (l.createdAt, l.id) < (:createdAt, :id)"
+          + " ORDER BY l.createdAt DESC, l.id DESC")
+  @EntityGraph(LeadEntity.WITH_COMPANY)
+  List<LeadEntity> findKeysetPageAfter(
+      @Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
+
   // ========== Bulk Operations ==========
 
   /**
@@ -124,6 +196,17 @@ public interface LeadRepository extends JpaRepository<LeadEntity, UUID> {
   @Query("UPDATE LeadEntity l SET l.status = :newStatus WHERE l.status = :oldStatus")
   int updateStatusBulk(@Param("oldStatus") String oldStatus, @Param("newStatus") String newStatus);
 
+  /**
+   * Условный UPDATE для конверсии без SELECT ... FOR UPDATE: из конкурирующих вызовов строку меняет
+   * ровно один (вернёт 1), остальные получат 0. Версия увеличивается, чтобы параллельные
+   * optimistic-обновления этого лида получили конфликт.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE LeadEntity l SET l.status = :converted, l.version = l.version + 1"
+          + " WHERE l.id = :id AND l.status <> :converted")
+  int markConverted(@Param("id") UUID id, @Param("converted") String converted);
+
   /** Массовое удаление по статусу. */
   @Modifying
   @Query("DELETE FROM LeadEntity l WHERE l.status = :status")
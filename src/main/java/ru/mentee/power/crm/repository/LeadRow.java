@@ -0,0 +1,17 @@
+package ru.mentee.power.crm.repository;
+
+import java.util.UUID;
+
+/**
+ * Read-only проекция лида: ровно те колонки, что нужны JpaLeadRepository.toModel. company — имя из
+ * связанной компании, а при её отсутствии денормализованная колонка leads.company.
+ */
+public record LeadRow(
+    UUID id,
+    String email,
+    String phone,
+    String company,
+    String status,
+    String city,
+    String street,
+    String zip) {}
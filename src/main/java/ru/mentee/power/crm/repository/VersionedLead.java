@@ -0,0 +1,9 @@
+package ru.mentee.power.crm.repository;
+
+import ru.mentee.power.crm.model.Lead;
+
+/**
+ * Лид вместе с @Version строки, из которой он прочитан. Нужен кэшу: запись старее известной версии
+ * в кэш не попадает. Реализации без версий (in-memory) отдают 0.
+ */
+public record VersionedLead(Lead lead, long version) {}
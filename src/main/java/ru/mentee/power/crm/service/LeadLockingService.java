@@ -2,66 +2,79 @@ package ru.mentee.power.crm.service;
 
 import java.math.BigDecimal;
 import java.util.UUID;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.mentee.power.crm.domain.Deal;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.model.LeadStatus;
 import ru.mentee.power.crm.repository.LeadDomainRepository;
+import ru.mentee.power.crm.spring.repository.DealRepository;
 
 /**
- * Сервис для демонстрации pessimistic и optimistic locking. Конверсия Lead→Deal использует
- * findByIdForUpdate (PESSIMISTIC_WRITE). Обычные обновления идут через обычный findById/save и при
- * конфликте версий выбрасывается OptimisticLockException — перехватывается и логируется.
+ * Сервис для демонстрации pessimistic и optimistic locking. Конверсия Lead→Deal здесь использует
+ * findByIdForUpdate (PESSIMISTIC_WRITE) — для сравнения с compare-and-set конверсией в LeadService.
+ * Обычные обновления идут через findById/save под @Version, конфликт версий повторяется через
+ * OptimisticLockRetry.
  */
 @Service
 public class LeadLockingService {
 
-  private static final Logger log = LoggerFactory.getLogger(LeadLockingService.class);
-
   private final LeadDomainRepository repository;
-  private final LeadService leadService;
+  private final DealRepository dealRepository;
+  private final OptimisticLockRetry optimisticLockRetry;
 
-  public LeadLockingService(LeadDomainRepository repository, LeadService leadService) {
+  public LeadLockingService(
+      LeadDomainRepository repository,
+      DealRepository dealRepository,
+      OptimisticLockRetry optimisticLockRetry) {
     this.repository = repository;
-    this.leadService = leadService;
+    this.dealRepository = dealRepository;
+    this.optimisticLockRetry = optimisticLockRetry;
   }
 
   /**
    * Конверсия лида в сделку с пессимистической блокировкой. Использует findByIdForUpdate — вторая
-   * транзакция ждёт завершения первой.
+   * транзакция ждёт завершения первой и видит уже CONVERTED.
+   *
+   * @throws IllegalStateException лид уже конвертирован
    */
   @Transactional
   public Deal convertWithPessimisticLock(UUID leadId, BigDecimal amount) {
-    return leadService.convertLeadToDeal(leadId, amount);
+    Lead lead = repository.findByIdForUpdate(leadId);
+    if (lead == null) {
+      throw new IllegalArgumentException("Lead not found: " + leadId);
+    }
+    if (LeadStatus.CONVERTED.name().equals(lead.status())) {
+      throw new IllegalStateException("Lead already converted: " + leadId);
+    }
+    repository.save(
+        new Lead(lead.id(), lead.contact(), lead.company(), LeadStatus.CONVERTED.name()));
+    Deal deal = new Deal(leadId, amount);
+    dealRepository.insert(deal);
+    return deal;
   }
 
   /**
-   * Обновление статуса лида без явной блокировки (optimistic locking через @Version). При конфликте
-   * версий выбрасывается OptimisticLockException — перехватываем и логируем.
+   * Обновление статуса лида без явной блокировки (optimistic locking через @Version). Конфликт
+   * версий не уходит клиенту сразу: OptimisticLockRetry повторяет обновление в новой транзакции с
+   * перечитыванием лида и паузой с jitter.
    *
-   * @return обновлённый Lead или null при конфликте версий (можно повторить операцию)
+   * @throws org.springframework.dao.OptimisticLockingFailureException попытки исчерпаны
    */
-  @Transactional
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public Lead updateStatusWithOptimisticLock(UUID leadId, LeadStatus newStatus) {
-    Lead lead = repository.findById(leadId);
-    if (lead == null) {
-      throw new IllegalArgumentException("Lead not found: " + leadId);
-    }
-    try {
-      Lead updated = new Lead(lead.id(), lead.contact(), lead.company(), newStatus.name());
-      repository.save(updated);
-      return updated;
-    } catch (org.springframework.orm.ObjectOptimisticLockingFailureException e) {
-      log.warn(
-          "Optimistic lock conflict updating lead {} to status {}: {}. Retry or return error to client.",
-          leadId,
-          newStatus,
-          e.getMessage());
-      throw e;
-    }
+    return optimisticLockRetry.execute(
+        "lead status " + leadId + " -> " + newStatus,
+        () -> {
+          Lead lead = repository.findById(leadId);
+          if (lead == null) {
+            throw new IllegalArgumentException("Lead not found: " + leadId);
+          }
+          Lead updated = new Lead(lead.id(), lead.contact(), lead.company(), newStatus.name());
+          repository.save(updated);
+          return updated;
+        });
   }
 
   /**
@@ -0,0 +1,124 @@
+package ru.mentee.power.crm.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.mentee.power.crm.service.LeadProcessingResult.Outcome;
+import ru.mentee.power.crm.service.LeadProcessingResult.Status;
+
+/**
+ * Параллельная обработка лидов по чанкам: ids делятся на чанки размера lead.processing.chunk-size,
+ * каждый чанк — одна транзакция LeadProcessor.processChunk (savepoint на лид), одновременно
+ * выполняется не больше lead.processing.parallelism чанков. Исполнитель — виртуальные потоки
+ * (virtual) или ForkJoinPool (fork-join). Параллелизм стоит держать ниже размера пула соединений:
+ * каждый чанк занимает соединение на всё время своей транзакции.
+ */
+@Service
+public class LeadProcessingEngine {
+
+  private static final Logger log = LoggerFactory.getLogger(LeadProcessingEngine.class);
+
+  private final LeadProcessor processor;
+  private final int chunkSize;
+  private final Semaphore permits;
+  private final ExecutorService executor;
+
+  public LeadProcessingEngine(
+      LeadProcessor processor,
+      @Value("${lead.processing.chunk-size:500}") int chunkSize,
+      @Value("${lead.processing.parallelism:4}") int parallelism,
+      @Value("${lead.processing.executor:virtual}") String executorType) {
+    if (chunkSize <= 0 || parallelism <= 0) {
+      throw new IllegalArgumentException(
+          "lead.processing.chunk-size and parallelism must be positive");
+    }
+    this.processor = processor;
+    this.chunkSize = chunkSize;
+    this.permits = new Semaphore(parallelism);
+    this.executor =
+        switch (executorType.toLowerCase(Locale.ROOT)) {
+          case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+          case "fork-join" -> new ForkJoinPool(parallelism);
+          default ->
+              throw new IllegalArgumentException(
+                  "lead.processing.executor must be virtual or fork-join: " + executorType);
+        };
+  }
+
+  /** Обрабатывает все ids и ждёт завершения; исходы — в порядке входного списка. */
+  public LeadProcessingResult process(List<UUID> ids) {
+    long start = System.nanoTime();
+    List<CompletableFuture<List<Outcome>>> chunks = new ArrayList<>();
+    for (int from = 0; from < ids.size(); from += chunkSize) {
+      List<UUID> chunk = List.copyOf(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+      int index = chunks.size();
+      chunks.add(CompletableFuture.supplyAsync(() -> processChunk(index, chunk), executor));
+    }
+    List<Outcome> outcomes = new ArrayList<>(ids.size());
+    for (CompletableFuture<List<Outcome>> chunk : chunks) {
+      outcomes.addAll(chunk.join());
+    }
+    LeadProcessingResult result =
+        new LeadProcessingResult(
+            outcomes, chunks.size(), Duration.ofNanos(System.nanoTime() - start));
+    log.info(
+        "Lead processing finished: ids={}, chunks={}, processed={}, notFound={}, failed={}, took={}",
+        ids.size(),
+        result.chunks(),
+        result.processed(),
+        result.notFound(),
+        result.failed(),
+        result.elapsed());
+    return result;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Сбой самого чанка (commit, транзакция помечена rollback-only ошибкой БД) откатывает его целиком
+   * — тогда чанк переигрывается по одному лиду в отдельных транзакциях, и FAILED получают только
+   * действительно сбойные лиды.
+   */
+  private List<Outcome> processChunk(int index, List<UUID> chunk) {
+    permits.acquireUninterruptibly();
+    try {
+      return processor.processChunk(chunk);
+    } catch (RuntimeException e) {
+      log.warn("Lead processing chunk {} failed, retrying lead by lead: {}", index, e.getMessage());
+      return processOneByOne(chunk);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private List<Outcome> processOneByOne(List<UUID> chunk) {
+    List<Outcome> outcomes = new ArrayList<>(chunk.size());
+    for (UUID id : chunk) {
+      long start = System.nanoTime();
+      try {
+        Status status = processor.processSingleLead(id) ? Status.PROCESSED : Status.NOT_FOUND;
+        outcomes.add(new Outcome(id, status, Duration.ofNanos(System.nanoTime() - start), null));
+      } catch (RuntimeException e) {
+        outcomes.add(
+            new Outcome(
+                id, Status.FAILED, Duration.ofNanos(System.nanoTime() - start), e.getMessage()));
+      }
+    }
+    return outcomes;
+  }
+}
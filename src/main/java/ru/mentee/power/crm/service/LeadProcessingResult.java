@@ -0,0 +1,42 @@
+package ru.mentee.power.crm.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Итог обработки лидов: исход по каждому id в порядке входного списка, число чанков (транзакций) и
+ * общее время.
+ */
+public record LeadProcessingResult(List<Outcome> outcomes, int chunks, Duration elapsed) {
+
+  public long processed() {
+    return count(Status.PROCESSED);
+  }
+
+  public long notFound() {
+    return count(Status.NOT_FOUND);
+  }
+
+  public long failed() {
+    return count(Status.FAILED);
+  }
+
+  private long count(Status status) {
+    return outcomes.stream().filter(outcome -> outcome.status() == status).count();
+  }
+
+  public enum Status {
+    PROCESSED,
+    NOT_FOUND,
+    FAILED
+  }
+
+  /**
+   * Исход одного лида.
+   *
+   * @param duration время обработки лида (внутри чанка или отдельной транзакцией при переигровке)
+   * @param error сообщение ошибки для FAILED, иначе null
+   */
+  public record Outcome(UUID id, Status status, Duration duration, String error) {}
+}
@@ -2,12 +2,19 @@ package ru.mentee.power.crm.service;
 
 import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.model.LeadStatus;
 import ru.mentee.power.crm.repository.LeadDomainRepository;
+import ru.mentee.power.crm.service.LeadProcessingResult.Outcome;
+import ru.mentee.power.crm.service.LeadProcessingResult.Status;
 
 /**
  * Отдельный сервис для обработки одного лида в своей транзакции (REQUIRES_NEW). Решает
@@ -26,14 +33,55 @@ public class LeadProcessor {
   /**
    * Обрабатывает один лид в отдельной транзакции (REQUIRES_NEW). При ошибке откатывается только эта
    * операция, остальные зафиксированные остаются.
+   *
+   * @return false — лида с таким id нет
    */
   @Transactional(propagation = REQUIRES_NEW)
-  public void processSingleLead(UUID id) {
+  public boolean processSingleLead(UUID id) {
     Lead lead = repository.findById(id);
-    if (lead != null) {
-      Lead updated =
-          new Lead(lead.id(), lead.contact(), lead.company(), LeadStatus.PROCESSED.name());
-      repository.save(updated);
+    if (lead == null) {
+      return false;
     }
+    repository.save(markProcessed(lead));
+    return true;
+  }
+
+  /**
+   * Обрабатывает чанк лидов одной транзакцией (REQUIRES_NEW): одна пакетная загрузка и один commit
+   * на чанк. Каждый лид пишется под своим savepoint — ошибка откатывает только его, остальные лиды
+   * чанка фиксируются.
+   *
+   * @return исходы в порядке ids
+   */
+  @Transactional(propagation = REQUIRES_NEW)
+  public List<Outcome> processChunk(List<UUID> ids) {
+    Map<UUID, Lead> leads = new HashMap<>();
+    for (Lead lead : repository.findAllByIds(ids)) {
+      leads.put(lead.id(), lead);
+    }
+    List<Outcome> outcomes = new ArrayList<>(ids.size());
+    for (UUID id : ids) {
+      long start = System.nanoTime();
+      Lead lead = leads.get(id);
+      if (lead == null) {
+        outcomes.add(new Outcome(id, Status.NOT_FOUND, elapsedSince(start), null));
+        continue;
+      }
+      try {
+        repository.inSavepoint(() -> repository.save(markProcessed(lead)));
+        outcomes.add(new Outcome(id, Status.PROCESSED, elapsedSince(start), null));
+      } catch (RuntimeException e) {
+        outcomes.add(new Outcome(id, Status.FAILED, elapsedSince(start), e.getMessage()));
+      }
+    }
+    return outcomes;
+  }
+
+  private static Lead markProcessed(Lead lead) {
+    return new Lead(lead.id(), lead.contact(), lead.company(), LeadStatus.PROCESSED.name());
+  }
+
+  private static Duration elapsedSince(long startNanos) {
+    return Duration.ofNanos(System.nanoTime() - startNanos);
   }
 }
@@ -1,13 +1,20 @@
 package ru.mentee.power.crm.service;
 
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
 import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,10 +22,13 @@ import org.springframework.web.server.ResponseStatusException;
 import ru.mentee.power.crm.domain.Address;
 import ru.mentee.power.crm.domain.Contact;
 import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealEvent;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.model.LeadStatus;
 import ru.mentee.power.crm.repository.LeadDomainRepository;
+import ru.mentee.power.crm.spring.exception.LeadAlreadyConvertedException;
 import ru.mentee.power.crm.spring.repository.DealRepository;
+import ru.mentee.power.crm.util.Ids;
 
 @Service
 @Transactional
@@ -26,22 +36,36 @@ public class LeadService {
 
   private final LeadDomainRepository repository;
   private final DealRepository dealRepository;
-  private final LeadProcessor leadProcessor;
+  private final LeadProcessingEngine processingEngine;
+  private final OptimisticLockRetry optimisticLockRetry;
+  private final ApplicationEventPublisher eventPublisher;
 
-  /** Для standalone (Main) и тестов без Spring-контекста. */
+  /**
+   * Для standalone (Main) и тестов без Spring-контекста: обработка лидов последовательно, без
+   * транзакций.
+   */
   public LeadService(LeadDomainRepository repository, DealRepository dealRepository) {
-    this.repository = repository;
-    this.dealRepository = dealRepository;
-    this.leadProcessor = null;
+    this(
+        repository,
+        dealRepository,
+        new LeadProcessingEngine(new LeadProcessor(repository), 500, 1, "virtual"),
+        OptimisticLockRetry.withoutTransactions(),
+        event -> {});
   }
 
-  /** Конструктор для Spring: явно выбран для инъекции при наличии LeadProcessor. */
+  /** Конструктор для Spring: явно выбран для инъекции при наличии LeadProcessingEngine. */
   @Autowired
   public LeadService(
-      LeadDomainRepository repository, DealRepository dealRepository, LeadProcessor leadProcessor) {
+      LeadDomainRepository repository,
+      DealRepository dealRepository,
+      LeadProcessingEngine processingEngine,
+      OptimisticLockRetry optimisticLockRetry,
+      ApplicationEventPublisher eventPublisher) {
     this.repository = repository;
     this.dealRepository = dealRepository;
-    this.leadProcessor = leadProcessor;
+    this.processingEngine = processingEngine;
+    this.optimisticLockRetry = optimisticLockRetry;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -51,18 +75,12 @@ public class LeadService {
    */
   public Lead addLead(
       String email, String company, LeadStatus status, Address address, String phone) {
-    // Бизнес-правило: проверка уникальности email
-    Optional<Lead> existing = repository.findByEmail(email);
-    if (existing.isPresent()) {
+    Lead lead = new Lead(Ids.next(), new Contact(email, phone, address), company, status.name());
+
+    // Бизнес-правило: уникальность email — проверка и сохранение одной атомарной операцией
+    if (!repository.saveIfEmailAbsent(lead)) {
       throw new IllegalStateException("Lead with email already exists: " + email);
     }
-
-    // Создаём нового лида
-    Lead lead =
-        new Lead(UUID.randomUUID(), new Contact(email, phone, address), company, status.name());
-
-    // Сохраняем через repository
-    repository.save(lead);
     return lead;
   }
 
@@ -71,70 +89,88 @@ public class LeadService {
     return repository.findAll();
   }
 
-  /** Поиск лидов по тексту (имя/компания или email) и статусу через Stream API. */
+  /**
+   * Поиск лидов по тексту (имя/компания или email) и статусу. Фильтрация выполняется в репозитории
+   * (в БД для JPA-профиля), без загрузки всей таблицы.
+   */
   public List<Lead> findLeads(String search, String status) {
-    return repository.findAll().stream()
-        .filter(
-            lead ->
-                search == null
-                    || search.isBlank()
-                    || lead.company().toLowerCase().contains(search.toLowerCase())
-                    || lead.contact().email().toLowerCase().contains(search.toLowerCase()))
-        .filter(lead -> status == null || status.isBlank() || lead.status().equals(status))
-        .collect(Collectors.toList());
+    return repository.findLeads(search, status, Pageable.unpaged()).getContent();
+  }
+
+  /** Постраничный поиск лидов по тексту и статусу (страницы нумеруются с 0, порядок по email). */
+  @Transactional(readOnly = true)
+  public Page<Lead> findLeads(String search, String status, int page, int size) {
+    return repository.findLeads(search, status, PageRequest.of(page, size));
   }
 
+  /** readOnly: в пишущей транзакции CachingLeadDomainRepository не пополняет кэш. */
+  @Transactional(readOnly = true)
   public Optional<Lead> findById(UUID id) {
     // Делегирование вызова в repository
     return Optional.ofNullable(repository.findById(id));
   }
 
+  /** Названия компаний лидов по их id — одним пакетным запросом; неизвестные id пропускаются. */
+  @Transactional(readOnly = true)
+  public Map<UUID, String> findCompanyNamesByIds(Collection<UUID> ids) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    Map<UUID, String> names = new HashMap<>();
+    repository.findAllByIds(ids).forEach(lead -> names.put(lead.id(), lead.company()));
+    return names;
+  }
+
+  @Transactional(readOnly = true)
   public Optional<Lead> findByEmail(String email) {
-    // Поиск лида по email
-    return repository.findAll().stream()
-        .filter(lead -> lead.contact().email().equals(email))
-        .findFirst();
+    // Поиск по уникальному индексу email в репозитории
+    return repository.findByEmail(email);
   }
 
   public List<Lead> findByStatus(LeadStatus status) {
-    return repository.findAll().stream()
-        .filter(lead -> lead.status().equals(status.name())) // Обратите внимание на .name()
-        .collect(Collectors.toList());
+    return repository.findByStatus(status.name(), Pageable.unpaged()).getContent();
+  }
+
+  /** Постраничная выборка лидов по статусу (страницы нумеруются с 0, порядок по email). */
+  @Transactional(readOnly = true)
+  public Page<Lead> findByStatus(LeadStatus status, int page, int size) {
+    return repository.findByStatus(status.name(), PageRequest.of(page, size));
   }
 
   /**
-   * Обновляет существующего лида по ID.
+   * Обновляет существующего лида по ID. При конфликте версий повторяется через OptimisticLockRetry
+   * — каждая попытка в своей транзакции с перечитыванием лида.
    *
    * @throws IllegalStateException если лид с указанным ID не найден
    */
+  @Transactional(propagation = NOT_SUPPORTED)
   public Lead update(UUID id, String email, String phone, String company, LeadStatus status) {
-    Lead existing = repository.findById(id);
-    if (existing == null) {
-      throw new IllegalStateException("Lead not found: " + id);
-    }
-    Address address = existing.contact().address();
-    Contact contact = new Contact(email, phone, address);
-    Lead updated = new Lead(id, contact, company, status.name());
-    repository.save(updated);
-    return updated;
+    return updateLead(id, email, phone, company, status)
+        .orElseThrow(() -> new IllegalStateException("Lead not found: " + id));
   }
 
   /**
-   * Обновляет лида по ID. Для REST: возвращает Optional, чтобы контроллер мог отдать 404.
+   * Обновляет лида по ID. Для REST: возвращает Optional, чтобы контроллер мог отдать 404. При
+   * конфликте версий повторяется через OptimisticLockRetry.
    *
    * @return Optional с обновлённым лидом или empty если не найден
    */
+  @Transactional(propagation = NOT_SUPPORTED)
   public Optional<Lead> updateLead(
       UUID id, String email, String phone, String company, LeadStatus status) {
-    Lead existing = repository.findById(id);
-    if (existing == null) {
-      return Optional.empty();
-    }
-    Address address = existing.contact().address();
-    Contact contact = new Contact(email, phone, address);
-    Lead updated = new Lead(id, contact, company, status.name());
-    repository.save(updated);
-    return Optional.of(updated);
+    return optimisticLockRetry.execute(
+        "lead update " + id,
+        () -> {
+          Lead existing = repository.findById(id);
+          if (existing == null) {
+            return Optional.empty();
+          }
+          Address address = existing.contact().address();
+          Contact contact = new Contact(email, phone, address);
+          Lead updated = new Lead(id, contact, company, status.name());
+          repository.save(updated);
+          return Optional.of(updated);
+        });
   }
 
   /** Удаляет лида по ID. Если лид не найден — выбрасывает ResponseStatusException(404). */
@@ -159,36 +195,37 @@ public class LeadService {
   }
 
   /**
-   * Атомарная конверсия лида в сделку: создаёт Deal и обновляет Lead.status на CONVERTED. При любой
-   * ошибке (например, amount = null) транзакция откатывается.
+   * Атомарная конверсия лида в сделку без блокировки строки: статус меняется compare-and-set'ом
+   * (условный UPDATE ... WHERE status <> 'CONVERTED'), и сделку создаёт только тот вызов, который
+   * его выиграл — при любом числе параллельных конверсий у лида одна сделка. При ошибке сохранения
+   * сделки транзакция откатывается вместе со статусом.
+   *
+   * @throws IllegalArgumentException лид не найден
+   * @throws LeadAlreadyConvertedException лид уже конвертирован
    */
   @Transactional
   public Deal convertLeadToDeal(UUID leadId, BigDecimal amount) {
-    Lead lead = repository.findByIdForUpdate(leadId);
-    if (lead == null) {
-      throw new IllegalArgumentException("Lead not found: " + leadId);
-    }
-    // Сначала обновляем статус лида
-    Lead updatedLead =
-        new Lead(lead.id(), lead.contact(), lead.company(), LeadStatus.CONVERTED.name());
-    repository.save(updatedLead);
-    // Затем создаём сделку (при ошибке здесь откатятся оба изменения)
+    // Сделка собирается до смены статуса: невалидный amount не трогает лида
     Deal deal = new Deal(leadId, amount);
-    dealRepository.save(deal);
+    if (!repository.markConvertedIfNotConverted(leadId)) {
+      if (repository.findById(leadId) == null) {
+        throw new IllegalArgumentException("Lead not found: " + leadId);
+      }
+      throw new LeadAlreadyConvertedException(leadId);
+    }
+    dealRepository.insert(deal);
+    eventPublisher.publishEvent(DealEvent.created(deal));
     return deal;
   }
 
   /**
-   * Обрабатывает список лидов через LeadProcessor — каждый в отдельной транзакции (REQUIRES_NEW).
+   * Обрабатывает список лидов через LeadProcessingEngine: чанки параллельно, по транзакции на чанк
+   * и savepoint на лид — ошибка одного лида не откатывает остальные.
+   *
+   * @return исход и время обработки по каждому id
    */
-  public void processLeads(List<UUID> ids) {
-    if (leadProcessor != null) {
-      for (UUID id : ids) {
-        leadProcessor.processSingleLead(id);
-      }
-    } else {
-      processLeadsSelfInvocation(ids);
-    }
+  public LeadProcessingResult processLeads(List<UUID> ids) {
+    return processingEngine.process(ids);
   }
 
   /**
@@ -1,10 +1,29 @@
 package ru.mentee.power.crm.service;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.mentee.power.crm.domain.Address;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.spring.client.EmailValidationBatcher;
 import ru.mentee.power.crm.spring.client.EmailValidationClient;
 import ru.mentee.power.crm.spring.client.EmailValidationResponse;
 
@@ -12,17 +31,56 @@ import ru.mentee.power.crm.spring.client.EmailValidationResponse;
  * Сервис создания лидов с внешней валидацией email и retry/fallback (Variant A).
  *
  * <p>Использует существующий {@link LeadService} и {@link EmailValidationClient}.
+ *
+ * <p>Асинхронный вариант {@link #createLeadWithValidationAsync} не держит вызывающий (servlet)
+ * поток: адрес уходит в {@link EmailValidationBatcher} (одновременные валидации собираются в один
+ * запрос), паузы между попытками планируются на scheduler, а не через sleep. Каждая попытка
+ * ограничена TimeLimiter, число одновременных валидаций — Bulkhead.
  */
 @Service
 public class LeadValidationService {
 
+  private static final Logger log = LoggerFactory.getLogger(LeadValidationService.class);
+
   private final LeadService leadService;
   private final EmailValidationClient emailValidationClient;
+  private final EmailValidationBatcher emailValidationBatcher;
+
+  private final io.github.resilience4j.retry.Retry asyncRetry;
+  private final TimeLimiter timeLimiter;
+  private final Bulkhead bulkhead;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("lead-validation-scheduler").daemon().factory());
 
   public LeadValidationService(
-      LeadService leadService, EmailValidationClient emailValidationClient) {
+      LeadService leadService,
+      EmailValidationClient emailValidationClient,
+      EmailValidationBatcher emailValidationBatcher,
+      @Value("${resilience4j.retry.instances.email-validation.max-attempts:3}") int maxAttempts,
+      @Value("${resilience4j.retry.instances.email-validation.wait-duration:500ms}")
+          Duration waitDuration,
+      @Value("${lead.validation.async.attempt-timeout:2s}") Duration attemptTimeout,
+      @Value("${lead.validation.async.max-concurrent:200}") int maxConcurrent) {
     this.leadService = leadService;
     this.emailValidationClient = emailValidationClient;
+    this.emailValidationBatcher = emailValidationBatcher;
+    this.asyncRetry =
+        io.github.resilience4j.retry.Retry.of(
+            "email-validation-async",
+            RetryConfig.custom().maxAttempts(maxAttempts).waitDuration(waitDuration).build());
+    this.timeLimiter =
+        TimeLimiter.of(
+            "email-validation-async",
+            TimeLimiterConfig.custom().timeoutDuration(attemptTimeout).build());
+    this.bulkhead =
+        Bulkhead.of(
+            "email-validation-async",
+            BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrent)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
   }
 
   /**
@@ -41,6 +99,42 @@ public class LeadValidationService {
     return leadService.addLead(email, company, status, address, phone);
   }
 
+  /**
+   * Неблокирующий вариант {@link #createLeadWithValidation}: возвращает future сразу. Семантика та
+   * же — после исчерпания попыток лид создаётся без валидации (fallback). Исключение: переполненный
+   * Bulkhead завершает future с {@link BulkheadFullException} без создания лида.
+   */
+  public CompletableFuture<Lead> createLeadWithValidationAsync(
+      String email, String company, LeadStatus status, Address address, String phone) {
+    Supplier<CompletionStage<EmailValidationResponse>> attempt =
+        () ->
+            timeLimiter.executeCompletionStage(
+                scheduler,
+                () ->
+                    emailValidationBatcher
+                        .validate(email)
+                        .thenApply(LeadValidationService::requireValid));
+    Supplier<CompletionStage<EmailValidationResponse>> guarded =
+        Bulkhead.decorateCompletionStage(
+            bulkhead,
+            io.github.resilience4j.retry.Retry.decorateCompletionStage(
+                asyncRetry, scheduler, attempt));
+    return guarded
+        .get()
+        .toCompletableFuture()
+        .<EmailValidationResponse>exceptionallyCompose(
+            error -> {
+              Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+              if (cause instanceof BulkheadFullException) {
+                return CompletableFuture.failedFuture(cause);
+              }
+              log.warn("Email validation failed for {}, creating lead without it", email, cause);
+              return CompletableFuture.completedFuture(null);
+            })
+        .thenApplyAsync(
+            validated -> leadService.addLead(email, company, status, address, phone), executor);
+  }
+
   /**
    * Fallback вызывается, если после всех попыток retry метод {@link
    * #createLeadWithValidation(String, String, LeadStatus, Address, String)} так и не выполнился
@@ -58,4 +152,17 @@ public class LeadValidationService {
       Throwable throwable) {
     return leadService.addLead(email, company, status, address, phone);
   }
+
+  @PreDestroy
+  void shutdown() {
+    scheduler.shutdownNow();
+    executor.shutdown();
+  }
+
+  private static EmailValidationResponse requireValid(EmailValidationResponse response) {
+    if (!response.valid()) {
+      throw new IllegalArgumentException("Invalid email: " + response.reason());
+    }
+    return response;
+  }
 }
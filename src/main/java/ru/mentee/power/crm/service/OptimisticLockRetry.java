@@ -0,0 +1,175 @@
+package ru.mentee.power.crm.service;
+
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import jakarta.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.hibernate.StaleStateException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Повтор обновлений @Version-сущностей при конфликте версий. Каждая попытка — своя транзакция
+ * (REQUIRES_NEW): транзакция после конфликта помечена rollback-only, а новая заново читает свежее
+ * состояние, поэтому work должен сам загружать сущность, а не получать её снаружи. Пауза между
+ * попытками растёт экспоненциально со случайным разбросом (jitter), чтобы конкуренты не
+ * сталкивались снова в тот же момент. Настройки — lead.optimistic-retry.* в application.yml.
+ *
+ * <p>Вызывающий метод не должен держать свою транзакцию (иначе она простаивает на время всех
+ * попыток) — такие методы помечены {@code @Transactional(propagation = NOT_SUPPORTED)}.
+ */
+@Component
+@ManagedResource(objectName = "ru.mentee.power.crm:type=OptimisticLockRetry")
+public class OptimisticLockRetry {
+
+  private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+  private final TransactionOperations transactions;
+  private final Retry retry;
+
+  private final LongAdder conflicts = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder exhausted = new LongAdder();
+
+  @Autowired
+  public OptimisticLockRetry(
+      PlatformTransactionManager transactionManager,
+      @Value("${lead.optimistic-retry.max-attempts:5}") int maxAttempts,
+      @Value("${lead.optimistic-retry.initial-backoff:10ms}") Duration initialBackoff,
+      @Value("${lead.optimistic-retry.multiplier:2.0}") double multiplier,
+      @Value("${lead.optimistic-retry.jitter:0.5}") double jitter,
+      @Value("${lead.optimistic-retry.max-backoff:200ms}") Duration maxBackoff) {
+    this(
+        requiresNew(transactionManager),
+        maxAttempts,
+        initialBackoff,
+        multiplier,
+        jitter,
+        maxBackoff);
+  }
+
+  public OptimisticLockRetry(
+      TransactionOperations transactions,
+      int maxAttempts,
+      Duration initialBackoff,
+      double multiplier,
+      double jitter,
+      Duration maxBackoff) {
+    if (maxAttempts <= 0) {
+      throw new IllegalArgumentException("lead.optimistic-retry.max-attempts must be positive");
+    }
+    this.transactions = transactions;
+    this.retry =
+        Retry.of(
+            "optimistic-lock",
+            RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .intervalFunction(
+                    IntervalFunction.ofExponentialRandomBackoff(
+                        initialBackoff, multiplier, jitter, maxBackoff))
+                .retryOnException(OptimisticLockRetry::isConflict)
+                .build());
+    this.retry.getEventPublisher().onRetry(event -> retries.increment());
+  }
+
+  /** Для standalone и тестов без Spring: без транзакций и без пауз (конфликтов версий там нет). */
+  public static OptimisticLockRetry withoutTransactions() {
+    return new OptimisticLockRetry(
+        TransactionOperations.withoutTransaction(),
+        1,
+        Duration.ofMillis(1),
+        1.0,
+        0.0,
+        Duration.ofMillis(1));
+  }
+
+  /**
+   * Выполняет work в новой транзакции и повторяет его при конфликте версий.
+   *
+   * @param operation имя операции для лога
+   * @throws OptimisticLockingFailureException попытки исчерпаны
+   */
+  public <T> T execute(String operation, Supplier<T> work) {
+    Supplier<T> attempt =
+        () -> {
+          try {
+            return transactions.execute(status -> work.get());
+          } catch (RuntimeException e) {
+            if (isConflict(e)) {
+              conflicts.increment();
+            }
+            throw e;
+          }
+        };
+    try {
+      return Retry.decorateSupplier(retry, attempt).get();
+    } catch (RuntimeException e) {
+      if (isConflict(e)) {
+        exhausted.increment();
+        log.warn(
+            "Optimistic lock conflicts exhausted {} attempts for {}: {}",
+            retry.getRetryConfig().getMaxAttempts(),
+            operation,
+            e.getMessage());
+      }
+      throw e;
+    }
+  }
+
+  public Stats stats() {
+    return new Stats(conflicts.sum(), retries.sum(), exhausted.sum());
+  }
+
+  @ManagedAttribute(description = "Попыток, завершившихся конфликтом версий")
+  public long getConflicts() {
+    return conflicts.sum();
+  }
+
+  @ManagedAttribute(description = "Повторов после конфликта")
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  @ManagedAttribute(description = "Операций, так и не прошедших за max-attempts")
+  public long getExhausted() {
+    return exhausted.sum();
+  }
+
+  /** Конфликт версий в любом виде: переведённый Spring, JPA или Hibernate. */
+  static boolean isConflict(Throwable error) {
+    for (Throwable t = error; t != null; t = t.getCause()) {
+      if (t instanceof OptimisticLockingFailureException
+          || t instanceof OptimisticLockException
+          || t instanceof StaleStateException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static TransactionOperations requiresNew(PlatformTransactionManager transactionManager) {
+    TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    return template;
+  }
+
+  /**
+   * @param conflicts попыток, завершившихся конфликтом версий
+   * @param retries повторов после конфликта
+   * @param exhausted операций, так и не прошедших за max-attempts
+   */
+  public record Stats(long conflicts, long retries, long exhausted) {}
+}
@@ -12,9 +12,9 @@ import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Path;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import lombok.Setter;
+import org.springframework.data.domain.Page;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.service.LeadService;
 
@@ -49,18 +49,20 @@ public class LeadListServlet extends HttpServlet {
     try {
       String search = request.getParameter("search");
       String status = request.getParameter("status");
-      List<Lead> leads =
-          (search != null && !search.isBlank()) || (status != null && !status.isBlank())
-              ? leadService.findLeads(search != null ? search : "", status != null ? status : "")
-              : leadService.findAll();
+      int page = parseNonNegative(request.getParameter("page"), 0);
+      int size = Math.min(Math.max(parseNonNegative(request.getParameter("size"), 20), 1), 100);
+      Page<Lead> leads = leadService.findLeads(search, status, page, size);
 
       response.setContentType("text/html; charset=UTF-8");
       Writer writer = response.getWriter();
 
       Map<String, Object> params = new HashMap<>();
-      params.put("leads", leads);
+      params.put("leads", leads.getContent());
       params.put("search", search != null ? search : "");
       params.put("status", status != null ? status : "");
+      params.put("page", leads.getNumber());
+      params.put("size", leads.getSize());
+      params.put("totalPages", leads.getTotalPages());
 
       StringOutput out = new StringOutput();
       templateEngine.render("leads/list.jte", params, out);
@@ -72,4 +74,15 @@ public class LeadListServlet extends HttpServlet {
           HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Ошибка при получении данных");
     }
   }
+
+  private static int parseNonNegative(String value, int defaultValue) {
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    try {
+      return Math.max(Integer.parseInt(value.trim()), 0);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
 }
@@ -0,0 +1,253 @@
+package ru.mentee.power.crm.spring.client;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Микробатчинг валидации email: запросы, пришедшие в течение окна window (или пока не наберётся
+ * max-size адресов), уходят одним POST /api/validate/emails, а future каждого вызывающего
+ * завершается своим результатом. Закэшированные в {@link EmailValidationClient} адреса в пакет не
+ * попадают, ответы пакета кэшируются там же. Повторный запрос адреса, по которому ответ ещё не
+ * пришёл (например, retry после таймаута), присоединяется к уже летящему вызову.
+ *
+ * <p>Если у сервиса нет пакетного эндпоинта (404/405/501), это запоминается, и дальше адреса
+ * проверяются одиночными validateEmail не более чем fallback-parallelism одновременно.
+ */
+@Component
+public class EmailValidationBatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(EmailValidationBatcher.class);
+
+  private final EmailValidationClient client;
+  private final RestTemplate restTemplate;
+  private final URI batchUri;
+  private final Duration window;
+  private final int maxBatchSize;
+  private final Semaphore fallbackPermits;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("email-validation-batcher").daemon().factory());
+
+  /** Накопленные адреса окна: ключ — нормализованный email. */
+  private Map<String, Pending> pending = new LinkedHashMap<>();
+
+  /** Все адреса без ответа — и ждущие окна, и уже отправленные. Под монитором this. */
+  private final Map<String, Pending> inFlight = new HashMap<>();
+
+  private ScheduledFuture<?> scheduledFlush;
+  private volatile boolean batchEndpointAvailable = true;
+
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedEmails = new LongAdder();
+  private final LongAdder singleCalls = new LongAdder();
+
+  @Autowired
+  public EmailValidationBatcher(
+      EmailValidationClient client,
+      RestTemplate restTemplate,
+      @Value("${email.validation.base-url}") String baseUrl,
+      @Value("${email.validation.batch.window:10ms}") Duration window,
+      @Value("${email.validation.batch.max-size:100}") int maxBatchSize,
+      @Value("${email.validation.batch.fallback-parallelism:16}") int fallbackParallelism) {
+    if (maxBatchSize <= 0 || fallbackParallelism <= 0) {
+      throw new IllegalArgumentException(
+          "email.validation.batch.max-size and fallback-parallelism must be positive");
+    }
+    this.client = client;
+    this.restTemplate = restTemplate;
+    this.batchUri =
+        UriComponentsBuilder.fromUriString(baseUrl).path("/api/validate/emails").build().toUri();
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.fallbackPermits = new Semaphore(fallbackParallelism);
+  }
+
+  /** Ставит адрес в текущий пакет; future завершается, когда придёт ответ по этому адресу. */
+  public CompletableFuture<EmailValidationResponse> validate(String email) {
+    EmailValidationResponse cached = client.lookupCached(email);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    String key = EmailValidationClient.keyOf(email);
+    Pending item;
+    Map<String, Pending> full = null;
+    synchronized (this) {
+      item = inFlight.get(key);
+      if (item != null) {
+        return item.result().copy();
+      }
+      item = new Pending(key, email, new CompletableFuture<>());
+      inFlight.put(key, item);
+      pending.put(key, item);
+      if (pending.size() >= maxBatchSize) {
+        full = drain();
+      } else if (scheduledFlush == null) {
+        scheduledFlush =
+            scheduler.schedule(this::flushWindow, window.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    if (full != null) {
+      Map<String, Pending> batch = full;
+      executor.execute(() -> flush(batch));
+    }
+    return item.result().copy();
+  }
+
+  public Stats stats() {
+    return new Stats(batches.sum(), batchedEmails.sum(), singleCalls.sum());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+    executor.shutdown();
+  }
+
+  private void flushWindow() {
+    Map<String, Pending> batch;
+    synchronized (this) {
+      batch = drain();
+    }
+    if (!batch.isEmpty()) {
+      executor.execute(() -> flush(batch));
+    }
+  }
+
+  /** Вызывать под монитором: забирает накопленные адреса и сбрасывает таймер окна. */
+  private Map<String, Pending> drain() {
+    Map<String, Pending> batch = pending;
+    pending = new LinkedHashMap<>();
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    return batch;
+  }
+
+  private void flush(Map<String, Pending> batch) {
+    List<Pending> unanswered = new ArrayList<>(batch.values());
+    if (batchEndpointAvailable) {
+      unanswered = validateBatch(batch);
+    }
+    for (Pending item : unanswered) {
+      validateSingle(item);
+    }
+  }
+
+  /** Один пакетный запрос; возвращает адреса, по которым ответа нет и нужен одиночный вызов. */
+  private List<Pending> validateBatch(Map<String, Pending> batch) {
+    List<String> emails = batch.values().stream().map(Pending::email).toList();
+    EmailValidationResponse[] responses;
+    try {
+      responses = restTemplate.postForObject(batchUri, emails, EmailValidationResponse[].class);
+    } catch (HttpStatusCodeException ex) {
+      if (isBatchUnsupported(ex)) {
+        batchEndpointAvailable = false;
+        log.warn(
+            "Batch endpoint {} unavailable ({}), using single validations",
+            batchUri,
+            ex.getStatusCode());
+      } else {
+        log.warn("Batch validation failed: {}", ex.getMessage());
+      }
+      return new ArrayList<>(batch.values());
+    } catch (RestClientException ex) {
+      log.warn("Batch validation failed: {}", ex.getMessage());
+      return new ArrayList<>(batch.values());
+    }
+    batches.increment();
+    batchedEmails.add(batch.size());
+    Map<String, Pending> waiting = new HashMap<>(batch);
+    if (responses != null) {
+      for (EmailValidationResponse response : responses) {
+        if (response == null || response.email() == null) {
+          continue;
+        }
+        Pending item = waiting.remove(EmailValidationClient.keyOf(response.email()));
+        if (item != null) {
+          client.recordResponse(item.email(), response);
+          complete(item, response, null);
+        }
+      }
+    }
+    return new ArrayList<>(waiting.values());
+  }
+
+  private void validateSingle(Pending item) {
+    try {
+      fallbackPermits.acquire();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      complete(item, null, ex);
+      return;
+    }
+    executor.execute(
+        () -> {
+          try {
+            singleCalls.increment();
+            complete(item, client.validateEmail(item.email()), null);
+          } catch (RuntimeException ex) {
+            complete(item, null, ex);
+          } finally {
+            fallbackPermits.release();
+          }
+        });
+  }
+
+  /** Ответ уже в кэше клиента, поэтому адрес снимается с учёта до завершения future. */
+  private void complete(Pending item, EmailValidationResponse response, Throwable error) {
+    synchronized (this) {
+      inFlight.remove(item.key(), item);
+    }
+    if (error != null) {
+      item.result().completeExceptionally(error);
+    } else {
+      item.result().complete(response);
+    }
+  }
+
+  private static boolean isBatchUnsupported(HttpStatusCodeException ex) {
+    return ex.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)
+        || ex.getStatusCode().isSameCodeAs(HttpStatus.METHOD_NOT_ALLOWED)
+        || ex.getStatusCode().isSameCodeAs(HttpStatus.NOT_IMPLEMENTED);
+  }
+
+  /**
+   * Адрес без ответа; вызывающие получают копии result, так что таймаут одного не отменяет общий.
+   */
+  private record Pending(
+      String key, String email, CompletableFuture<EmailValidationResponse> result) {}
+
+  /**
+   * @param batches успешных пакетных запросов
+   * @param batchedEmails адресов, проверенных пакетами
+   * @param singleCalls одиночных validateEmail (нет пакетного эндпоинта или адрес без ответа)
+   */
+  public record Stats(long batches, long batchedEmails, long singleCalls) {}
+}
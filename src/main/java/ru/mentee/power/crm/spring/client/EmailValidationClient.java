@@ -1,39 +1,286 @@
 package ru.mentee.power.crm.spring.client;
 
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+/**
+ * Клиент внешней валидации email с кэшем результатов.
+ *
+ * <ul>
+ *   <li>Ответы сервиса кэшируются по адресу (LRU, не больше max-size записей) с отдельными TTL для
+ *       valid и invalid. Ошибки вызова не кэшируются — они временные.
+ *   <li>Негативный кэш домена: после domain-negative-threshold отказов подряд по разным адресам
+ *       домена все его адреса на domain-negative-ttl отклоняются без запроса. Успешный ответ по
+ *       домену сбрасывает счётчик.
+ *   <li>Одновременные запросы одного адреса схлопываются: во внешний сервис уходит один запрос,
+ *       остальные ждут его результат.
+ * </ul>
+ */
 @Component
+@ManagedResource(objectName = "ru.mentee.power.crm:type=EmailValidationCache")
 public class EmailValidationClient {
 
   private static final Logger log = LoggerFactory.getLogger(EmailValidationClient.class);
 
   private final RestTemplate restTemplate;
   private final String baseUrl;
+  private final Clock clock;
+  private final Duration validTtl;
+  private final Duration invalidTtl;
+  private final Duration domainNegativeTtl;
+  private final int domainNegativeThreshold;
 
+  private final Map<String, CachedResult> results;
+  private final Map<String, DomainState> domains;
+  private final ConcurrentMap<String, CompletableFuture<EmailValidationResponse>> inFlight =
+      new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder domainHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  @Autowired
   public EmailValidationClient(
-      RestTemplate restTemplate, @Value("${email.validation.base-url}") String baseUrl) {
+      RestTemplate restTemplate,
+      @Value("${email.validation.base-url}") String baseUrl,
+      @Value("${email.validation.cache.max-size:10000}") int maxSize,
+      @Value("${email.validation.cache.valid-ttl:1h}") Duration validTtl,
+      @Value("${email.validation.cache.invalid-ttl:10m}") Duration invalidTtl,
+      @Value("${email.validation.cache.domain-negative-ttl:10m}") Duration domainNegativeTtl,
+      @Value("${email.validation.cache.domain-negative-threshold:3}") int domainNegativeThreshold) {
+    this(
+        restTemplate,
+        baseUrl,
+        maxSize,
+        validTtl,
+        invalidTtl,
+        domainNegativeTtl,
+        domainNegativeThreshold,
+        Clock.systemUTC());
+  }
+
+  /** Для тестов: управляемые часы для проверки TTL. */
+  EmailValidationClient(
+      RestTemplate restTemplate,
+      String baseUrl,
+      int maxSize,
+      Duration validTtl,
+      Duration invalidTtl,
+      Duration domainNegativeTtl,
+      int domainNegativeThreshold,
+      Clock clock) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("email.validation.cache.max-size must be positive");
+    }
+    if (domainNegativeThreshold <= 0) {
+      throw new IllegalArgumentException(
+          "email.validation.cache.domain-negative-threshold must be positive");
+    }
     this.restTemplate = restTemplate;
     this.baseUrl = baseUrl;
+    this.validTtl = validTtl;
+    this.invalidTtl = invalidTtl;
+    this.domainNegativeTtl = domainNegativeTtl;
+    this.domainNegativeThreshold = domainNegativeThreshold;
+    this.clock = clock;
+    this.results = new LruMap<>(maxSize);
+    this.domains = new LruMap<>(maxSize);
   }
 
   public EmailValidationResponse validateEmail(String email) {
-    String url = baseUrl + "/api/validate/email?email=" + email;
+    String key = keyOf(email);
+    EmailValidationResponse known = lookupCached(email);
+    if (known != null) {
+      return known;
+    }
+
+    CompletableFuture<EmailValidationResponse> call = new CompletableFuture<>();
+    CompletableFuture<EmailValidationResponse> running = inFlight.putIfAbsent(key, call);
+    if (running != null) {
+      coalesced.increment();
+      return running.join();
+    }
+    misses.increment();
     try {
-      EmailValidationResponse response =
-          restTemplate.getForObject(url, EmailValidationResponse.class);
-      if (response == null) {
-        return new EmailValidationResponse(email, false, "Empty response from validation service");
-      }
+      EmailValidationResponse response = fetch(email);
+      call.complete(response);
       return response;
+    } catch (RuntimeException ex) {
+      call.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  public EmailValidationStats stats() {
+    return new EmailValidationStats(hits.sum(), domainHits.sum(), misses.sum(), coalesced.sum());
+  }
+
+  @ManagedAttribute(description = "Ответы из кэша по адресу")
+  public long getHits() {
+    return hits.sum();
+  }
+
+  @ManagedAttribute(description = "Ответы из негативного кэша домена")
+  public long getDomainHits() {
+    return domainHits.sum();
+  }
+
+  @ManagedAttribute(description = "Запросы во внешний сервис")
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @ManagedAttribute(description = "Вызовы, дождавшиеся уже летящего запроса по тому же адресу")
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  /**
+   * Ответ из кэша адреса или негативного кэша домена (со счётчиками hits/domainHits), иначе null.
+   * Для EmailValidationBatcher: закэшированные адреса не попадают в пакет.
+   */
+  EmailValidationResponse lookupCached(String email) {
+    String key = keyOf(email);
+    Instant now = clock.instant();
+    EmailValidationResponse cached = cachedResult(key, now);
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    String domain = domainOf(key);
+    if (domain != null && isDomainRejected(domain, now)) {
+      domainHits.increment();
+      return new EmailValidationResponse(email, false, "Domain recently rejected: " + domain);
+    }
+    return null;
+  }
+
+  /** Кэширует ответ сервиса, полученный в обход validateEmail (пакетная валидация). */
+  void recordResponse(String email, EmailValidationResponse response) {
+    String key = keyOf(email);
+    Instant now = clock.instant();
+    remember(key, response, now.plus(response.valid() ? validTtl : invalidTtl));
+    String domain = domainOf(key);
+    if (domain != null) {
+      recordDomainAnswer(domain, response.valid(), now);
+    }
+  }
+
+  /** Запрос во внешний сервис; ответ сервиса кэшируется до того, как его увидят ждущие потоки. */
+  private EmailValidationResponse fetch(String email) {
+    // Email — значение переменной шаблона: кодируются все зарезервированные символы, включая + и @
+    URI uri =
+        UriComponentsBuilder.fromUriString(baseUrl)
+            .path("/api/validate/email")
+            .queryParam("email", "{email}")
+            .encode()
+            .buildAndExpand(email)
+            .toUri();
+    EmailValidationResponse response;
+    try {
+      response = restTemplate.getForObject(uri, EmailValidationResponse.class);
     } catch (RestClientException ex) {
       log.error("Error calling email validation service: {}", ex.getMessage(), ex);
       return new EmailValidationResponse(
           email, false, "Validation service error: " + ex.getMessage());
     }
+    if (response == null) {
+      return new EmailValidationResponse(email, false, "Empty response from validation service");
+    }
+    recordResponse(email, response);
+    return response;
+  }
+
+  private EmailValidationResponse cachedResult(String key, Instant now) {
+    synchronized (results) {
+      CachedResult cached = results.get(key);
+      if (cached == null) {
+        return null;
+      }
+      if (!now.isBefore(cached.expiresAt())) {
+        results.remove(key);
+        return null;
+      }
+      return cached.response();
+    }
+  }
+
+  private void remember(String key, EmailValidationResponse response, Instant expiresAt) {
+    synchronized (results) {
+      results.put(key, new CachedResult(response, expiresAt));
+    }
+  }
+
+  private boolean isDomainRejected(String domain, Instant now) {
+    synchronized (domains) {
+      DomainState state = domains.get(domain);
+      return state != null && state.rejectedUntil() != null && now.isBefore(state.rejectedUntil());
+    }
+  }
+
+  private void recordDomainAnswer(String domain, boolean valid, Instant now) {
+    synchronized (domains) {
+      if (valid) {
+        domains.remove(domain);
+        return;
+      }
+      DomainState previous = domains.get(domain);
+      int rejects =
+          (previous == null || previous.rejectedUntil() != null) ? 1 : previous.rejects() + 1;
+      Instant rejectedUntil =
+          rejects >= domainNegativeThreshold ? now.plus(domainNegativeTtl) : null;
+      domains.put(domain, new DomainState(rejects, rejectedUntil));
+    }
+  }
+
+  static String keyOf(String email) {
+    return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static String domainOf(String key) {
+    int at = key.lastIndexOf('@');
+    return (at < 0 || at == key.length() - 1) ? null : key.substring(at + 1);
+  }
+
+  private record CachedResult(EmailValidationResponse response, Instant expiresAt) {}
+
+  /** rejects — отказы подряд; rejectedUntil != null — домен в негативном кэше до этого момента. */
+  private record DomainState(int rejects, Instant rejectedUntil) {}
+
+  /** LinkedHashMap в порядке доступа: при переполнении вытесняется давно не использованный ключ. */
+  private static final class LruMap<V> extends LinkedHashMap<String, V> {
+    private final int maxSize;
+
+    LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+      return size() > maxSize;
+    }
   }
 }
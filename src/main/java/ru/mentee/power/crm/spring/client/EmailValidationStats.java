@@ -0,0 +1,11 @@
+package ru.mentee.power.crm.spring.client;
+
+/**
+ * Счётчики кэша EmailValidationClient с момента старта.
+ *
+ * @param hits ответы из кэша по адресу
+ * @param domainHits ответы из негативного кэша домена (без запроса во внешний сервис)
+ * @param misses запросы во внешний сервис
+ * @param coalesced вызовы, дождавшиеся уже летящего запроса по тому же адресу
+ */
+public record EmailValidationStats(long hits, long domainHits, long misses, long coalesced) {}
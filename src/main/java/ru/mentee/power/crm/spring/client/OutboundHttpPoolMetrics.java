@@ -0,0 +1,66 @@
+package ru.mentee.power.crm.spring.client;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Текущее состояние пула исходящих HTTP-соединений (см. RestTemplateConfig). В JMX —
+ * ru.mentee.power.crm:type=OutboundHttpPool.
+ */
+@Component
+@ManagedResource(objectName = "ru.mentee.power.crm:type=OutboundHttpPool")
+public class OutboundHttpPoolMetrics {
+
+  private final PoolingHttpClientConnectionManager connectionManager;
+
+  public OutboundHttpPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+    this.connectionManager = connectionManager;
+  }
+
+  public Stats stats() {
+    PoolStats total = connectionManager.getTotalStats();
+    return new Stats(
+        total.getLeased(),
+        total.getAvailable(),
+        total.getPending(),
+        total.getMax(),
+        connectionManager.getRoutes().size());
+  }
+
+  @ManagedAttribute(description = "Соединения, занятые запросами")
+  public int getLeased() {
+    return connectionManager.getTotalStats().getLeased();
+  }
+
+  @ManagedAttribute(description = "Свободные keep-alive соединения")
+  public int getAvailable() {
+    return connectionManager.getTotalStats().getAvailable();
+  }
+
+  @ManagedAttribute(description = "Запросы, ждущие свободного соединения")
+  public int getPending() {
+    return connectionManager.getTotalStats().getPending();
+  }
+
+  @ManagedAttribute(description = "http.client.max-total")
+  public int getMax() {
+    return connectionManager.getTotalStats().getMax();
+  }
+
+  @ManagedAttribute(description = "Хостов с соединениями в пуле")
+  public int getRoutes() {
+    return connectionManager.getRoutes().size();
+  }
+
+  /**
+   * @param leased соединения, занятые запросами
+   * @param available открытые keep-alive соединения, свободные для повторного использования
+   * @param pending запросы, ждущие свободного соединения (рост — пул мал для нагрузки)
+   * @param max http.client.max-total
+   * @param routes хостов с соединениями в пуле
+   */
+  public record Stats(int leased, int available, int pending, int max, int routes) {}
+}
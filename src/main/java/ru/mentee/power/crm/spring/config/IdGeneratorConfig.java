@@ -0,0 +1,28 @@
+package ru.mentee.power.crm.spring.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.mentee.power.crm.util.IdGenerator;
+import ru.mentee.power.crm.util.Ids;
+import ru.mentee.power.crm.util.UuidV7Generator;
+
+/**
+ * Выбор генератора идентификаторов (ids.generator: uuid-v7 | random). Бин устанавливается в {@link
+ * Ids}, которым пользуются доменные объекты, JPA-колбэки и генератор Hibernate.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+  @Bean
+  public IdGenerator idGenerator(@Value("${ids.generator:uuid-v7}") String type) {
+    IdGenerator generator =
+        switch (type) {
+          case "uuid-v7" -> new UuidV7Generator();
+          case "random" -> IdGenerator.random();
+          default -> throw new IllegalArgumentException("Unknown ids.generator: " + type);
+        };
+    Ids.use(generator);
+    return generator;
+  }
+}
@@ -0,0 +1,15 @@
+package ru.mentee.power.crm.spring.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableMBeanExport;
+import org.springframework.jmx.support.RegistrationPolicy;
+
+/**
+ * Экспорт счётчиков в платформенный MBeanServer: бины с {@code @ManagedResource} видны в
+ * JMX-консоли под доменом ru.mentee.power.crm, рядом со статистикой JCache (см.
+ * ReferenceCacheMetrics). Несколько контекстов в одной JVM (тесты) перерегистрируют MBean, а не
+ * падают на дубликате имени.
+ */
+@Configuration
+@EnableMBeanExport(registration = RegistrationPolicy.REPLACE_EXISTING)
+public class JmxConfig {}
@@ -0,0 +1,78 @@
+package ru.mentee.power.crm.spring.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.springframework.stereotype.Component;
+
+/**
+ * Статистика регионов second-level cache (см. SecondLevelCacheConfig). Счётчики ведёт сам JCache и
+ * публикует как стандартные CacheStatisticsMXBean — те же цифры видны в JMX-консоли.
+ */
+@Component
+public class ReferenceCacheMetrics {
+
+  private final CacheManager cacheManager;
+
+  public ReferenceCacheMetrics(CacheManager referenceCacheManager) {
+    this.cacheManager = referenceCacheManager;
+  }
+
+  /** Счётчики по регионам в порядке создания. */
+  public Map<String, Stats> stats() {
+    Map<String, Stats> stats = new LinkedHashMap<>();
+    for (String region : cacheManager.getCacheNames()) {
+      CacheStatisticsMXBean bean =
+          JMX.newMXBeanProxy(
+              ManagementFactory.getPlatformMBeanServer(),
+              objectName(region),
+              CacheStatisticsMXBean.class);
+      stats.put(
+          region,
+          new Stats(
+              bean.getCacheHits(),
+              bean.getCacheMisses(),
+              bean.getCachePuts(),
+              bean.getCacheRemovals(),
+              bean.getCacheEvictions()));
+    }
+    return stats;
+  }
+
+  /** Имя MBean по JSR-107: URI менеджера и имя кэша с заменой спецсимволов ObjectName. */
+  private ObjectName objectName(String region) {
+    try {
+      return new ObjectName(
+          "javax.cache:type=CacheStatistics,CacheManager="
+              + sanitize(cacheManager.getURI().toString())
+              + ",Cache="
+              + sanitize(region));
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalStateException("Invalid cache region name: " + region, e);
+    }
+  }
+
+  private static String sanitize(String value) {
+    return value.replaceAll("[,:=\n]", ".");
+  }
+
+  /**
+   * @param hits чтения, найденные в регионе
+   * @param misses чтения мимо региона (ушли в БД)
+   * @param puts записи в регион
+   * @param removals явные удаления (инвалидация при изменении сущности или таблицы)
+   * @param evictions вытеснения по размеру и истечения TTL
+   */
+  public record Stats(long hits, long misses, long puts, long removals, long evictions) {
+
+    public double hitRatio() {
+      long requests = hits + misses;
+      return requests == 0 ? 0 : (double) hits / requests;
+    }
+  }
+}
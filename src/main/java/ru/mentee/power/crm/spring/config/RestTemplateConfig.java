@@ -1,15 +1,70 @@
 package ru.mentee.power.crm.spring.config;
 
+import java.time.Duration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Исходящий HTTP: RestTemplate поверх Apache HttpClient 5 с пулом keep-alive соединений (вместо
+ * нового HttpURLConnection на каждый запрос). Размеры пула и таймауты — http.client.* в
+ * application.yml, состояние пула — {@link
+ * ru.mentee.power.crm.spring.client.OutboundHttpPoolMetrics}.
+ */
 @Configuration
 public class RestTemplateConfig {
 
-  @Bean
-  public RestTemplate restTemplate() {
+  @Bean(destroyMethod = "close")
+  public PoolingHttpClientConnectionManager outboundConnectionManager(
+      @Value("${http.client.max-total:100}") int maxTotal,
+      @Value("${http.client.max-per-route:20}") int maxPerRoute,
+      @Value("${http.client.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${http.client.read-timeout:5s}") Duration readTimeout,
+      @Value("${http.client.time-to-live:5m}") Duration timeToLive) {
+    return PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(maxTotal)
+        .setMaxConnPerRoute(maxPerRoute)
+        .setDefaultConnectionConfig(
+            ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(timeToLive))
+                // Соединение, простоявшее в пуле дольше, проверяется перед повторным использованием
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+        .build();
+  }
 
-    return new RestTemplate();
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient outboundHttpClient(
+      PoolingHttpClientConnectionManager outboundConnectionManager,
+      @Value("${http.client.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+      @Value("${http.client.read-timeout:5s}") Duration readTimeout,
+      @Value("${http.client.idle-eviction:30s}") Duration idleEviction) {
+    return HttpClients.custom()
+        .setConnectionManager(outboundConnectionManager)
+        .setDefaultRequestConfig(
+            RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build())
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.of(idleEviction))
+        .build();
+  }
+
+  @Bean
+  public RestTemplate restTemplate(CloseableHttpClient outboundHttpClient) {
+    return new RestTemplate(new HttpComponentsClientHttpRequestFactory(outboundHttpClient));
   }
 }
@@ -0,0 +1,91 @@
+package ru.mentee.power.crm.spring.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Second-level cache Hibernate для справочников Company и Product поверх JCache (Caffeine). Регионы
+ * сущностей и кэша запросов ограничены по размеру (вытеснение Window TinyLFU) и по времени жизни с
+ * момента записи — cache.reference.* в application.yml; статистика регионов — {@link
+ * ReferenceCacheMetrics}.
+ *
+ * <p>Регион меток обновления таблиц не ограничивается: по нему кэш запросов узнаёт, что таблица
+ * менялась после кэширования результата, и потеря метки отдала бы устаревший результат.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  public static final String COMPANY_REGION = "reference.company";
+  public static final String PRODUCT_REGION = "reference.product";
+  public static final String QUERY_REGION = "reference.queries";
+
+  /**
+   * Собственный CacheManager на контекст: URI по умолчанию у провайдера общий на JVM, и два
+   * контекста (например, в тестах) делили бы регионы при разных базах.
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager referenceCacheManager(
+      @Value("${cache.reference.entity.max-size:10000}") long entityMaxSize,
+      @Value("${cache.reference.entity.ttl:10m}") Duration entityTtl,
+      @Value("${cache.reference.query.max-size:1000}") long queryMaxSize,
+      @Value("${cache.reference.query.ttl:5m}") Duration queryTtl) {
+    CacheManager cacheManager =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(
+                URI.create("urn:crm:reference-cache:" + UUID.randomUUID()),
+                SecondLevelCacheConfig.class.getClassLoader());
+    cacheManager.createCache(COMPANY_REGION, region(entityMaxSize, entityTtl));
+    cacheManager.createCache(PRODUCT_REGION, region(entityMaxSize, entityTtl));
+    cacheManager.createCache(QUERY_REGION, region(queryMaxSize, queryTtl));
+    cacheManager.createCache(
+        RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+        region(queryMaxSize, queryTtl));
+    cacheManager.createCache(
+        RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(null, null));
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+      CacheManager referenceCacheManager) {
+    return properties -> {
+      properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(CacheSettings.USE_QUERY_CACHE, true);
+      properties.put(CacheSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+      properties.put(ConfigSettings.CACHE_MANAGER, referenceCacheManager);
+      // Все регионы созданы выше: опечатка в region у @Cache — ошибка старта, а не кэш без лимитов
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+
+  /**
+   * Регион без копирования значений: Hibernate кладёт в кэш неизменяемые разобранные записи, и
+   * store-by-value JCache лишь сериализовал бы их на каждом get/put.
+   */
+  private static CaffeineConfiguration<Object, Object> region(Long maxSize, Duration ttl) {
+    CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+    configuration.setStoreByValue(false);
+    configuration.setStatisticsEnabled(true);
+    configuration.setManagementEnabled(true);
+    if (maxSize != null) {
+      configuration.setMaximumSize(OptionalLong.of(maxSize));
+    }
+    if (ttl != null) {
+      configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+    }
+    return configuration;
+  }
+}
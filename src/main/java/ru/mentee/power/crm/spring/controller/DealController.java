@@ -1,11 +1,14 @@
 package ru.mentee.power.crm.spring.controller;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,21 +16,34 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.mentee.power.crm.domain.Deal;
 import ru.mentee.power.crm.domain.DealStatus;
 import ru.mentee.power.crm.service.LeadService;
+import ru.mentee.power.crm.spring.exception.LeadAlreadyConvertedException;
 import ru.mentee.power.crm.spring.service.DealService;
+import ru.mentee.power.crm.spring.service.KanbanEventBroadcaster;
 
 @Controller
 @RequestMapping("/deals")
 public class DealController {
   private final DealService dealService;
   private final LeadService leadService;
+  private final KanbanEventBroadcaster kanbanEvents;
+  private final int kanbanColumnLimit;
 
-  public DealController(DealService dealService, LeadService leadService) {
+  public DealController(
+      DealService dealService,
+      LeadService leadService,
+      KanbanEventBroadcaster kanbanEvents,
+      @Value("${deal.kanban.column-limit:50}") int kanbanColumnLimit) {
     this.dealService = dealService;
     this.leadService = leadService;
+    this.kanbanEvents = kanbanEvents;
+    this.kanbanColumnLimit = kanbanColumnLimit;
   }
 
   @GetMapping
@@ -40,22 +56,25 @@ public class DealController {
 
   @GetMapping("/kanban")
   public String kanbanView(Model model) {
-    var dealsByStatus = dealService.getDealsByStatusForKanban();
-    var allDeals = dealService.getAllDeals();
-    model.addAttribute("dealsByStatus", dealsByStatus);
+    var columns = dealService.getKanbanBoard(kanbanColumnLimit);
+    var shownDeals = columns.values().stream().flatMap(column -> column.deals().stream()).toList();
+    model.addAttribute("columns", columns);
     model.addAttribute("statuses", DealStatus.values());
-    model.addAttribute("leadNames", buildLeadNamesMap(allDeals));
+    model.addAttribute("leadNames", buildLeadNamesMap(shownDeals));
     return "deals/kanban";
   }
 
+  /** Живые изменения доски (SSE): kanban.jte патчит колонки вместо перезагрузки страницы. */
+  @GetMapping(value = "/kanban/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @ResponseBody
+  public SseEmitter kanbanEvents() {
+    return kanbanEvents.subscribe();
+  }
+
+  /** Имена лидов для всех сделок одним пакетным запросом вместо findById на каждую сделку. */
   private Map<UUID, String> buildLeadNamesMap(List<Deal> deals) {
-    Map<UUID, String> leadNames = new HashMap<>();
-    for (Deal deal : deals) {
-      leadService
-          .findById(deal.getLeadId())
-          .ifPresent(lead -> leadNames.put(deal.getLeadId(), lead.company()));
-    }
-    return leadNames;
+    Set<UUID> leadIds = deals.stream().map(Deal::getLeadId).collect(Collectors.toSet());
+    return leadService.findCompanyNamesByIds(leadIds);
   }
 
   @GetMapping("/convert/{leadId}")
@@ -70,7 +89,11 @@ public class DealController {
 
   @PostMapping("/convert")
   public String convertLeadToDeal(@RequestParam UUID leadId, @RequestParam BigDecimal amount) {
-    dealService.convertLeadToDeal(leadId, amount);
+    try {
+      dealService.convertLeadToDeal(leadId, amount);
+    } catch (LeadAlreadyConvertedException alreadyConverted) {
+      // Повторная отправка формы: сделка по лиду уже есть
+    }
     return "redirect:/deals";
   }
 
@@ -79,4 +102,17 @@ public class DealController {
     dealService.transitionDealStatus(id, newStatus);
     return "redirect:/deals/kanban";
   }
+
+  /** Смена статуса из скрипта доски: без редиректа и перерисовки, карточку переносит SSE. */
+  @PostMapping(value = "/{id}/transition", headers = "X-Requested-With=XMLHttpRequest")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void transitionStatusInPlace(@PathVariable UUID id, @RequestParam DealStatus newStatus) {
+    dealService.transitionDealStatus(id, newStatus);
+  }
+
+  @PostMapping("/{id}/amount")
+  public String changeAmount(@PathVariable UUID id, @RequestParam BigDecimal amount) {
+    dealService.changeDealAmount(id, amount);
+    return "redirect:/deals/kanban";
+  }
 }
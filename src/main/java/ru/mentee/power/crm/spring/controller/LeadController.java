@@ -1,10 +1,10 @@
 package ru.mentee.power.crm.spring.controller;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -19,6 +19,8 @@ import ru.mentee.power.crm.service.LeadStatusService;
 @Controller
 public class LeadController {
   private static final Logger log = LoggerFactory.getLogger(LeadController.class);
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 100;
   private final LeadService leadService;
   private final LeadStatusService leadStatusService;
 
@@ -59,11 +61,18 @@ public class LeadController {
   public String showLeads(
       @RequestParam(required = false) String search,
       @RequestParam(required = false) String status,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
       Model model) {
-    List<Lead> leads = leadService.findLeads(search, status);
-    model.addAttribute("leads", leads);
+    int safePage = Math.max(page, 0);
+    int safeSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    Page<Lead> leads = leadService.findLeads(search, status, safePage, safeSize);
+    model.addAttribute("leads", leads.getContent());
     model.addAttribute("search", search != null ? search : "");
     model.addAttribute("status", status != null ? status : "");
+    model.addAttribute("page", leads.getNumber());
+    model.addAttribute("size", leads.getSize());
+    model.addAttribute("totalPages", leads.getTotalPages());
     return "leads/list";
   }
 
@@ -1,5 +1,6 @@
 package ru.mentee.power.crm.spring.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import jakarta.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -147,6 +148,86 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return ResponseEntity.badRequest().body(errorResponse);
   }
 
+  /** Обрабатывает InvalidCursorException (400 Bad Request). */
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidCursor(
+      InvalidCursorException ex, WebRequest request) {
+    String path =
+        request.getDescription(false).startsWith("uri=")
+            ? request.getDescription(false).substring(4)
+            : request.getDescription(false);
+    ErrorResponse errorResponse =
+        new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            path);
+    log.warn("Invalid cursor: {}", ex.getMessage());
+    return ResponseEntity.badRequest().body(errorResponse);
+  }
+
+  /** Обрабатывает UnsupportedExportFormatException (400 Bad Request). */
+  @ExceptionHandler(UnsupportedExportFormatException.class)
+  public ResponseEntity<ErrorResponse> handleUnsupportedExportFormat(
+      UnsupportedExportFormatException ex, WebRequest request) {
+    String path =
+        request.getDescription(false).startsWith("uri=")
+            ? request.getDescription(false).substring(4)
+            : request.getDescription(false);
+    ErrorResponse errorResponse =
+        new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            path);
+    log.warn("Unsupported export format: {}", ex.getMessage());
+    return ResponseEntity.badRequest().body(errorResponse);
+  }
+
+  /** Обрабатывает InvalidImportFileException (400 Bad Request). */
+  @ExceptionHandler(InvalidImportFileException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidImportFile(
+      InvalidImportFileException ex, WebRequest request) {
+    String path =
+        request.getDescription(false).startsWith("uri=")
+            ? request.getDescription(false).substring(4)
+            : request.getDescription(false);
+    ErrorResponse errorResponse =
+        new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            path);
+    log.warn("Invalid import file: {}", ex.getMessage());
+    return ResponseEntity.badRequest().body(errorResponse);
+  }
+
+  /**
+   * Обрабатывает BulkheadFullException (503 Service Unavailable): лимит одновременных валидаций.
+   */
+  @ExceptionHandler(BulkheadFullException.class)
+  public ResponseEntity<ErrorResponse> handleBulkheadFull(
+      BulkheadFullException ex, WebRequest request) {
+    String path =
+        request.getDescription(false).startsWith("uri=")
+            ? request.getDescription(false).substring(4)
+            : request.getDescription(false);
+    ErrorResponse errorResponse =
+        new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            ex.getMessage(),
+            path);
+    log.warn("Bulkhead full: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(errorResponse);
+  }
+
   /**
    * Fallback обработчик для всех непредвиденных исключений (500 Internal Server Error).
    *
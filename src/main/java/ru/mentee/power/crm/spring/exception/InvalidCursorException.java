@@ -0,0 +1,9 @@
+package ru.mentee.power.crm.spring.exception;
+
+/** Курсор пагинации не распознан (подделан или от другой версии API). Маппится на 400. */
+public class InvalidCursorException extends BusinessException {
+
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
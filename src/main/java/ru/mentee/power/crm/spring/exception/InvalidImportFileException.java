@@ -0,0 +1,13 @@
+package ru.mentee.power.crm.spring.exception;
+
+/** Файл импорта не может быть прочитан целиком (пустой, нет заголовка CSV). Маппится на 400. */
+public class InvalidImportFileException extends BusinessException {
+
+  public InvalidImportFileException(String message) {
+    super(message);
+  }
+
+  public InvalidImportFileException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
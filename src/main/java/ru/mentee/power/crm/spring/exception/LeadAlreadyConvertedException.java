@@ -0,0 +1,14 @@
+package ru.mentee.power.crm.spring.exception;
+
+import java.util.UUID;
+
+/**
+ * Лид уже конвертирован в сделку: конверсию выиграл другой вызов (повторная отправка формы или
+ * параллельный запрос).
+ */
+public class LeadAlreadyConvertedException extends BusinessException {
+
+  public LeadAlreadyConvertedException(UUID leadId) {
+    super("Lead already converted: " + leadId);
+  }
+}
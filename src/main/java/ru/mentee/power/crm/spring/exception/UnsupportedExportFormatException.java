@@ -0,0 +1,9 @@
+package ru.mentee.power.crm.spring.exception;
+
+/** Запрошен неизвестный формат выгрузки. Маппится на HTTP 400 Bad Request. */
+public class UnsupportedExportFormatException extends BusinessException {
+
+  public UnsupportedExportFormatException(String format) {
+    super("Unsupported export format: " + format);
+  }
+}
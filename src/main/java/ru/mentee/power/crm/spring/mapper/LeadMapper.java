@@ -53,6 +53,16 @@ public interface LeadMapper {
   @Mapping(target = "lastName", constant = "-")
   ru.mentee.power.crm.spring.dto.generated.LeadResponse toGeneratedResponse(LeadEntity entity);
 
+  /** Доменный лид только что создан и времени создания не хранит — берётся момент ответа. */
+  @Mapping(target = "email", source = "contact.email")
+  @Mapping(
+      target = "createdAt",
+      expression = "java(java.time.OffsetDateTime.now(java.time.ZoneOffset.UTC))")
+  @Mapping(target = "firstName", constant = "-")
+  @Mapping(target = "lastName", constant = "-")
+  ru.mentee.power.crm.spring.dto.generated.LeadResponse toGeneratedResponseFromDomain(
+      ru.mentee.power.crm.model.Lead lead);
+
   @Mapping(target = "id", ignore = true)
   @Mapping(target = "createdAt", ignore = true)
   @Mapping(target = "version", ignore = true)
@@ -1,19 +1,31 @@
 package ru.mentee.power.crm.spring.repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import ru.mentee.power.crm.domain.Deal;
 import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.KanbanColumn;
 
 public interface DealRepository {
+  /** Вставка или обновление сделки, о которой неизвестно, сохранена ли она. */
   void save(Deal deal);
 
+  /** Вставка новой сделки (только что созданной конструктором Deal) без проверки существования. */
+  void insert(Deal deal);
+
   Optional<Deal> findById(UUID id);
 
   List<Deal> findAll();
 
   List<Deal> findByStatus(DealStatus status);
 
+  /**
+   * Колонки канбана для всех статусов: первые limitPerStatus сделок (от новых к старым) и итоги по
+   * статусу. Статусы без сделок представлены пустыми колонками.
+   */
+  Map<DealStatus, KanbanColumn> findKanbanColumns(int limitPerStatus);
+
   void deleteById(UUID id);
 }
@@ -0,0 +1,27 @@
+package ru.mentee.power.crm.spring.repository;
+
+import java.util.Map;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.DealStatusChange;
+
+/** История статусов сделок и агрегаты воронки по ней. */
+public interface DealStatusHistoryRepository {
+
+  void append(DealStatusChange change);
+
+  /** Сколько сделок хотя бы раз входило в каждый статус. Статусов без сделок в карте нет. */
+  Map<DealStatus, Long> countDealsReached();
+
+  /**
+   * Время в статусе по завершённым пребываниям (сделка из статуса уже вышла). Текущий статус сделки
+   * не учитывается: его длительность ещё неизвестна.
+   */
+  Map<DealStatus, StageDurations> stageDurations();
+
+  /**
+   * @param completed завершённых пребываний в статусе
+   * @param p50Seconds медиана времени в статусе, секунды
+   * @param p90Seconds 90-й перцентиль, секунды
+   */
+  record StageDurations(long completed, double p50Seconds, double p90Seconds) {}
+}
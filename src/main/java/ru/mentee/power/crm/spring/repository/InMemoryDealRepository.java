@@ -1,14 +1,19 @@
 package ru.mentee.power.crm.spring.repository;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.stereotype.Repository;
 import ru.mentee.power.crm.domain.Deal;
 import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.KanbanColumn;
 
 @Repository
 @org.springframework.context.annotation.Profile("default")
@@ -20,6 +25,13 @@ public class InMemoryDealRepository implements DealRepository {
     storage.put(deal.getId(), deal);
   }
 
+  @Override
+  public void insert(Deal deal) {
+    if (storage.putIfAbsent(deal.getId(), deal) != null) {
+      throw new IllegalStateException("Deal already exists: " + deal.getId());
+    }
+  }
+
   @Override
   public Optional<Deal> findById(UUID id) {
     return Optional.ofNullable(storage.get(id));
@@ -35,6 +47,42 @@ public class InMemoryDealRepository implements DealRepository {
     return storage.values().stream().filter(deal -> deal.getStatus() == status).toList();
   }
 
+  /**
+   * Один проход по сделкам: итоги копятся для всех, а в колонку попадают только сделки, которые
+   * входят в первые limitPerStatus по created_at.
+   */
+  @Override
+  public Map<DealStatus, KanbanColumn> findKanbanColumns(int limitPerStatus) {
+    Comparator<Deal> newestFirst =
+        Comparator.comparing(Deal::getCreatedAt).thenComparing(Deal::getId).reversed();
+    Map<DealStatus, PriorityQueue<Deal>> top = new EnumMap<>(DealStatus.class);
+    Map<DealStatus, Long> counts = new EnumMap<>(DealStatus.class);
+    Map<DealStatus, BigDecimal> sums = new EnumMap<>(DealStatus.class);
+    for (Deal deal : storage.values()) {
+      DealStatus status = deal.getStatus();
+      counts.merge(status, 1L, Long::sum);
+      sums.merge(status, deal.getAmount(), BigDecimal::add);
+      // Куча с «самой старой» сделкой в голове: вытесняется, когда колонка переполнена
+      PriorityQueue<Deal> heap =
+          top.computeIfAbsent(status, s -> new PriorityQueue<>(newestFirst.reversed()));
+      heap.add(deal);
+      if (heap.size() > limitPerStatus) {
+        heap.poll();
+      }
+    }
+    Map<DealStatus, KanbanColumn> columns = new EnumMap<>(DealStatus.class);
+    for (DealStatus status : DealStatus.values()) {
+      if (!counts.containsKey(status)) {
+        columns.put(status, KanbanColumn.empty(status));
+        continue;
+      }
+      List<Deal> deals = new ArrayList<>(top.get(status));
+      deals.sort(newestFirst);
+      columns.put(status, new KanbanColumn(status, deals, counts.get(status), sums.get(status)));
+    }
+    return columns;
+  }
+
   @Override
   public void deleteById(UUID id) {
     storage.remove(id);
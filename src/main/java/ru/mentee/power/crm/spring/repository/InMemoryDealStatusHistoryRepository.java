@@ -0,0 +1,110 @@
+package ru.mentee.power.crm.spring.repository;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.DealStatusChange;
+
+/**
+ * Инкрементальный агрегатор вместо таблицы: строки истории не хранятся. На каждый вход в статус
+ * растёт счётчик статуса, а длительность пребывания в предыдущем статусе сразу попадает в его скетч
+ * квантилей. Памяти — открытое пребывание на незакрытую сделку и ограниченный скетч на статус.
+ */
+@Repository
+@Profile("default")
+public class InMemoryDealStatusHistoryRepository implements DealStatusHistoryRepository {
+
+  private final Map<DealStatus, Long> reached = new EnumMap<>(DealStatus.class);
+  private final Map<DealStatus, DurationSketch> durations = new EnumMap<>(DealStatus.class);
+
+  /** Текущий статус сделки и когда она в него вошла; WON и LOST конечны и не хранятся. */
+  private final Map<UUID, DealStatusChange> openStays = new HashMap<>();
+
+  @Override
+  public synchronized void append(DealStatusChange change) {
+    reached.merge(change.status(), 1L, Long::sum);
+    DealStatusChange previous = openStays.remove(change.dealId());
+    if (previous != null && previous.status() == change.previousStatus()) {
+      double seconds = Duration.between(previous.changedAt(), change.changedAt()).toNanos() / 1e9;
+      durations.computeIfAbsent(previous.status(), s -> new DurationSketch()).add(seconds);
+    }
+    if (change.status() != DealStatus.WON && change.status() != DealStatus.LOST) {
+      openStays.put(change.dealId(), change);
+    }
+  }
+
+  @Override
+  public synchronized Map<DealStatus, Long> countDealsReached() {
+    return new EnumMap<>(reached);
+  }
+
+  @Override
+  public synchronized Map<DealStatus, StageDurations> stageDurations() {
+    Map<DealStatus, StageDurations> result = new EnumMap<>(DealStatus.class);
+    durations.forEach(
+        (status, sketch) ->
+            result.put(
+                status,
+                new StageDurations(sketch.count, sketch.quantile(0.5), sketch.quantile(0.9))));
+    return result;
+  }
+
+  /**
+   * Скетч квантилей с относительной ошибкой не больше {@link #ACCURACY} (схема DDSketch):
+   * длительность попадает в корзину с границами gamma^(k-1)..gamma^k, так что корзин не больше
+   * нескольких тысяч при любом числе сделок. Квантиль интерполируется между соседними рангами, как
+   * PERCENTILE_CONT в SQL-профилях.
+   */
+  static final class DurationSketch {
+    static final double ACCURACY = 0.01;
+    private static final double GAMMA = (1 + ACCURACY) / (1 - ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /** Короче миллисекунды — считаем нулём: такие переходы не отличить от одновременных. */
+    private static final double MIN_SECONDS = 0.001;
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeros;
+    private long count;
+
+    void add(double seconds) {
+      count++;
+      if (seconds < MIN_SECONDS) {
+        zeros++;
+      } else {
+        buckets.merge((int) Math.ceil(Math.log(seconds) / LOG_GAMMA), 1L, Long::sum);
+      }
+    }
+
+    double quantile(double q) {
+      double position = q * (count - 1);
+      long lower = (long) Math.floor(position);
+      double lowerValue = valueAtRank(lower);
+      if (position == lower) {
+        return lowerValue;
+      }
+      return lowerValue + (valueAtRank(lower + 1) - lowerValue) * (position - lower);
+    }
+
+    /** Значение с рангом rank (с нуля) — середина его корзины в смысле относительной ошибки. */
+    private double valueAtRank(long rank) {
+      if (rank < zeros) {
+        return 0;
+      }
+      long seen = zeros;
+      for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+        seen += bucket.getValue();
+        if (seen > rank) {
+          return 2 * Math.pow(GAMMA, bucket.getKey()) / (GAMMA + 1);
+        }
+      }
+      throw new IllegalArgumentException("rank " + rank + " out of " + count);
+    }
+  }
+}
@@ -3,13 +3,18 @@ package ru.mentee.power.crm.spring.repository;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.mentee.power.crm.domain.Deal;
 import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.KanbanColumn;
 import ru.mentee.power.crm.entity.DealEntity;
 import ru.mentee.power.crm.entity.DealEntityRepository;
 
@@ -23,8 +28,24 @@ public class JpaDealRepository implements DealRepository {
     this.entityRepository = entityRepository;
   }
 
+  /**
+   * Сначала UPDATE по id (одна команда для существующей сделки), INSERT — только если строки нет.
+   * Новые сделки лучше сохранять через {@link #insert(Deal)}.
+   */
   @Override
+  @Transactional
   public void save(Deal deal) {
+    int updated =
+        entityRepository.updateDeal(
+            deal.getId(), deal.getLeadId(), deal.getAmount(), deal.getStatus().name());
+    if (updated == 0) {
+      insert(deal);
+    }
+  }
+
+  /** persist без SELECT: DealEntity.isNew() истинно, и INSERT уходит в JDBC-батч. */
+  @Override
+  public void insert(Deal deal) {
     entityRepository.save(toEntity(deal));
   }
 
@@ -43,6 +64,32 @@ public class JpaDealRepository implements DealRepository {
     return entityRepository.findByStatus(status.name()).stream().map(this::toModel).toList();
   }
 
+  /** Два запроса независимо от размера таблицы: top-N по статусам и GROUP BY-итоги. */
+  @Override
+  @Transactional(readOnly = true)
+  public Map<DealStatus, KanbanColumn> findKanbanColumns(int limitPerStatus) {
+    Map<DealStatus, List<Deal>> top = new EnumMap<>(DealStatus.class);
+    for (DealEntity entity : entityRepository.findTopPerStatus(limitPerStatus)) {
+      Deal deal = toModel(entity);
+      top.computeIfAbsent(deal.getStatus(), s -> new ArrayList<>()).add(deal);
+    }
+    Map<DealStatus, KanbanColumn> columns = new EnumMap<>(DealStatus.class);
+    for (DealStatus status : DealStatus.values()) {
+      columns.put(status, KanbanColumn.empty(status));
+    }
+    for (DealEntityRepository.StatusSummary summary : entityRepository.summarizeByStatus()) {
+      DealStatus status = DealStatus.valueOf(summary.getStatus());
+      columns.put(
+          status,
+          new KanbanColumn(
+              status,
+              top.getOrDefault(status, List.of()),
+              summary.getDealCount(),
+              summary.getTotalAmount()));
+    }
+    return columns;
+  }
+
   @Override
   public void deleteById(UUID id) {
     entityRepository.deleteById(id);
@@ -0,0 +1,84 @@
+package ru.mentee.power.crm.spring.repository;
+
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.DealStatusChange;
+
+/**
+ * deal_status_history через JDBC. Агрегаты считаются в БД одним запросом каждый: время в статусе —
+ * разница с LEAD(changed_at) следующей записи сделки, квантили — PERCENTILE_CONT (PostgreSQL и H2),
+ * так что в приложение приходит по строке на статус, а не вся история.
+ */
+@Repository
+@Profile({"dev", "test"})
+public class JpaDealStatusHistoryRepository implements DealStatusHistoryRepository {
+
+  private static final String INSERT =
+      "INSERT INTO deal_status_history (deal_id, status, previous_status, changed_at)"
+          + " VALUES (?, ?, ?, ?)";
+
+  private static final String COUNT_REACHED =
+      "SELECT status, COUNT(DISTINCT deal_id) AS deals FROM deal_status_history GROUP BY status";
+
+  private static final String STAGE_DURATIONS =
+      """
+      SELECT status,
+             COUNT(*) AS completed,
+             PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY seconds) AS p50,
+             PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY seconds) AS p90
+      FROM (SELECT status,
+                   CAST(EXTRACT(EPOCH FROM LEAD(changed_at)
+                            OVER (PARTITION BY deal_id ORDER BY changed_at, id))
+                        - EXTRACT(EPOCH FROM changed_at) AS DOUBLE PRECISION) AS seconds
+            FROM deal_status_history) stays
+      WHERE seconds IS NOT NULL
+      GROUP BY status
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JpaDealStatusHistoryRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** На соединении текущей транзакции: строка коммитится вместе с изменением сделки. */
+  @Override
+  public void append(DealStatusChange change) {
+    jdbcTemplate.update(
+        INSERT,
+        change.dealId(),
+        change.status().name(),
+        change.previousStatus() != null ? change.previousStatus().name() : null,
+        Timestamp.from(change.changedAt()));
+  }
+
+  @Override
+  public Map<DealStatus, Long> countDealsReached() {
+    Map<DealStatus, Long> reached = new EnumMap<>(DealStatus.class);
+    jdbcTemplate.query(
+        COUNT_REACHED,
+        rs -> {
+          reached.put(DealStatus.valueOf(rs.getString("status")), rs.getLong("deals"));
+        });
+    return reached;
+  }
+
+  @Override
+  public Map<DealStatus, StageDurations> stageDurations() {
+    Map<DealStatus, StageDurations> durations = new EnumMap<>(DealStatus.class);
+    jdbcTemplate.query(
+        STAGE_DURATIONS,
+        rs -> {
+          durations.put(
+              DealStatus.valueOf(rs.getString("status")),
+              new StageDurations(
+                  rs.getLong("completed"), rs.getDouble("p50"), rs.getDouble("p90")));
+        });
+    return durations;
+  }
+}
@@ -1,16 +1,28 @@
 package ru.mentee.power.crm.spring.repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.mentee.power.crm.domain.Product;
+import ru.mentee.power.crm.spring.config.SecondLevelCacheConfig;
 
 @Repository
 public interface ProductJpaRepository extends JpaRepository<Product, UUID> {
 
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.QUERY_REGION)
+  })
   Optional<Product> findBySku(String sku);
 
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.QUERY_REGION)
+  })
   List<Product> findByActiveTrue();
 }
@@ -0,0 +1,24 @@
+package ru.mentee.power.crm.spring.rest;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.mentee.power.crm.spring.service.DealAnalyticsService;
+import ru.mentee.power.crm.spring.service.DealFunnelReport;
+
+/** Аналитика сделок: GET /api/deals/analytics/funnel — конверсия этапов и время в статусе. */
+@RestController
+@RequestMapping("/api/deals/analytics")
+public class DealAnalyticsController {
+
+  private final DealAnalyticsService analyticsService;
+
+  public DealAnalyticsController(DealAnalyticsService analyticsService) {
+    this.analyticsService = analyticsService;
+  }
+
+  @GetMapping("/funnel")
+  public DealFunnelReport funnel() {
+    return analyticsService.funnel();
+  }
+}
@@ -0,0 +1,53 @@
+package ru.mentee.power.crm.spring.rest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.mentee.power.crm.spring.exception.EntityNotFoundException;
+import ru.mentee.power.crm.spring.exception.UnsupportedExportFormatException;
+import ru.mentee.power.crm.spring.service.DataExportService;
+import ru.mentee.power.crm.spring.service.ExportDataset;
+import ru.mentee.power.crm.spring.service.ExportFormat;
+
+/**
+ * Выгрузка для отчётных задач: GET /api/export/{leads|deals|deal-products}?format=ndjson|csv. Ответ
+ * пишется потоково (StreamingResponseBody) с постоянным расходом памяти, вместо материализации всей
+ * таблицы как в GET /api/leads.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+  private final DataExportService exportService;
+
+  public ExportController(DataExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  @GetMapping("/{dataset}")
+  public ResponseEntity<StreamingResponseBody> export(
+      @PathVariable String dataset, @RequestParam(defaultValue = "ndjson") String format) {
+    ExportDataset exportDataset =
+        ExportDataset.fromPath(dataset)
+            .orElseThrow(() -> new EntityNotFoundException("Export dataset", dataset));
+    ExportFormat exportFormat =
+        ExportFormat.from(format).orElseThrow(() -> new UnsupportedExportFormatException(format));
+    StreamingResponseBody body = out -> exportService.export(exportDataset, exportFormat, out);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\""
+                + exportDataset.path()
+                + "."
+                + exportFormat.extension()
+                + "\"")
+        .body(body);
+  }
+}
@@ -1,5 +1,7 @@
 package ru.mentee.power.crm.spring.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.time.Instant;
 import java.util.List;
@@ -8,13 +10,22 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 import ru.mentee.power.crm.entity.LeadEntity;
 import ru.mentee.power.crm.spring.dto.generated.CreateLeadRequest;
+import ru.mentee.power.crm.spring.dto.generated.LeadImportChunk;
+import ru.mentee.power.crm.spring.dto.generated.LeadImportReject;
+import ru.mentee.power.crm.spring.dto.generated.LeadImportReport;
+import ru.mentee.power.crm.spring.dto.generated.LeadPage;
 import ru.mentee.power.crm.spring.dto.generated.LeadResponse;
 import ru.mentee.power.crm.spring.dto.generated.UpdateLeadRequest;
+import ru.mentee.power.crm.spring.exception.InvalidImportFileException;
 import ru.mentee.power.crm.spring.mapper.LeadMapper;
 import ru.mentee.power.crm.spring.rest.generated.LeadApi;
 import ru.mentee.power.crm.spring.service.LeadEntityService;
+import ru.mentee.power.crm.spring.service.LeadImportResult;
+import ru.mentee.power.crm.spring.service.LeadImportService;
+import ru.mentee.power.crm.spring.service.LeadKeysetPage;
 
 @RestController
 @Validated
@@ -23,12 +34,13 @@ public class LeadRestController implements LeadApi {
 
   private final LeadEntityService leadEntityService;
   private final LeadMapper leadMapper;
+  private final LeadImportService leadImportService;
 
   @Override
-  public ResponseEntity<List<LeadResponse>> getLeads() {
-    List<LeadResponse> responses =
-        leadEntityService.findAll().stream().map(leadMapper::toGeneratedResponse).toList();
-    return ResponseEntity.ok(responses);
+  public ResponseEntity<LeadPage> getLeads(String cursor, Integer limit) {
+    LeadKeysetPage page = leadEntityService.findPage(cursor, limit);
+    List<LeadResponse> items = page.items().stream().map(leadMapper::toGeneratedResponse).toList();
+    return ResponseEntity.ok(new LeadPage().items(items).nextCursor(page.nextCursor()));
   }
 
   @Override
@@ -47,6 +59,17 @@ public class LeadRestController implements LeadApi {
     return ResponseEntity.created(location).body(response);
   }
 
+  @Override
+  public ResponseEntity<LeadImportReport> importLeads(MultipartFile file) {
+    LeadImportResult result;
+    try (InputStream input = file.getInputStream()) {
+      result = leadImportService.importLeads(input);
+    } catch (IOException e) {
+      throw new InvalidImportFileException("Cannot read uploaded file", e);
+    }
+    return ResponseEntity.ok(toReport(result));
+  }
+
   @Override
   public ResponseEntity<LeadResponse> updateLead(UUID id, UpdateLeadRequest updateLeadRequest) {
     LeadEntity saved = leadEntityService.updateLead(id, updateLeadRequest);
@@ -58,4 +81,31 @@ public class LeadRestController implements LeadApi {
     leadEntityService.deleteLead(id);
     return ResponseEntity.noContent().build();
   }
+
+  private static LeadImportReport toReport(LeadImportResult result) {
+    LeadImportReport report =
+        new LeadImportReport()
+            .totalRecords(result.totalRecords())
+            .imported(result.imported())
+            .duplicates(result.duplicates())
+            .rejected(result.rejected());
+    result
+        .chunks()
+        .forEach(
+            c ->
+                report.addChunksItem(
+                    new LeadImportChunk()
+                        .index(c.index())
+                        .records(c.records())
+                        .imported(c.imported())
+                        .duplicates(c.duplicates())
+                        .rejected(c.rejected())));
+    result
+        .rejects()
+        .forEach(
+            r ->
+                report.addRejectsItem(
+                    new LeadImportReject().line(r.line()).email(r.email()).reason(r.reason())));
+    return report;
+  }
 }
@@ -0,0 +1,58 @@
+package ru.mentee.power.crm.spring.rest;
+
+import jakarta.validation.Valid;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.service.LeadValidationService;
+import ru.mentee.power.crm.spring.dto.generated.CreateValidatedLeadRequest;
+import ru.mentee.power.crm.spring.dto.generated.LeadResponse;
+import ru.mentee.power.crm.spring.exception.EmailAlreadyExistsException;
+import ru.mentee.power.crm.spring.mapper.LeadMapper;
+
+/**
+ * POST /api/leads/validated (операция createValidatedLead в api-spec.yaml) — создание лида с
+ * внешней валидацией email. Возвращает CompletableFuture: Spring MVC отпускает поток Tomcat на
+ * время валидации и ретраев и дописывает ответ, когда future завершится. Поэтому сгенерированный
+ * синхронный LeadValidationApi не реализуется, а DTO берутся из сгенерированной модели.
+ */
+@RestController
+@RequestMapping("/api/leads/validated")
+public class LeadValidationController {
+
+  private final LeadValidationService leadValidationService;
+  private final LeadMapper leadMapper;
+
+  public LeadValidationController(
+      LeadValidationService leadValidationService, LeadMapper leadMapper) {
+    this.leadValidationService = leadValidationService;
+    this.leadMapper = leadMapper;
+  }
+
+  @PostMapping
+  public CompletableFuture<ResponseEntity<LeadResponse>> createValidatedLead(
+      @Valid @RequestBody CreateValidatedLeadRequest request) {
+    Address address = new Address(request.getCity(), request.getStreet(), request.getZip());
+    return leadValidationService
+        .createLeadWithValidationAsync(
+            request.getEmail(), request.getCompany(), LeadStatus.NEW, address, request.getPhone())
+        .exceptionally(
+            error -> {
+              Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+              if (cause instanceof IllegalStateException) {
+                throw new EmailAlreadyExistsException(request.getEmail());
+              }
+              throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+            })
+        .thenApply(leadMapper::toGeneratedResponseFromDomain)
+        .thenApply(
+            lead -> ResponseEntity.created(URI.create("/api/leads/" + lead.getId())).body(lead));
+  }
+}
@@ -12,6 +12,7 @@ import ru.mentee.power.crm.spring.repository.InviteeRepository;
 import ru.mentee.power.crm.spring.rest.fixed.dto.CreateInviteeRequest;
 import ru.mentee.power.crm.spring.rest.fixed.dto.InviteeResponse;
 import ru.mentee.power.crm.spring.rest.fixed.dto.UpdateInviteeStatusRequest;
+import ru.mentee.power.crm.util.Ids;
 
 /**
  * Сервис: вся бизнес-логика вынесена из контроллера.
@@ -51,7 +52,7 @@ public class InviteeService {
       throw new EmailAlreadyExistsException(request.email());
     }
     Invitee invitee = mapper.toEntity(request);
-    invitee.setId(UUID.randomUUID());
+    invitee.setId(Ids.next());
     invitee.setCreatedAt(Instant.now());
     Invitee saved = repository.save(invitee);
     return mapper.toResponse(saved);
@@ -0,0 +1,51 @@
+package ru.mentee.power.crm.spring.service;
+
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mentee.power.crm.spring.service.ExportFormat.RowWriter;
+
+/**
+ * Потоковая выгрузка таблиц: строки читаются курсором JDBC порциями export.fetch-size (на
+ * PostgreSQL fetch size работает только внутри транзакции — отсюда readOnly-транзакция) и сразу
+ * пишутся в выходной поток. В памяти одновременно живёт одна порция строк.
+ */
+@Service
+public class DataExportService {
+
+  private final EntityManager entityManager;
+  private final int fetchSize;
+
+  public DataExportService(
+      EntityManager entityManager, @Value("${export.fetch-size:1000}") int fetchSize) {
+    this.entityManager = entityManager;
+    this.fetchSize = fetchSize;
+  }
+
+  /** Пишет весь набор данных в out и возвращает число выгруженных строк. */
+  @Transactional(readOnly = true)
+  public long export(ExportDataset dataset, ExportFormat format, OutputStream out)
+      throws IOException {
+    long rows = 0;
+    try (Stream<Object[]> stream =
+            entityManager
+                .createQuery(dataset.query(), Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+        RowWriter writer = format.open(out, dataset.columns())) {
+      Iterator<Object[]> iterator = stream.iterator();
+      while (iterator.hasNext()) {
+        writer.write(iterator.next());
+        rows++;
+      }
+    }
+    return rows;
+  }
+}
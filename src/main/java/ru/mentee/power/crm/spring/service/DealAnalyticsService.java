@@ -0,0 +1,91 @@
+package ru.mentee.power.crm.spring.service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.mentee.power.crm.domain.DealEvent;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.DealStatusChange;
+import ru.mentee.power.crm.spring.repository.DealStatusHistoryRepository;
+import ru.mentee.power.crm.spring.repository.DealStatusHistoryRepository.StageDurations;
+
+/**
+ * История статусов сделок и аналитика воронки по ней: конверсия между этапами и p50/p90 времени в
+ * статусе.
+ */
+@Service
+public class DealAnalyticsService {
+
+  /** Основной путь сделки; LOST достижим из любого незакрытого статуса и в цепочку не входит. */
+  static final List<DealStatus> FUNNEL =
+      List.of(
+          DealStatus.NEW,
+          DealStatus.QUALIFIED,
+          DealStatus.PROPOSAL_SENT,
+          DealStatus.NEGOTIATION,
+          DealStatus.WON);
+
+  private final DealStatusHistoryRepository history;
+  private final Clock clock;
+
+  @Autowired
+  public DealAnalyticsService(DealStatusHistoryRepository history) {
+    this(history, Clock.systemUTC());
+  }
+
+  DealAnalyticsService(DealStatusHistoryRepository history, Clock clock) {
+    this.history = history;
+    this.clock = clock;
+  }
+
+  /**
+   * Синхронно, в транзакции DealService.transitionDealStatus или LeadService.convertLeadToDeal:
+   * строка истории коммитится или откатывается вместе со статусом сделки.
+   */
+  @EventListener
+  public void onDealEvent(DealEvent event) {
+    if (event.type() == DealEvent.Type.AMOUNT_CHANGED) {
+      return;
+    }
+    history.append(
+        new DealStatusChange(
+            event.dealId(), event.status(), event.previousStatus(), clock.instant()));
+  }
+
+  public DealFunnelReport funnel() {
+    Map<DealStatus, Long> reached = history.countDealsReached();
+    Map<DealStatus, StageDurations> durations = history.stageDurations();
+    List<DealFunnelReport.Stage> stages = new ArrayList<>();
+    for (DealStatus status : DealStatus.values()) {
+      long count = reached.getOrDefault(status, 0L);
+      StageDurations stays = durations.get(status);
+      stages.add(
+          new DealFunnelReport.Stage(
+              status,
+              count,
+              conversionToNext(status, reached),
+              stays != null ? stays.completed() : 0,
+              stays != null ? stays.p50Seconds() : null,
+              stays != null ? stays.p90Seconds() : null));
+    }
+    return new DealFunnelReport(stages, ratio(reached, DealStatus.WON, DealStatus.NEW));
+  }
+
+  private static Double conversionToNext(DealStatus status, Map<DealStatus, Long> reached) {
+    int index = FUNNEL.indexOf(status);
+    if (index < 0 || index == FUNNEL.size() - 1) {
+      return null;
+    }
+    return ratio(reached, FUNNEL.get(index + 1), status);
+  }
+
+  private static Double ratio(
+      Map<DealStatus, Long> reached, DealStatus numerator, DealStatus denominator) {
+    long base = reached.getOrDefault(denominator, 0L);
+    return base == 0 ? null : (double) reached.getOrDefault(numerator, 0L) / base;
+  }
+}
@@ -0,0 +1,29 @@
+package ru.mentee.power.crm.spring.service;
+
+import java.util.List;
+import ru.mentee.power.crm.domain.DealStatus;
+
+/**
+ * Воронка сделок по истории статусов.
+ *
+ * @param stages по статусу на каждый DealStatus, в порядке объявления
+ * @param winRate доля созданных сделок, дошедших до WON; null, пока сделок нет
+ */
+public record DealFunnelReport(List<Stage> stages, Double winRate) {
+
+  /**
+   * @param reached сделок, входивших в статус
+   * @param conversionToNext доля из них, дошедших до следующего этапа воронки; null у WON, LOST и
+   *     статусов без сделок
+   * @param completedStays сколько сделок уже вышли из статуса — по ним считаются квантили
+   * @param p50Seconds медиана времени в статусе; null без завершённых пребываний
+   * @param p90Seconds 90-й перцентиль времени в статусе
+   */
+  public record Stage(
+      DealStatus status,
+      long reached,
+      Double conversionToNext,
+      long completedStays,
+      Double p50Seconds,
+      Double p90Seconds) {}
+}
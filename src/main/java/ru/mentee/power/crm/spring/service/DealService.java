@@ -5,9 +5,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealEvent;
 import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.KanbanColumn;
 import ru.mentee.power.crm.service.LeadService;
 import ru.mentee.power.crm.spring.repository.DealRepository;
 import ru.mentee.power.crm.spring.repository.LeadRepository;
@@ -17,12 +22,24 @@ public class DealService {
   private final DealRepository dealRepository;
   private final LeadRepository leadRepository;
   private final LeadService leadService;
+  private final ApplicationEventPublisher eventPublisher;
 
   public DealService(
       DealRepository dealRepository, LeadRepository leadRepository, LeadService leadService) {
+    this(dealRepository, leadRepository, leadService, event -> {});
+  }
+
+  /** Конструктор для Spring: изменения сделок уходят событиями DealEvent на канбан-доску. */
+  @Autowired
+  public DealService(
+      DealRepository dealRepository,
+      LeadRepository leadRepository,
+      LeadService leadService,
+      ApplicationEventPublisher eventPublisher) {
     this.dealRepository = dealRepository;
     this.leadRepository = leadRepository;
     this.leadService = leadService;
+    this.eventPublisher = eventPublisher;
   }
 
   /** Делегирует атомарную конверсию в LeadService (с @Transactional). */
@@ -30,16 +47,35 @@ public class DealService {
     return leadService.convertLeadToDeal(leadId, amount);
   }
 
+  /** В одной транзакции со строкой deal_status_history, которую пишет DealAnalyticsService. */
+  @Transactional
   public Deal transitionDealStatus(UUID dealId, DealStatus newStatus) {
-    Deal deal =
-        dealRepository
-            .findById(dealId)
-            .orElseThrow(() -> new IllegalArgumentException("Deal not found: " + dealId));
+    Deal deal = findDeal(dealId);
+    DealStatus previousStatus = deal.getStatus();
     deal.transitionTo(newStatus);
     dealRepository.save(deal);
+    eventPublisher.publishEvent(DealEvent.transitioned(deal, previousStatus));
     return deal;
   }
 
+  @Transactional
+  public Deal changeDealAmount(UUID dealId, BigDecimal amount) {
+    Deal deal = findDeal(dealId);
+    BigDecimal previousAmount = deal.getAmount();
+    deal.changeAmount(amount);
+    dealRepository.save(deal);
+    if (previousAmount.compareTo(amount) != 0) {
+      eventPublisher.publishEvent(DealEvent.amountChanged(deal, previousAmount));
+    }
+    return deal;
+  }
+
+  private Deal findDeal(UUID dealId) {
+    return dealRepository
+        .findById(dealId)
+        .orElseThrow(() -> new IllegalArgumentException("Deal not found: " + dealId));
+  }
+
   public List<Deal> getAllDeals() {
     return dealRepository.findAll();
   }
@@ -47,4 +83,15 @@ public class DealService {
   public Map<DealStatus, List<Deal>> getDealsByStatusForKanban() {
     return dealRepository.findAll().stream().collect(Collectors.groupingBy(Deal::getStatus));
   }
+
+  /**
+   * Канбан-доска без загрузки всей таблицы: по колонке на каждый статус (в порядке DealStatus) с
+   * первыми limitPerStatus сделками и итогами, посчитанными в репозитории.
+   */
+  public Map<DealStatus, KanbanColumn> getKanbanBoard(int limitPerStatus) {
+    if (limitPerStatus <= 0) {
+      throw new IllegalArgumentException("limitPerStatus must be positive");
+    }
+    return dealRepository.findKanbanColumns(limitPerStatus);
+  }
 }
@@ -0,0 +1,53 @@
+package ru.mentee.power.crm.spring.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Выгружаемые таблицы. Запросы выбирают скалярные колонки, а не сущности: строки не попадают в
+ * persistence context, и память при выгрузке не растёт с числом строк. Порядок строк — порядок
+ * хранения (без ORDER BY, чтобы первая строка уходила клиенту без сортировки всей таблицы).
+ */
+public enum ExportDataset {
+  LEADS(
+      "leads",
+      "SELECT l.id, l.email, l.phone, l.companyName, l.status, l.city, l.street, l.zip,"
+          + " l.createdAt FROM LeadEntity l",
+      List.of("id", "email", "phone", "company", "status", "city", "street", "zip", "createdAt")),
+  DEALS(
+      "deals",
+      "SELECT d.id, d.leadId, d.amount, d.status, d.createdAt FROM DealEntity d",
+      List.of("id", "leadId", "amount", "status", "createdAt")),
+  DEAL_PRODUCTS(
+      "deal-products",
+      "SELECT dp.id, dp.deal.id, dp.product.id, dp.quantity, dp.unitPrice FROM DealProduct dp",
+      List.of("id", "dealId", "productId", "quantity", "unitPrice"));
+
+  private final String path;
+  private final String query;
+  private final List<String> columns;
+
+  ExportDataset(String path, String query, List<String> columns) {
+    this.path = path;
+    this.query = query;
+    this.columns = columns;
+  }
+
+  /** Имя в URL: /api/export/{path}. */
+  public String path() {
+    return path;
+  }
+
+  String query() {
+    return query;
+  }
+
+  public List<String> columns() {
+    return columns;
+  }
+
+  public static Optional<ExportDataset> fromPath(String path) {
+    return Arrays.stream(values()).filter(d -> d.path.equals(path)).findFirst();
+  }
+}
@@ -0,0 +1,160 @@
+package ru.mentee.power.crm.spring.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/** Формат выгрузки: NDJSON (объект на строку) или CSV с заголовком. */
+public enum ExportFormat {
+  NDJSON("application/x-ndjson", "ndjson"),
+  CSV("text/csv", "csv");
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private final String contentType;
+  private final String extension;
+
+  ExportFormat(String contentType, String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public String contentType() {
+    return contentType;
+  }
+
+  public String extension() {
+    return extension;
+  }
+
+  public static Optional<ExportFormat> from(String value) {
+    try {
+      return Optional.of(valueOf(value.toUpperCase(Locale.ROOT)));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  /** Построчный писатель поверх выходного потока; close() сбрасывает буфер, но не закрывает out. */
+  RowWriter open(OutputStream out, List<String> columns) throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(nonClosing(out), StandardCharsets.UTF_8));
+    return this == NDJSON
+        ? new NdjsonRowWriter(writer, columns)
+        : new CsvRowWriter(writer, columns);
+  }
+
+  interface RowWriter extends AutoCloseable {
+    void write(Object[] row) throws IOException;
+
+    @Override
+    void close() throws IOException;
+  }
+
+  private static final class NdjsonRowWriter implements RowWriter {
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private final List<String> columns;
+
+    NdjsonRowWriter(Writer writer, List<String> columns) throws IOException {
+      this.writer = writer;
+      this.generator = JSON.createGenerator(writer);
+      // разделитель между объектами — наш '\n', а не пробел Jackson по умолчанию
+      this.generator.setRootValueSeparator(null);
+      this.columns = columns;
+    }
+
+    @Override
+    public void write(Object[] row) throws IOException {
+      generator.writeStartObject();
+      for (int i = 0; i < columns.size(); i++) {
+        generator.writeFieldName(columns.get(i));
+        Object value = row[i];
+        if (value == null) {
+          generator.writeNull();
+        } else if (value instanceof BigDecimal decimal) {
+          generator.writeNumber(decimal);
+        } else if (value instanceof Integer number) {
+          generator.writeNumber(number);
+        } else if (value instanceof Long number) {
+          generator.writeNumber(number);
+        } else {
+          generator.writeString(value.toString());
+        }
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+      generator.close();
+      writer.close();
+    }
+  }
+
+  private static final class CsvRowWriter implements RowWriter {
+    private final Writer writer;
+
+    CsvRowWriter(Writer writer, List<String> columns) throws IOException {
+      this.writer = writer;
+      writeLine(columns.toArray());
+    }
+
+    @Override
+    public void write(Object[] row) throws IOException {
+      writeLine(row);
+    }
+
+    private void writeLine(Object[] values) throws IOException {
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) {
+          writer.write(',');
+        }
+        if (values[i] != null) {
+          writer.write(escape(values[i].toString()));
+        }
+      }
+      writer.write('\n');
+    }
+
+    private static String escape(String value) {
+      if (value.indexOf(',') < 0
+          && value.indexOf('"') < 0
+          && value.indexOf('\n') < 0
+          && value.indexOf('\r') < 0) {
+        return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  private static OutputStream nonClosing(OutputStream out) {
+    return new FilterOutputStream(out) {
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        flush();
+      }
+    };
+  }
+}
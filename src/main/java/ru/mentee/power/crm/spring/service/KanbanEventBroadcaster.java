@@ -0,0 +1,240 @@
+package ru.mentee.power.crm.spring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.mentee.power.crm.domain.DealEvent;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.service.LeadService;
+
+/**
+ * Рассылка DealEvent подписчикам канбан-доски по Server-Sent Events.
+ *
+ * <p>Событие сериализуется один раз и раскладывается по очередям подписчиков; из очереди в сокет
+ * пишет виртуальный поток подписчика, так что медленный браузер не задерживает ни публикующую
+ * транзакцию, ни остальных. Очередь ограничена deal.kanban.sse.buffer-size: переполнилась —
+ * подписчик отключается (браузер переподключится и перечитает доску), а не копит события в куче.
+ * Heartbeat раз в deal.kanban.sse.heartbeat выявляет оборванные соединения.
+ */
+@Component
+public class KanbanEventBroadcaster {
+
+  private static final Logger log = LoggerFactory.getLogger(KanbanEventBroadcaster.class);
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  /** Пауза перед переподключением EventSource после обрыва. */
+  private static final long RECONNECT_MILLIS = 3000;
+
+  private final LeadService leadService;
+  private final int bufferSize;
+  private final int maxSubscribers;
+  private final Duration timeout;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService heartbeats =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("kanban-sse-heartbeat").daemon().factory());
+  private final AtomicLong eventIds = new AtomicLong();
+
+  private final LongAdder published = new LongAdder();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  @Autowired
+  public KanbanEventBroadcaster(
+      LeadService leadService,
+      @Value("${deal.kanban.sse.buffer-size:64}") int bufferSize,
+      @Value("${deal.kanban.sse.max-subscribers:1000}") int maxSubscribers,
+      @Value("${deal.kanban.sse.heartbeat:15s}") Duration heartbeat,
+      @Value("${deal.kanban.sse.timeout:30m}") Duration timeout) {
+    if (bufferSize <= 0 || maxSubscribers <= 0) {
+      throw new IllegalArgumentException(
+          "deal.kanban.sse.buffer-size and max-subscribers must be positive");
+    }
+    this.leadService = leadService;
+    this.bufferSize = bufferSize;
+    this.maxSubscribers = maxSubscribers;
+    this.timeout = timeout;
+    long millis = heartbeat.toMillis();
+    heartbeats.scheduleWithFixedDelay(
+        () -> broadcast(SseEmitter.event().comment("heartbeat").build()),
+        millis,
+        millis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Новый подписчик. Сверх deal.kanban.sse.max-subscribers — 503: каждое соединение держит поток и
+   * буфер.
+   */
+  public SseEmitter subscribe() {
+    return subscribe(new SseEmitter(timeout.toMillis()));
+  }
+
+  SseEmitter subscribe(SseEmitter emitter) {
+    if (subscribers.size() >= maxSubscribers) {
+      rejected.increment();
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Too many kanban subscribers");
+    }
+    Subscriber subscriber = new Subscriber(emitter);
+    subscribers.add(subscriber);
+    subscriber.emitter.onCompletion(() -> subscriber.close(false));
+    subscriber.emitter.onTimeout(() -> subscriber.close(false));
+    subscriber.emitter.onError(error -> subscriber.close(false));
+    subscriber.offer(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("ready").build());
+    Thread.ofVirtual().name("kanban-sse-subscriber").start(subscriber::drain);
+    return subscriber.emitter;
+  }
+
+  /**
+   * После commit транзакции изменения: откатившаяся сделка на доску не попадает. Вне транзакции
+   * (in-memory профиль) — сразу.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDealEvent(DealEvent event) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    String leadName = leadService.findCompanyNamesByIds(Set.of(event.leadId())).get(event.leadId());
+    String data;
+    try {
+      data = JSON.writeValueAsString(KanbanUpdate.of(event, leadName));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize deal event " + event.dealId(), e);
+    }
+    published.increment();
+    broadcast(
+        SseEmitter.event()
+            .id(Long.toString(eventIds.incrementAndGet()))
+            .name("deal")
+            .data(data)
+            .build());
+  }
+
+  private void broadcast(Set<DataWithMediaType> frame) {
+    for (Subscriber subscriber : subscribers) {
+      if (!subscriber.offer(frame)) {
+        evicted.increment();
+        log.debug("Evicting slow kanban subscriber: {} frames buffered", bufferSize);
+        subscriber.close(true);
+      }
+    }
+  }
+
+  public Stats stats() {
+    return new Stats(
+        subscribers.size(), published.sum(), delivered.sum(), evicted.sum(), rejected.sum());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeats.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.close(true));
+  }
+
+  /** Соединение браузера: ограниченная очередь кадров и поток, пишущий их в ответ. */
+  private final class Subscriber {
+    private static final Set<DataWithMediaType> CLOSED = Set.of();
+
+    final SseEmitter emitter;
+    final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+    final AtomicBoolean closed = new AtomicBoolean();
+
+    Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    boolean offer(Set<DataWithMediaType> frame) {
+      return closed.get() || queue.offer(frame);
+    }
+
+    void drain() {
+      try {
+        while (true) {
+          Set<DataWithMediaType> frame = queue.take();
+          if (frame == CLOSED) {
+            return;
+          }
+          emitter.send(frame);
+          delivered.increment();
+        }
+      } catch (IOException | IllegalStateException e) {
+        close(false); // клиент ушёл или ответ уже завершён
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /** Отписка; буфер освобождается сразу, даже если поток завис в записи в сокет. */
+    void close(boolean completeResponse) {
+      if (!closed.compareAndSet(false, true)) {
+        return;
+      }
+      subscribers.remove(this);
+      queue.clear();
+      queue.offer(CLOSED);
+      if (completeResponse) {
+        emitter.complete();
+      }
+    }
+  }
+
+  /** Тело SSE-события deal: поля DealEvent и имя лида для новой карточки. */
+  record KanbanUpdate(
+      DealEvent.Type type,
+      UUID dealId,
+      DealStatus status,
+      DealStatus previousStatus,
+      BigDecimal amount,
+      BigDecimal previousAmount,
+      String leadName) {
+
+    static KanbanUpdate of(DealEvent event, String leadName) {
+      return new KanbanUpdate(
+          event.type(),
+          event.dealId(),
+          event.status(),
+          event.previousStatus(),
+          event.amount(),
+          event.previousAmount(),
+          leadName);
+    }
+  }
+
+  /**
+   * @param subscribers открытых SSE-соединений
+   * @param published событий сделок, разосланных подписчикам
+   * @param delivered кадров (события и heartbeat), записанных в соединения
+   * @param evicted отключений медленных подписчиков с переполненным буфером
+   * @param rejected подписок, отклонённых сверх max-subscribers
+   */
+  public record Stats(
+      int subscribers, long published, long delivered, long evicted, long rejected) {}
+}
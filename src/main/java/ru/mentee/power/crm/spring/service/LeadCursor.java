@@ -0,0 +1,37 @@
+package ru.mentee.power.crm.spring.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import ru.mentee.power.crm.spring.exception.InvalidCursorException;
+
+/**
+ * Позиция keyset-пагинации лидов — последний (createdAt, id) отданной страницы. Клиенту уходит
+ * непрозрачным base64url-токеном.
+ */
+public record LeadCursor(Instant createdAt, UUID id) {
+
+  public String encode() {
+    String raw = createdAt + "|" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static LeadCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.indexOf('|');
+      if (separator < 0) {
+        throw new InvalidCursorException("Invalid cursor");
+      }
+      return new LeadCursor(
+          Instant.parse(raw.substring(0, separator)),
+          UUID.fromString(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new InvalidCursorException("Invalid cursor");
+    }
+  }
+}
@@ -4,6 +4,8 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -11,7 +13,9 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.mentee.power.crm.entity.LeadEntity;
+import ru.mentee.power.crm.repository.LeadChangedEvent;
 import ru.mentee.power.crm.repository.LeadRepository;
+import ru.mentee.power.crm.service.OptimisticLockRetry;
 import ru.mentee.power.crm.spring.exception.DuplicateEmailException;
 import ru.mentee.power.crm.spring.exception.EntityNotFoundException;
 import ru.mentee.power.crm.spring.mapper.LeadMapper;
@@ -25,10 +29,18 @@ public class LeadEntityService {
 
   private final LeadRepository repository;
   private final LeadMapper leadMapper;
-
-  public LeadEntityService(LeadRepository repository, LeadMapper leadMapper) {
+  private final OptimisticLockRetry optimisticLockRetry;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public LeadEntityService(
+      LeadRepository repository,
+      LeadMapper leadMapper,
+      OptimisticLockRetry optimisticLockRetry,
+      ApplicationEventPublisher eventPublisher) {
     this.repository = repository;
     this.leadMapper = leadMapper;
+    this.optimisticLockRetry = optimisticLockRetry;
+    this.eventPublisher = eventPublisher;
   }
 
   // ========== Simple CRUD helpers for REST layer ==========
@@ -56,15 +68,22 @@ public class LeadEntityService {
     return repository.save(entity);
   }
 
-  /** Обновляет лида по ID. При отсутствии — EntityNotFoundException (404). */
+  /**
+   * Обновляет лида по ID. При отсутствии — EntityNotFoundException (404). Конфликт версий
+   * повторяется через OptimisticLockRetry: запрос заново применяется к свежей версии лида.
+   */
   public LeadEntity updateLead(
       UUID id, ru.mentee.power.crm.spring.dto.generated.UpdateLeadRequest request) {
-    LeadEntity lead =
-        repository
-            .findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Lead", id.toString()));
-    leadMapper.updateEntityFromApi(request, lead);
-    return repository.save(lead);
+    return optimisticLockRetry.execute(
+        "lead entity update " + id,
+        () -> {
+          LeadEntity lead =
+              repository
+                  .findById(id)
+                  .orElseThrow(() -> new EntityNotFoundException("Lead", id.toString()));
+          leadMapper.updateEntityFromApi(request, lead);
+          return repository.save(lead);
+        });
   }
 
   /** Удаляет лида по ID. При отсутствии — EntityNotFoundException (404). */
@@ -158,6 +177,28 @@ public class LeadEntityService {
     return repository.findAll(pageRequest);
   }
 
+  /**
+   * Keyset-пагинация по (createdAt, id) от новых к старым. Читается limit + 1 строк: лишняя строка
+   * лишь сообщает, что есть следующая страница.
+   */
+  @Transactional(readOnly = true)
+  public LeadKeysetPage findPage(String cursor, int limit) {
+    Limit fetch = Limit.of(limit + 1);
+    List<LeadEntity> rows;
+    if (cursor == null || cursor.isBlank()) {
+      rows = repository.findKeysetFirstPage(fetch);
+    } else {
+      LeadCursor position = LeadCursor.decode(cursor);
+      rows = repository.findKeysetPageAfter(position.createdAt(), position.id(), fetch);
+    }
+    if (rows.size() <= limit) {
+      return new LeadKeysetPage(rows, null);
+    }
+    List<LeadEntity> items = rows.subList(0, limit);
+    LeadEntity last = items.get(limit - 1);
+    return new LeadKeysetPage(items, new LeadCursor(last.getCreatedAt(), last.getId()).encode());
+  }
+
   /** Поиск по статусу с пагинацией. */
   public Page<LeadEntity> findByStatus(String status, int page, int size) {
     Pageable pageable = PageRequest.of(page, size);
@@ -177,6 +218,7 @@ public class LeadEntityService {
   }
 
   // ========== Bulk Operations ==========
+  // JPQL UPDATE/DELETE идут мимо JPA-колбэков LeadEntity: кэш лидов сбрасывается целиком.
 
   /**
    * Массовое обновление статуса (используется @Modifying метод). ВАЖНО: @Transactional обязательна
@@ -185,6 +227,7 @@ public class LeadEntityService {
   @Transactional
   public int convertNewToContacted() {
     int updated = repository.updateStatusBulk("NEW", "CONTACTED");
+    eventPublisher.publishEvent(LeadChangedEvent.allLeads());
     // Логируем для observability
     System.out.printf("Converted %d leads from NEW to CONTACTED%n", updated);
     return updated;
@@ -194,6 +237,7 @@ public class LeadEntityService {
   @Transactional
   public int updateStatusBulk(String oldStatus, String newStatus) {
     int updated = repository.updateStatusBulk(oldStatus, newStatus);
+    eventPublisher.publishEvent(LeadChangedEvent.allLeads());
     System.out.printf("Updated %d leads from %s to %s%n", updated, oldStatus, newStatus);
     return updated;
   }
@@ -202,6 +246,7 @@ public class LeadEntityService {
   @Transactional
   public int archiveOldLeads(String status) {
     int deleted = repository.deleteByStatusBulk(status);
+    eventPublisher.publishEvent(LeadChangedEvent.allLeads());
     System.out.printf("Archived (deleted) %d leads with status %s%n", deleted, status);
     return deleted;
   }
@@ -0,0 +1,156 @@
+package ru.mentee.power.crm.spring.service;
+
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mentee.power.crm.entity.Company;
+import ru.mentee.power.crm.entity.LeadEntity;
+import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.repository.CompanyIdResolver;
+import ru.mentee.power.crm.repository.LeadRepository;
+import ru.mentee.power.crm.spring.service.LeadImportResult.ChunkResult;
+import ru.mentee.power.crm.spring.service.LeadImportResult.Reject;
+import ru.mentee.power.crm.util.Ids;
+
+/**
+ * Запись одного чанка импорта в отдельной транзакции: валидация, отсев дублей email одним запросом
+ * к БД на весь чанк, резолв компаний до вставки (чтобы native-запросы не прерывали батч) и вставка
+ * лидов JDBC-батчами размера lead.import.batch-size.
+ */
+@Service
+public class LeadImportChunkWriter {
+
+  private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+  private final LeadRepository repository;
+  private final EntityManager entityManager;
+  private final CompanyIdResolver companyIdResolver;
+  private final int batchSize;
+
+  public LeadImportChunkWriter(
+      LeadRepository repository,
+      EntityManager entityManager,
+      CompanyIdResolver companyIdResolver,
+      @Value("${lead.import.batch-size:500}") int batchSize) {
+    this.repository = repository;
+    this.entityManager = entityManager;
+    this.companyIdResolver = companyIdResolver;
+    this.batchSize = batchSize;
+  }
+
+  /** Результат записи чанка вместе с отклонёнными записями. */
+  public record Outcome(ChunkResult result, List<Reject> rejects) {}
+
+  @Transactional
+  public Outcome write(int index, List<LeadImportRecord> records) {
+    List<Reject> rejects = new ArrayList<>();
+    Map<String, LeadImportRecord> unique = new LinkedHashMap<>();
+    int rejected = 0;
+    int duplicates = 0;
+    for (LeadImportRecord record : records) {
+      String reason = validate(record);
+      if (reason != null) {
+        rejects.add(new Reject(record.line(), record.email(), reason));
+        rejected++;
+      } else if (unique.putIfAbsent(record.email(), record) != null) {
+        rejects.add(new Reject(record.line(), record.email(), "duplicate email in file"));
+        duplicates++;
+      }
+    }
+
+    if (!unique.isEmpty()) {
+      for (String existing : repository.findExistingEmails(unique.keySet())) {
+        LeadImportRecord record = unique.remove(existing);
+        rejects.add(new Reject(record.line(), existing, "email already exists"));
+        duplicates++;
+      }
+    }
+
+    Map<String, Company> companies = new HashMap<>();
+    Set<String> companyNames = new HashSet<>();
+    unique.values().forEach(r -> companyNames.add(companyName(r)));
+    companyNames.remove("-");
+    companyNames.forEach(name -> companies.put(name, companyIdResolver.resolve(name)));
+
+    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+    Instant now = Instant.now();
+    for (LeadImportRecord record : unique.values()) {
+      entityManager.persist(toEntity(record, companies, now));
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    return new Outcome(
+        new ChunkResult(index, records.size(), unique.size(), duplicates, rejected), rejects);
+  }
+
+  private static String validate(LeadImportRecord record) {
+    if (record.error() != null) {
+      return record.error();
+    }
+    if (record.email() == null) {
+      return "email is required";
+    }
+    if (record.email().length() > 255 || !EMAIL.matcher(record.email()).matches()) {
+      return "invalid email";
+    }
+    if (record.phone() == null) {
+      return "phone is required";
+    }
+    if (record.status() != null && !isKnownStatus(record.status())) {
+      return "unknown status " + record.status();
+    }
+    if (tooLong(record.phone(), 50)
+        || tooLong(record.company(), 255)
+        || tooLong(record.city(), 100)
+        || tooLong(record.street(), 255)
+        || tooLong(record.zip(), 20)) {
+      return "field value too long";
+    }
+    return null;
+  }
+
+  private static boolean isKnownStatus(String status) {
+    for (LeadStatus s : LeadStatus.values()) {
+      if (s.name().equals(status.toUpperCase(Locale.ROOT))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean tooLong(String value, int max) {
+    return value != null && value.length() > max;
+  }
+
+  private static String companyName(LeadImportRecord record) {
+    return record.company() != null ? record.company() : "-";
+  }
+
+  private static LeadEntity toEntity(
+      LeadImportRecord record, Map<String, Company> companies, Instant createdAt) {
+    LeadEntity e = new LeadEntity();
+    e.setId(Ids.next());
+    e.setEmail(record.email());
+    e.setPhone(record.phone());
+    e.setStatus(record.status() != null ? record.status().toUpperCase(Locale.ROOT) : "NEW");
+    e.assignCompany(companies.get(companyName(record)), companyName(record));
+    e.setCity(record.city());
+    e.setStreet(record.street());
+    e.setZip(record.zip());
+    e.setCreatedAt(createdAt);
+    return e;
+  }
+}
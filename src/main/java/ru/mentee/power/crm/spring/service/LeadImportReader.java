@@ -0,0 +1,180 @@
+package ru.mentee.power.crm.spring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import ru.mentee.power.crm.spring.exception.InvalidImportFileException;
+
+/**
+ * Потоковое чтение файла импорта лидов построчно: в памяти держится только текущая строка. Формат
+ * определяется по первой непустой строке: '{' — NDJSON (объект на строку), иначе CSV с заголовком.
+ * CSV — RFC 4180 в пределах строки (кавычки, "" внутри кавычек); перевод строки внутри поля не
+ * поддерживается.
+ */
+public class LeadImportReader implements Closeable {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final char BOM = '\uFEFF';
+
+  private final BufferedReader reader;
+  private final boolean ndjson;
+  private final Map<String, Integer> columns = new HashMap<>();
+  private long lineNumber;
+  private String pendingLine;
+
+  public LeadImportReader(InputStream input) throws IOException {
+    this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    String first = nextNonBlankLine();
+    if (first == null) {
+      throw new InvalidImportFileException("Import file is empty");
+    }
+    if (first.charAt(0) == BOM) {
+      first = first.substring(1);
+    }
+    this.ndjson = first.stripLeading().startsWith("{");
+    if (ndjson) {
+      pendingLine = first;
+    } else {
+      readHeader(first);
+    }
+  }
+
+  /** Следующая запись или null в конце файла. Пустые строки пропускаются. */
+  public LeadImportRecord next() throws IOException {
+    String line = pendingLine != null ? pendingLine : nextNonBlankLine();
+    pendingLine = null;
+    if (line == null) {
+      return null;
+    }
+    return ndjson ? parseJson(line) : parseCsv(line);
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private void readHeader(String header) {
+    List<String> names = splitCsv(header);
+    if (names == null) {
+      throw new InvalidImportFileException("CSV header is malformed");
+    }
+    for (int i = 0; i < names.size(); i++) {
+      columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+    }
+    if (!columns.containsKey("email")) {
+      throw new InvalidImportFileException("CSV header must contain an email column");
+    }
+  }
+
+  private LeadImportRecord parseCsv(String line) {
+    List<String> values = splitCsv(line);
+    if (values == null) {
+      return LeadImportRecord.malformed(lineNumber, "unterminated quoted field");
+    }
+    if (values.size() > columns.size()) {
+      return LeadImportRecord.malformed(lineNumber, "unexpected number of columns");
+    }
+    return new LeadImportRecord(
+        lineNumber,
+        column(values, "email"),
+        column(values, "phone"),
+        column(values, "company"),
+        column(values, "status"),
+        column(values, "city"),
+        column(values, "street"),
+        column(values, "zip"),
+        null);
+  }
+
+  private String column(List<String> values, String name) {
+    Integer index = columns.get(name);
+    return index == null || index >= values.size() ? null : blankToNull(values.get(index));
+  }
+
+  private LeadImportRecord parseJson(String line) {
+    JsonNode node;
+    try {
+      node = JSON.readTree(line);
+    } catch (JsonProcessingException e) {
+      return LeadImportRecord.malformed(lineNumber, "malformed JSON");
+    }
+    if (node == null || !node.isObject()) {
+      return LeadImportRecord.malformed(lineNumber, "JSON object expected");
+    }
+    return new LeadImportRecord(
+        lineNumber,
+        field(node, "email"),
+        field(node, "phone"),
+        field(node, "company"),
+        field(node, "status"),
+        field(node, "city"),
+        field(node, "street"),
+        field(node, "zip"),
+        null);
+  }
+
+  private static String field(JsonNode node, String name) {
+    JsonNode value = node.get(name);
+    return value == null || value.isNull() ? null : blankToNull(value.asText());
+  }
+
+  private static String blankToNull(String value) {
+    String trimmed = value.trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+  /** Разбор CSV-строки; null — незакрытая кавычка. */
+  static List<String> splitCsv(String line) {
+    List<String> values = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          current.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        values.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    if (quoted) {
+      return null;
+    }
+    values.add(current.toString());
+    return values;
+  }
+
+  private String nextNonBlankLine() throws IOException {
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (!line.isBlank()) {
+        return line;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,21 @@
+package ru.mentee.power.crm.spring.service;
+
+/**
+ * Одна запись файла импорта лидов. line — номер строки во входном файле; error != null — строку не
+ * удалось разобрать, остальные поля тогда пустые.
+ */
+public record LeadImportRecord(
+    long line,
+    String email,
+    String phone,
+    String company,
+    String status,
+    String city,
+    String street,
+    String zip,
+    String error) {
+
+  static LeadImportRecord malformed(long line, String error) {
+    return new LeadImportRecord(line, null, null, null, null, null, null, null, error);
+  }
+}
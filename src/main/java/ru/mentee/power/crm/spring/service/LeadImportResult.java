@@ -0,0 +1,19 @@
+package ru.mentee.power.crm.spring.service;
+
+import java.util.List;
+
+/** Итог импорта лидов: счётчики по файлу, прогресс по чанкам и отклонённые записи. */
+public record LeadImportResult(
+    long totalRecords,
+    long imported,
+    long duplicates,
+    long rejected,
+    List<ChunkResult> chunks,
+    List<Reject> rejects) {
+
+  /** Результат одного чанка (одной транзакции записи). */
+  public record ChunkResult(int index, int records, int imported, int duplicates, int rejected) {}
+
+  /** Отклонённая или пропущенная запись: номер строки файла, email (если прочитан) и причина. */
+  public record Reject(long line, String email, String reason) {}
+}
@@ -0,0 +1,147 @@
+package ru.mentee.power.crm.spring.service;
+
+import jakarta.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.mentee.power.crm.spring.service.LeadImportResult.ChunkResult;
+import ru.mentee.power.crm.spring.service.LeadImportResult.Reject;
+
+/**
+ * Потоковый импорт лидов из CSV/NDJSON: файл читается построчно, записи копятся в чанк размера
+ * lead.import.chunk-size, каждый чанк пишется своей транзакцией через LeadImportChunkWriter. Уже
+ * записанные чанки не откатываются при ошибке в следующих; дубли с ними отсекаются запросом
+ * следующего чанка. Прогресс логируется по чанкам.
+ */
+@Service
+public class LeadImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(LeadImportService.class);
+
+  private final LeadImportChunkWriter chunkWriter;
+  private final int chunkSize;
+  private final int maxReportedRejects;
+
+  public LeadImportService(
+      LeadImportChunkWriter chunkWriter,
+      @Value("${lead.import.chunk-size:1000}") int chunkSize,
+      @Value("${lead.import.max-reported-rejects:1000}") int maxReportedRejects) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("lead.import.chunk-size must be positive");
+    }
+    this.chunkWriter = chunkWriter;
+    this.chunkSize = chunkSize;
+    this.maxReportedRejects = maxReportedRejects;
+  }
+
+  public LeadImportResult importLeads(InputStream input) {
+    Progress progress = new Progress();
+    try (LeadImportReader reader = new LeadImportReader(input)) {
+      List<LeadImportRecord> chunk = new ArrayList<>(chunkSize);
+      LeadImportRecord record;
+      while ((record = reader.next()) != null) {
+        chunk.add(record);
+        if (chunk.size() == chunkSize) {
+          writeChunk(chunk, progress);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        writeChunk(chunk, progress);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read lead import file", e);
+    }
+    log.info(
+        "Lead import finished: records={}, imported={}, duplicates={}, rejected={}",
+        progress.total,
+        progress.imported,
+        progress.duplicates,
+        progress.rejected);
+    return new LeadImportResult(
+        progress.total,
+        progress.imported,
+        progress.duplicates,
+        progress.rejected,
+        progress.chunks,
+        progress.rejects);
+  }
+
+  private void writeChunk(List<LeadImportRecord> chunk, Progress progress) {
+    int index = progress.chunks.size();
+    ChunkResult result;
+    List<Reject> rejects;
+    try {
+      LeadImportChunkWriter.Outcome outcome = chunkWriter.write(index, chunk);
+      result = outcome.result();
+      rejects = outcome.rejects();
+    } catch (DataAccessException | PersistenceException e) {
+      // Например, тот же email вставлен параллельно после проверки: транзакция чанка откатилась,
+      // записи повторяются по одной, и отклоняются только те, что не пишутся и поодиночке
+      log.warn("Lead import chunk {} failed, retrying record by record: {}", index, e.getMessage());
+      LeadImportChunkWriter.Outcome outcome = writeOneByOne(index, chunk);
+      result = outcome.result();
+      rejects = outcome.rejects();
+    }
+    progress.add(result, rejects, maxReportedRejects);
+    log.info(
+        "Lead import chunk {}: records={}, imported={}, duplicates={}, rejected={}",
+        index,
+        result.records(),
+        result.imported(),
+        result.duplicates(),
+        result.rejected());
+  }
+
+  /** Каждая запись — своя транзакция; дубли внутри чанка находятся как уже записанные email. */
+  private LeadImportChunkWriter.Outcome writeOneByOne(int index, List<LeadImportRecord> chunk) {
+    int imported = 0;
+    int duplicates = 0;
+    int rejected = 0;
+    List<Reject> rejects = new ArrayList<>();
+    for (LeadImportRecord record : chunk) {
+      try {
+        LeadImportChunkWriter.Outcome outcome = chunkWriter.write(index, List.of(record));
+        imported += outcome.result().imported();
+        duplicates += outcome.result().duplicates();
+        rejected += outcome.result().rejected();
+        rejects.addAll(outcome.rejects());
+      } catch (DataAccessException | PersistenceException e) {
+        rejected++;
+        rejects.add(new Reject(record.line(), record.email(), "write failed"));
+      }
+    }
+    return new LeadImportChunkWriter.Outcome(
+        new ChunkResult(index, chunk.size(), imported, duplicates, rejected), rejects);
+  }
+
+  private static final class Progress {
+    private final List<ChunkResult> chunks = new ArrayList<>();
+    private final List<Reject> rejects = new ArrayList<>();
+    private long total;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+
+    void add(ChunkResult result, List<Reject> chunkRejects, int maxReportedRejects) {
+      chunks.add(result);
+      total += result.records();
+      imported += result.imported();
+      duplicates += result.duplicates();
+      rejected += result.rejected();
+      for (Reject reject : chunkRejects) {
+        if (rejects.size() >= maxReportedRejects) {
+          break;
+        }
+        rejects.add(reject);
+      }
+    }
+  }
+}
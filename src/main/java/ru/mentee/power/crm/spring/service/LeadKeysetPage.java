@@ -0,0 +1,7 @@
+package ru.mentee.power.crm.spring.service;
+
+import java.util.List;
+import ru.mentee.power.crm.entity.LeadEntity;
+
+/** Страница keyset-пагинации; nextCursor == null — страница последняя. */
+public record LeadKeysetPage(List<LeadEntity> items, String nextCursor) {}
@@ -0,0 +1,19 @@
+package ru.mentee.power.crm.util;
+
+import java.util.UUID;
+
+/**
+ * Источник идентификаторов для новых лидов, сделок, компаний и продуктов. Реализация по умолчанию —
+ * {@link UuidV7Generator}; выбирается свойством ids.generator, доступна через {@link Ids}.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+  /** Новый уникальный идентификатор. Должен быть безопасен для вызова из нескольких потоков. */
+  UUID next();
+
+  /** Случайные UUIDv4 — прежнее поведение (UUID.randomUUID()). */
+  static IdGenerator random() {
+    return UUID::randomUUID;
+  }
+}
@@ -0,0 +1,30 @@
+package ru.mentee.power.crm.util;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Точка доступа к текущему {@link IdGenerator} для мест, которые создаются не через Spring
+ * (конструкторы доменных объектов, JPA-колбэки, генератор Hibernate). По умолчанию — UUIDv7;
+ * Spring-конфигурация подменяет генератор по свойству ids.generator.
+ */
+public final class Ids {
+
+  private static volatile IdGenerator generator = new UuidV7Generator();
+
+  private Ids() {}
+
+  /** Новый идентификатор от текущего генератора. */
+  public static UUID next() {
+    return generator.next();
+  }
+
+  public static IdGenerator generator() {
+    return generator;
+  }
+
+  /** Устанавливает генератор для всех последующих вызовов {@link #next()}. */
+  public static void use(IdGenerator idGenerator) {
+    generator = Objects.requireNonNull(idGenerator, "idGenerator must not be null");
+  }
+}
@@ -0,0 +1,67 @@
+package ru.mentee.power.crm.util;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDv7 (RFC 9562): 48 бит unix-времени в миллисекундах, 12-битный счётчик в rand_a и 62 случайных
+ * бита. Новые ключи растут монотонно и попадают в правую часть B-дерева первичного ключа вместо
+ * случайной страницы, как у UUIDv4.
+ *
+ * <p>Монотонность соблюдается и между потоками: метка времени вместе со счётчиком хранится в одном
+ * AtomicLong и продвигается CAS. В пределах одной миллисекунды счётчик увеличивается на 1 (старт со
+ * случайного значения в нижней половине диапазона); при переполнении или переводе часов назад метка
+ * продолжает расти от последнего выданного значения, а не от часов.
+ */
+public final class UuidV7Generator implements IdGenerator {
+
+  private static final int COUNTER_BITS = 12;
+  private static final long COUNTER_SEED_MASK = (1L << (COUNTER_BITS - 1)) - 1;
+  private static final long VERSION_7 = 0x7000L;
+  private static final long VARIANT_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+  private static final long VARIANT_RFC = 0x8000_0000_0000_0000L;
+
+  private final Clock clock;
+  private final Random random;
+  private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+  public UuidV7Generator() {
+    this(Clock.systemUTC(), new SecureRandom());
+  }
+
+  UuidV7Generator(Clock clock, Random random) {
+    this.clock = clock;
+    this.random = random;
+  }
+
+  @Override
+  public UUID next() {
+    long state = nextState(clock.millis());
+    long mostSigBits = (state >>> COUNTER_BITS) << 16 | VERSION_7 | (state & 0xFFFL);
+    long leastSigBits = random.nextLong() & VARIANT_MASK | VARIANT_RFC;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+
+  /** Следующее значение (метка времени << 12 | счётчик), строго больше предыдущего выданного. */
+  private long nextState(long now) {
+    long seeded = 0;
+    while (true) {
+      long previous = lastTimestampAndCounter.get();
+      long next;
+      if (now > previous >>> COUNTER_BITS) {
+        if (seeded == 0) {
+          seeded = now << COUNTER_BITS | random.nextLong() & COUNTER_SEED_MASK;
+        }
+        next = seeded;
+      } else {
+        next = previous + 1;
+      }
+      if (lastTimestampAndCounter.compareAndSet(previous, next)) {
+        return next;
+      }
+    }
+  }
+}
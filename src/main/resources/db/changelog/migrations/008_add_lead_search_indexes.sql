@@ -0,0 +1,12 @@
+--liquibase formatted sql
+--changeset your-name:BCORE-34-1
+--comment: Индекс по статусу лида для фильтрации списка /leads на стороне БД
+
+CREATE INDEX IF NOT EXISTS idx_leads_status ON leads(status);
+
+--changeset your-name:BCORE-34-2 dbms:postgresql
+--comment: Trigram-индексы для регистронезависимого поиска по подстроке (LOWER(...) LIKE '%text%')
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_leads_email_lower_trgm ON leads USING gin (LOWER(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_leads_company_lower_trgm ON leads USING gin (LOWER(company) gin_trgm_ops);
@@ -0,0 +1,27 @@
+--liquibase formatted sql
+--changeset your-name:BCORE-35-1 dbms:postgresql
+--comment: Схлопывание дублей компаний по имени перед уникальным ограничением: остаётся запись с наибольшим числом лидов (при равенстве — с меньшим id), лиды остальных переносятся на неё
+
+CREATE TEMPORARY TABLE company_survivors ON COMMIT DROP AS
+SELECT id, name
+FROM (SELECT c.id, c.name,
+             ROW_NUMBER() OVER (PARTITION BY c.name ORDER BY COUNT(l.id) DESC, c.id::text) AS position
+      FROM companies c
+      LEFT JOIN leads l ON l.company_id = c.id
+      GROUP BY c.id, c.name) ranked
+WHERE position = 1;
+
+UPDATE leads l
+SET company_id = keep.id
+FROM companies c
+JOIN company_survivors keep ON keep.name = c.name
+WHERE l.company_id = c.id AND c.id <> keep.id;
+
+DELETE FROM companies c
+USING company_survivors keep
+WHERE c.name = keep.name AND c.id <> keep.id;
+
+--changeset your-name:BCORE-35-2
+--comment: Уникальность имени компании — опора для INSERT ... ON CONFLICT (name) при создании компании из лида
+
+ALTER TABLE companies ADD CONSTRAINT uq_companies_name UNIQUE (name);
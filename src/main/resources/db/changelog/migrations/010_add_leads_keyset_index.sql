@@ -0,0 +1,11 @@
+--liquibase formatted sql
+--changeset your-name:BCORE-36-1
+--comment: created_at — ключ keyset-пагинации GET /api/leads, NULL в нём ломает сравнение курсора
+
+UPDATE leads SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE leads ALTER COLUMN created_at SET NOT NULL;
+
+--changeset your-name:BCORE-36-2
+--comment: Составной индекс под ORDER BY created_at DESC, id DESC и условие (created_at, id) < (?, ?)
+
+CREATE INDEX IF NOT EXISTS idx_leads_created_at_id ON leads(created_at, id);
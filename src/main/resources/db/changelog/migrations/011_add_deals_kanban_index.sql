@@ -0,0 +1,5 @@
+--liquibase formatted sql
+--changeset your-name:BCORE-37-1
+--comment: Индекс под row_number() OVER (PARTITION BY status ORDER BY created_at DESC, id DESC) канбан-доски
+
+CREATE INDEX IF NOT EXISTS idx_deals_status_created_at_id ON deals(status, created_at, id);
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+--changeset your-name:BCORE-38-1
+--comment: Лента межузловой инвалидации кэшей: строка пишется в транзакции изменения, каждый узел читает ленту по возрастанию id
+
+CREATE TABLE cache_invalidation (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    region VARCHAR(32) NOT NULL,
+    entity_id UUID,
+    version BIGINT,
+    origin VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_cache_invalidation_created_at ON cache_invalidation(created_at);
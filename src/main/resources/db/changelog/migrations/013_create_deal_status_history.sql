@@ -0,0 +1,14 @@
+--liquibase formatted sql
+--changeset your-name:BCORE-39-1
+--comment: История статусов сделок: строка на создание сделки и на каждый переход. Без FK на deals — история переживает удаление сделки
+
+CREATE TABLE deal_status_history (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    deal_id UUID NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    previous_status VARCHAR(50),
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_deal_status_history_deal_id_changed_at ON deal_status_history(deal_id, changed_at);
+CREATE INDEX idx_deal_status_history_status_changed_at ON deal_status_history(status, changed_at);
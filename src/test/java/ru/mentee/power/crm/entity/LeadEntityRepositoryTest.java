@@ -11,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -479,6 +480,60 @@ public class LeadEntityRepositoryTest {
     assertThat(page.getTotalPages()).isEqualTo(4);
   }
 
+  @Test
+  void shouldSearchLeadsIgnoringCaseAndFilterByStatus() {
+    // Given
+    repository.save(createLead("john@acme.com", "Acme Corp", "NEW"));
+    repository.save(createLead("jane@acme.com", "Acme Corp", "CONTACTED"));
+    repository.save(createLead("bob@other.com", "ACME Partners", "NEW"));
+    repository.save(createLead("100%_sure@mail.ru", "Other Corp", "NEW"));
+
+    // When
+    Page<LeadEntity> byCompany = repository.searchLeads("%acme%", "NEW", PageRequest.of(0, 10));
+    Page<LeadEntity> literalWildcards =
+        repository.searchLeads("%100!%!_%", null, PageRequest.of(0, 10));
+    Page<LeadEntity> unfiltered = repository.searchLeads(null, null, PageRequest.of(1, 3));
+
+    // Then
+    assertThat(byCompany.getContent())
+        .extracting(LeadEntity::getEmail)
+        .containsExactly("bob@other.com", "john@acme.com");
+    assertThat(literalWildcards.getContent())
+        .extracting(LeadEntity::getEmail)
+        .containsExactly("100%_sure@mail.ru");
+    assertThat(unfiltered.getTotalElements()).isEqualTo(4);
+    assertThat(unfiltered.getContent()).hasSize(1);
+  }
+
+  // ========== Keyset Pagination Tests ==========
+
+  @Test
+  void shouldWalkKeysetPagesWithoutGapsOnEqualCreatedAt() {
+    // Given: 3 лида с одинаковым created_at — порядок решает id
+    Instant sameTime = Instant.parse("2025-01-01T10:00:00Z");
+    for (int i = 1; i <= 3; i++) {
+      LeadEntity lead = createLead("same" + i + "@mail.ru", "Company", "NEW");
+      lead.setCreatedAt(sameTime);
+      repository.save(lead);
+    }
+    LeadEntity newest = createLead("newest@mail.ru", "Company", "NEW");
+    newest.setCreatedAt(sameTime.plusSeconds(60));
+    repository.save(newest);
+
+    // When
+    List<LeadEntity> first = repository.findKeysetFirstPage(Limit.of(2));
+    LeadEntity last = first.get(1);
+    List<LeadEntity> second =
+        repository.findKeysetPageAfter(last.getCreatedAt(), last.getId(), Limit.of(2));
+    LeadEntity tail = second.get(1);
+
+    // Then
+    assertThat(first.get(0).getEmail()).isEqualTo("newest@mail.ru");
+    assertThat(second).hasSize(2).doesNotContainAnyElementsOf(first);
+    assertThat(repository.findKeysetPageAfter(tail.getCreatedAt(), tail.getId(), Limit.of(2)))
+        .isEmpty();
+  }
+
   // ========== Bulk Operations Tests ==========
 
   @Test
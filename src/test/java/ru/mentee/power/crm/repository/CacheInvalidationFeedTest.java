@@ -0,0 +1,187 @@
+package ru.mentee.power.crm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.data.jpa.test.autoconfigure.AutoConfigureDataJpa;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mentee.power.crm.Application;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.spring.config.SecondLevelCacheConfig;
+
+/**
+ * Два контекста приложения на одной H2-базе — два узла за балансировщиком. Узел B опрашивает ленту
+ * сам (poll-interval 100ms), узел A — только вручную, чтобы порядок строк контролировал тест.
+ */
+class CacheInvalidationFeedTest {
+
+  private static final Duration MAX_DELAY = Duration.ofSeconds(5);
+
+  private static ConfigurableApplicationContext nodeA;
+  private static ConfigurableApplicationContext nodeB;
+
+  @BeforeAll
+  static void startNodes() {
+    String url = "jdbc:h2:mem:feed-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    nodeA = startNode(url, "node-a", "1h");
+    nodeB = startNode(url, "node-b", "100ms");
+  }
+
+  @AfterAll
+  static void stopNodes() {
+    nodeB.close();
+    nodeA.close();
+  }
+
+  @Test
+  void shouldEvictLeadOnOtherNodeWithinPollInterval() {
+    // Given: узел B закэшировал лид
+    Lead lead = lead("remote@acme.ru", "NEW");
+    leads(nodeA).save(lead);
+    assertThat(leads(nodeB).findById(lead.id()).status()).isEqualTo("NEW");
+
+    // When
+    leads(nodeA).save(new Lead(lead.id(), lead.contact(), lead.company(), "CONTACTED"));
+
+    // Then
+    awaitTrue(() -> "CONTACTED".equals(leads(nodeB).findById(lead.id()).status()));
+    assertThat(nodeB.getBean(CacheInvalidationFeed.class).stats().applied()).isPositive();
+  }
+
+  @Test
+  void shouldEvictCachedEmptyCompanyLookupOnOtherNode() {
+    // Given: B закэшировал в кэше запросов, что компании нет
+    CompanyRepository companiesB = nodeB.getBean(CompanyRepository.class);
+    assertThat(companiesB.findByName("Remote Ltd")).isEmpty();
+
+    // When: A создаёт компанию native INSERT'ом CompanyIdResolver
+    new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class))
+        .executeWithoutResult(
+            status -> nodeA.getBean(CompanyIdResolver.class).resolve("Remote Ltd"));
+
+    // Then
+    awaitTrue(() -> companiesB.findByName("Remote Ltd").isPresent());
+  }
+
+  @Test
+  void shouldApplyRowCommittedAfterRowWithHigherId() throws Exception {
+    // Given: A закэшировал лид и дочитал ленту
+    Lead lead = lead("late@acme.ru", "NEW");
+    leads(nodeA).save(lead);
+    leads(nodeA).findById(lead.id());
+    CacheInvalidationFeed feedA = nodeA.getBean(CacheInvalidationFeed.class);
+    feedA.poll();
+    CachingLeadDomainRepository cacheA = nodeA.getBean(CachingLeadDomainRepository.class);
+
+    // When: на B строка по лиду получает id раньше, а коммитится позже соседней
+    CountDownLatch appended = new CountDownLatch(1);
+    CountDownLatch commit = new CountDownLatch(1);
+    CompletableFuture<Void> slowTransaction =
+        CompletableFuture.runAsync(
+            () ->
+                new TransactionTemplate(nodeB.getBean(PlatformTransactionManager.class))
+                    .executeWithoutResult(
+                        status -> {
+                          nodeB.publishEvent(new LeadChangedEvent(lead.id(), null));
+                          appended.countDown();
+                          await(commit);
+                        }));
+    assertThat(appended.await(5, TimeUnit.SECONDS)).isTrue();
+    nodeB.publishEvent(CacheInvalidation.of(CacheInvalidation.PRODUCTS, UUID.randomUUID()));
+    feedA.poll();
+    long loadsWithGap = cacheA.stats().loads();
+    leads(nodeA).findById(lead.id());
+    int pendingGaps = feedA.stats().pendingGaps();
+    commit.countDown();
+    slowTransaction.get(5, TimeUnit.SECONDS);
+    feedA.poll();
+    leads(nodeA).findById(lead.id());
+
+    // Then: пропуск ждал коммита, запоздавшая строка вытеснила лид
+    assertThat(pendingGaps).isEqualTo(1);
+    assertThat(cacheA.stats().loads() - loadsWithGap).isEqualTo(1);
+    assertThat(feedA.stats().lateRows()).isEqualTo(1);
+    assertThat(feedA.stats().pendingGaps()).isZero();
+  }
+
+  private static ConfigurableApplicationContext startNode(
+      String url, String nodeId, String pollInterval) {
+    return new SpringApplicationBuilder(Node.class)
+        .web(WebApplicationType.NONE)
+        .profiles("test")
+        .properties(
+            "spring.main.banner-mode=off",
+            "spring.datasource.url=" + url,
+            "spring.jpa.hibernate.ddl-auto=update",
+            "cache.invalidation.node-id=" + nodeId,
+            "cache.invalidation.poll-interval=" + pollInterval)
+        .run();
+  }
+
+  private static LeadDomainRepository leads(ConfigurableApplicationContext node) {
+    return node.getBean(LeadDomainRepository.class);
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    Instant deadline = Instant.now().plus(MAX_DELAY);
+    while (!condition.getAsBoolean()) {
+      assertThat(Instant.now()).as("invalidation delay").isBefore(deadline);
+      sleep(20);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Lead lead(String email, String status) {
+    return new Lead(
+        UUID.randomUUID(),
+        new Contact(email, "+79990000000", new Address("Moscow", "Tverskaya", "101000")),
+        "Acme",
+        status);
+  }
+
+  /** Узел: JPA-слой приложения без веба, с кэшами и лентой инвалидации. */
+  @Configuration(proxyBeanMethods = false)
+  @AutoConfigureDataJpa
+  @AutoConfigurationPackage(basePackageClasses = Application.class)
+  @Import({
+    JpaLeadRepository.class,
+    CompanyIdResolver.class,
+    CachingLeadDomainRepository.class,
+    SecondLevelCacheConfig.class,
+    CacheInvalidationFeed.class
+  })
+  static class Node {}
+}
@@ -0,0 +1,263 @@
+package ru.mentee.power.crm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+
+class CachingLeadDomainRepositoryTest {
+
+  private final CountingStore store = new CountingStore();
+  private final MutableClock clock = new MutableClock();
+  private final CachingLeadDomainRepository cache =
+      new CachingLeadDomainRepository(store, 100, Duration.ofMinutes(5), clock);
+
+  @Test
+  void shouldServeRepeatedReadsFromCacheByIdAndEmail() {
+    // Given
+    Lead lead = lead("hot@acme.ru", "NEW");
+    store.save(lead);
+
+    // When
+    for (int i = 0; i < 10; i++) {
+      cache.findById(lead.id());
+      cache.findByEmail("hot@acme.ru");
+    }
+
+    // Then: одна загрузка; email находит ту же запись через индекс email → id
+    assertThat(store.loads.get()).isEqualTo(1);
+    CachingLeadDomainRepository.Stats stats = cache.stats();
+    assertThat(stats.hits()).isEqualTo(19);
+    assertThat(stats.hitRatio()).isEqualTo(0.95);
+    assertThat(stats.averageLoadTime()).isPositive();
+  }
+
+  @Test
+  void shouldExposeCountersAsJmxAttributes() throws Exception {
+    // Given
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+    exporter.setServer(server);
+    exporter.setEnsureUniqueRuntimeObjectNames(false);
+    exporter.registerManagedResource(cache);
+    Lead lead = lead("jmx@acme.ru", "NEW");
+    store.save(lead);
+
+    // When
+    cache.findById(lead.id());
+    cache.findById(lead.id());
+
+    // Then
+    ObjectName name = new ObjectName("ru.mentee.power.crm:type=LeadCache");
+    assertThat(server.getAttribute(name, "Hits")).isEqualTo(1L);
+    assertThat(server.getAttribute(name, "Misses")).isEqualTo(1L);
+    assertThat(server.getAttribute(name, "Loads")).isEqualTo(1L);
+    assertThat(server.getAttribute(name, "Size")).isEqualTo(1);
+    assertThat(server.getAttribute(name, "HitRatio")).isEqualTo(0.5);
+    exporter.destroy();
+  }
+
+  @Test
+  void shouldInvalidateOnSaveAndDelete() {
+    // Given
+    Lead lead = lead("change@acme.ru", "NEW");
+    cache.save(lead);
+    cache.findById(lead.id());
+
+    // When
+    cache.save(new Lead(lead.id(), lead.contact(), lead.company(), "CONTACTED"));
+    String afterSave = cache.findById(lead.id()).status();
+    cache.delete(lead.id());
+
+    // Then
+    assertThat(afterSave).isEqualTo("CONTACTED");
+    assertThat(cache.findById(lead.id())).isNull();
+    assertThat(cache.findByEmail("change@acme.ru")).isEmpty();
+  }
+
+  @Test
+  void shouldReloadAfterTtl() {
+    // Given
+    Lead lead = lead("ttl@acme.ru", "NEW");
+    store.save(lead);
+    cache.findById(lead.id());
+
+    // When
+    clock.advance(Duration.ofMinutes(5));
+    cache.findById(lead.id());
+
+    // Then
+    assertThat(store.loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldEvictOnlyOlderVersionsAndNotCacheRowsBelowKnownVersion() {
+    // Given: в кэше версия 3
+    Lead lead = lead("versioned@acme.ru", "NEW");
+    store.save(lead);
+    store.versions.put(lead.id(), 3L);
+    cache.findById(lead.id());
+
+    // When: событие той же версии — запись остаётся
+    cache.onLeadChanged(new LeadChangedEvent(lead.id(), 3L));
+    cache.findById(lead.id());
+    int loadsAfterSameVersion = store.loads.get();
+
+    // When: версия 4 записана, хранилище ещё отдаёт 3 (чтение до commit)
+    cache.onLeadChanged(new LeadChangedEvent(lead.id(), 4L));
+    cache.findById(lead.id());
+    cache.findById(lead.id());
+    int loadsWhileStale = store.loads.get();
+    store.versions.put(lead.id(), 4L);
+    cache.findById(lead.id());
+    cache.findById(lead.id());
+
+    // Then: версия 3 ниже границы и не кэшировалась, версия 4 — закэширована
+    assertThat(loadsAfterSameVersion).isEqualTo(1);
+    assertThat(loadsWhileStale).isEqualTo(3);
+    assertThat(store.loads.get()).isEqualTo(4);
+  }
+
+  @Test
+  void shouldLoadOnlyMissingIdsInBatch() {
+    // Given
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Lead lead = lead("batch" + i + "@acme.ru", "NEW");
+      store.save(lead);
+      ids.add(lead.id());
+    }
+    ids.subList(0, 6).forEach(cache::findById);
+    store.batchSizes.clear();
+
+    // When
+    List<Lead> leads = cache.findAllByIds(ids);
+
+    // Then
+    assertThat(leads).extracting(Lead::id).containsExactlyInAnyOrderElementsOf(ids);
+    assertThat(store.batchSizes).containsExactly(4);
+    assertThat(cache.findAllByIds(ids)).hasSize(10);
+    assertThat(store.batchSizes).containsExactly(4);
+  }
+
+  @Test
+  void shouldCoalesceConcurrentMissesForSameKey() throws Exception {
+    // Given
+    Lead lead = lead("coalesce@acme.ru", "NEW");
+    store.save(lead);
+    store.gate = new CountDownLatch(1);
+    int readers = 32;
+    List<Future<Lead>> results = new ArrayList<>();
+
+    // When
+    try (ExecutorService pool = Executors.newFixedThreadPool(readers)) {
+      for (int i = 0; i < readers; i++) {
+        results.add(pool.submit(() -> cache.findById(lead.id())));
+      }
+      while (cache.stats().coalesced() < readers - 1) {
+        Thread.onSpinWait();
+      }
+      store.gate.countDown();
+      for (Future<Lead> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(lead);
+      }
+    }
+
+    // Then
+    assertThat(store.loads.get()).isEqualTo(1);
+    assertThat(cache.stats().coalesced()).isEqualTo(readers - 1);
+  }
+
+  private static Lead lead(String email, String status) {
+    return new Lead(
+        UUID.randomUUID(),
+        new Contact(email, "+79990000000", new Address("Moscow", "Tverskaya", "101000")),
+        "Acme",
+        status);
+  }
+
+  /** In-memory хранилище со счётчиком загрузок, версиями строк и задержкой загрузки. */
+  private static final class CountingStore extends InMemoryLeadRepository {
+    final AtomicInteger loads = new AtomicInteger();
+    final List<Integer> batchSizes = new ArrayList<>();
+    final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+    volatile CountDownLatch gate;
+
+    @Override
+    public List<VersionedLead> findVersionedByIds(Collection<UUID> ids) {
+      loads.incrementAndGet();
+      synchronized (batchSizes) {
+        batchSizes.add(ids.size());
+      }
+      awaitGate();
+      return findAllByIds(ids).stream()
+          .map(lead -> new VersionedLead(lead, versions.getOrDefault(lead.id(), 0L)))
+          .toList();
+    }
+
+    @Override
+    public Optional<VersionedLead> findVersionedByEmail(String email) {
+      loads.incrementAndGet();
+      return findByEmail(email)
+          .map(lead -> new VersionedLead(lead, versions.getOrDefault(lead.id(), 0L)));
+    }
+
+    private void awaitGate() {
+      CountDownLatch latch = gate;
+      if (latch != null) {
+        try {
+          latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+package ru.mentee.power.crm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+
+/** Стресс-тесты InMemoryLeadRepository: несколько потоков стартуют одновременно через latch. */
+class InMemoryLeadRepositoryConcurrencyTest {
+
+  private static final int THREADS = 8;
+  private static final List<String> STATUSES = List.of("NEW", "CONTACTED", "QUALIFIED");
+  private static final List<String> PAIR_STATUSES =
+      List.of("CONTACTED", "QUALIFIED", "PROCESSED", "SORTED");
+
+  private final InMemoryLeadRepository repository = new InMemoryLeadRepository();
+
+  @Test
+  void shouldNotLoseInserts_whenThreadsSaveDistinctLeads() throws Exception {
+    // When: каждый поток сохраняет свои 5000 лидов
+    runConcurrently(
+        thread -> {
+          for (int i = 0; i < 5_000; i++) {
+            repository.save(lead(UUID.randomUUID(), "t" + thread + "-" + i + "@x.ru", "NEW"));
+          }
+        });
+
+    // Then
+    assertThat(repository.size()).isEqualTo(THREADS * 5_000);
+    assertThat(repository.findByStatus("NEW", Pageable.unpaged()).getTotalElements())
+        .isEqualTo(THREADS * 5_000);
+    assertThat(repository.findByEmail("t3-4999@x.ru")).isPresent();
+  }
+
+  @Test
+  void shouldAcceptEachEmailOnce_whenThreadsRaceForSameEmails() throws Exception {
+    // Given
+    AtomicInteger accepted = new AtomicInteger();
+
+    // When: все потоки пытаются занять одни и те же 2000 email
+    runConcurrently(
+        thread -> {
+          for (int i = 0; i < 2_000; i++) {
+            if (repository.saveIfEmailAbsent(lead(UUID.randomUUID(), i + "@x.ru", "NEW"))) {
+              accepted.incrementAndGet();
+            }
+          }
+        });
+
+    // Then
+    assertThat(accepted.get()).isEqualTo(2_000);
+    assertThat(repository.size()).isEqualTo(2_000);
+  }
+
+  @Test
+  void shouldKeepIndexesConsistent_whenLeadsUpdatedConcurrently() throws Exception {
+    // Given
+    List<UUID> ids = new ArrayList<>();
+    Set<String> writtenEmails = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < 200; i++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      writtenEmails.add("initial-" + i + "@x.ru");
+      repository.save(lead(id, "initial-" + i + "@x.ru", "NEW"));
+    }
+
+    // When: потоки меняют email и статус случайных лидов и часть лидов удаляют/возвращают
+    runConcurrently(
+        thread -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int n = 0; n < 5_000; n++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            String email = id + "-" + thread + "-" + n + "@x.ru";
+            writtenEmails.add(email);
+            if (n % 50 == 0) {
+              repository.delete(id);
+            }
+            repository.save(lead(id, email, STATUSES.get(random.nextInt(STATUSES.size()))));
+          }
+        });
+
+    // Then: индекс email указывает только на текущие email, статусный индекс покрывает всех
+    List<Lead> all = repository.findAll();
+    assertThat(all).hasSize(ids.size());
+    for (Lead lead : all) {
+      assertThat(repository.findByEmail(lead.contact().email())).contains(lead);
+    }
+    long current =
+        writtenEmails.stream().filter(e -> repository.findByEmail(e).isPresent()).count();
+    assertThat(current).isEqualTo(ids.size());
+    long indexed =
+        STATUSES.stream()
+            .mapToLong(s -> repository.findByStatus(s, Pageable.unpaged()).getTotalElements())
+            .sum();
+    assertThat(indexed).isEqualTo(ids.size());
+  }
+
+  @Test
+  void shouldLetExactlyOneThreadConvertEachLead() throws Exception {
+    // Given
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      repository.save(lead(id, "cas-" + i + "@x.ru", "QUALIFIED"));
+    }
+    AtomicInteger converted = new AtomicInteger();
+
+    // When: все потоки пытаются конвертировать все лиды
+    runConcurrently(
+        thread -> {
+          for (UUID id : ids) {
+            if (repository.markConvertedIfNotConverted(id)) {
+              converted.incrementAndGet();
+            }
+          }
+        });
+
+    // Then: каждый лид конвертирован ровно одним потоком, статусный индекс перестроен
+    assertThat(converted.get()).isEqualTo(ids.size());
+    assertThat(repository.findByStatus("CONVERTED", Pageable.unpaged()).getTotalElements())
+        .isEqualTo(ids.size());
+    assertThat(repository.findByStatus("QUALIFIED", Pageable.unpaged()).getTotalElements())
+        .isZero();
+    assertThat(repository.markConvertedIfNotConverted(UUID.randomUUID())).isFalse();
+  }
+
+  @Test
+  void shouldKeepStatusIndex_whenStatusSetIsEmptiedAndRefilledConcurrently() throws Exception {
+    // Given: у каждого потока свой лид, пара потоков делит статус — его набор то пустеет (один лид
+    // вышел последним), то наполняется снова (другой как раз входит)
+    List<UUID> ids = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      repository.save(lead(id, "flip-" + t + "@x.ru", "NEW"));
+    }
+
+    // When
+    runConcurrently(
+        thread -> {
+          UUID id = ids.get(thread);
+          String email = "flip-" + thread + "@x.ru";
+          String shared = PAIR_STATUSES.get(thread / 2);
+          for (int n = 0; n < 100_000; n++) {
+            repository.save(lead(id, email, shared));
+            repository.save(lead(id, email, "NEW"));
+          }
+          repository.save(lead(id, email, shared));
+        });
+
+    // Then: ни один id не ушёл в набор, уже удалённый из индекса
+    for (int pair = 0; pair < THREADS / 2; pair++) {
+      assertThat(repository.findByStatus(PAIR_STATUSES.get(pair), Pageable.unpaged()).getContent())
+          .extracting(Lead::id)
+          .containsExactlyInAnyOrder(ids.get(2 * pair), ids.get(2 * pair + 1));
+    }
+    assertThat(repository.findByStatus("NEW", Pageable.unpaged()).getTotalElements()).isZero();
+  }
+
+  private void runConcurrently(ThreadTask task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        int thread = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  task.run(thread);
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @FunctionalInterface
+  private interface ThreadTask {
+    void run(int thread) throws Exception;
+  }
+
+  private static Lead lead(UUID id, String email, String status) {
+    return new Lead(
+        id,
+        new Contact(email, "+79990000000", new Address("Moscow", "Street", "101000")),
+        "Co",
+        status);
+  }
+}
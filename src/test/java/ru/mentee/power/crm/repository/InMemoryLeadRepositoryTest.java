@@ -6,6 +6,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import ru.mentee.power.crm.domain.Address;
 import ru.mentee.power.crm.domain.Contact;
 import ru.mentee.power.crm.model.Lead;
@@ -100,4 +102,82 @@ public class InMemoryLeadRepositoryTest {
     // Then
     assertThat(repository.findAll()).hasSize(0);
   }
+
+  @Test
+  void shouldFilterBySearchIgnoringCaseAndStatus_whenFindLeadsCalled() {
+    // Given
+    InMemoryLeadRepository repository = new InMemoryLeadRepository();
+    Address address = new Address("city", "street", "zip");
+    repository.save(
+        new Lead(UUID.randomUUID(), new Contact("a@acme.com", "1", address), "Acme", "NEW"));
+    repository.save(
+        new Lead(UUID.randomUUID(), new Contact("b@acme.com", "2", address), "Acme", "QUALIFIED"));
+    repository.save(
+        new Lead(UUID.randomUUID(), new Contact("c@other.com", "3", address), "Other", "NEW"));
+
+    // When
+    Page<Lead> result = repository.findLeads("ACME", "NEW", PageRequest.of(0, 10));
+
+    // Then
+    assertThat(result.getTotalElements()).isEqualTo(1);
+    assertThat(result.getContent().get(0).contact().email()).isEqualTo("a@acme.com");
+  }
+
+  @Test
+  void shouldReturnRequestedPageOrderedByEmail_whenFindLeadsCalledWithoutFilters() {
+    // Given
+    InMemoryLeadRepository repository = new InMemoryLeadRepository();
+    Address address = new Address("city", "street", "zip");
+    for (String email : List.of("c@x.com", "a@x.com", "b@x.com")) {
+      repository.save(new Lead(UUID.randomUUID(), new Contact(email, "1", address), "X", "NEW"));
+    }
+
+    // When
+    Page<Lead> result = repository.findLeads(null, "", PageRequest.of(1, 2));
+
+    // Then
+    assertThat(result.getTotalElements()).isEqualTo(3);
+    assertThat(result.getTotalPages()).isEqualTo(2);
+    assertThat(result.getContent()).extracting(l -> l.contact().email()).containsExactly("c@x.com");
+  }
+
+  @Test
+  void shouldKeepStatusIndexInSync_whenStatusChangesAndLeadDeleted() {
+    // Given
+    InMemoryLeadRepository repository = new InMemoryLeadRepository();
+    Contact contact = new Contact("email", "phone", new Address("city", "street", "zip"));
+    Lead lead = new Lead(UUID.randomUUID(), contact, "company", "NEW");
+    repository.save(lead);
+
+    // When
+    repository.save(new Lead(lead.id(), contact, "company", "CONTACTED"));
+
+    // Then
+    assertThat(repository.findByStatus("NEW", PageRequest.of(0, 10))).isEmpty();
+    assertThat(repository.findByStatus("CONTACTED", PageRequest.of(0, 10)))
+        .extracting(Lead::id)
+        .containsExactly(lead.id());
+
+    // When
+    repository.delete(lead.id());
+
+    // Then
+    assertThat(repository.findByStatus("CONTACTED", PageRequest.of(0, 10))).isEmpty();
+  }
+
+  @Test
+  void shouldNotFindByOldEmail_whenEmailChanged() {
+    // Given
+    InMemoryLeadRepository repository = new InMemoryLeadRepository();
+    Address address = new Address("city", "street", "zip");
+    Lead lead = new Lead(UUID.randomUUID(), new Contact("old", "phone", address), "co", "NEW");
+    repository.save(lead);
+
+    // When
+    repository.save(new Lead(lead.id(), new Contact("new", "phone", address), "co", "NEW"));
+
+    // Then
+    assertThat(repository.findByEmail("old")).isEmpty();
+    assertThat(repository.findByEmail("new")).isPresent();
+  }
 }
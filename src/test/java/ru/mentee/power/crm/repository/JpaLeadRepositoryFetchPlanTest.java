@@ -0,0 +1,133 @@
+package ru.mentee.power.crm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.service.OptimisticLockRetry;
+import ru.mentee.power.crm.spring.dto.generated.LeadPage;
+import ru.mentee.power.crm.spring.dto.generated.LeadResponse;
+import ru.mentee.power.crm.spring.mapper.LeadMapper;
+import ru.mentee.power.crm.spring.mapper.LeadMapperImpl;
+import ru.mentee.power.crm.spring.rest.LeadRestController;
+import ru.mentee.power.crm.spring.service.LeadEntityService;
+
+/**
+ * Списочные чтения не порождают N+1 по LAZY-связи company: число SQL-запросов фиксировано и не
+ * зависит от числа лидов (у каждого лида своя компания, так что каждый прокси был бы отдельным
+ * SELECT).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({
+  JpaLeadRepository.class,
+  CompanyIdResolver.class,
+  LeadEntityService.class,
+  LeadMapperImpl.class,
+  OptimisticLockRetry.class
+})
+class JpaLeadRepositoryFetchPlanTest {
+
+  @Autowired private JpaLeadRepository repository;
+
+  @Autowired private LeadEntityService leadEntityService;
+
+  @Autowired private LeadMapper leadMapper;
+
+  @Autowired private EntityManager entityManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {3, 40})
+  void findAllUsesSingleStatement(int leads) {
+    // Given
+    givenLeadsWithDistinctCompanies(leads);
+
+    // When
+    long statements = countStatements(() -> repository.findAll());
+
+    // Then
+    assertThat(statements).isEqualTo(1);
+    assertThat(repository.findAll())
+        .hasSize(leads)
+        .extracting(Lead::company)
+        .contains("Company 0", "Company " + (leads - 1));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {3, 40})
+  void findLeadsUsesSelectAndCountOnly(int leads) {
+    // Given
+    givenLeadsWithDistinctCompanies(leads);
+
+    // When: страница меньше числа лидов — отдельный COUNT
+    long paged =
+        countStatements(() -> repository.findLeads("company", "NEW", PageRequest.of(0, 2)));
+    long unpaged = countStatements(() -> repository.findLeads(null, null, Pageable.unpaged()));
+
+    // Then
+    assertThat(paged).isEqualTo(2);
+    assertThat(unpaged).isEqualTo(1);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {3, 40})
+  void restGetLeadsUsesSingleStatement(int leads) {
+    // Given
+    givenLeadsWithDistinctCompanies(leads);
+    LeadRestController controller = new LeadRestController(leadEntityService, leadMapper, null);
+
+    // When
+    LeadPage[] page = new LeadPage[1];
+    long statements = countStatements(() -> page[0] = controller.getLeads(null, 200).getBody());
+
+    // Then
+    assertThat(statements).isEqualTo(1);
+    assertThat(page[0].getItems())
+        .hasSize(leads)
+        .extracting(LeadResponse::getCompany)
+        .allMatch(company -> company.startsWith("Company "));
+  }
+
+  private void givenLeadsWithDistinctCompanies(int count) {
+    for (int i = 0; i < count; i++) {
+      repository.save(
+          new Lead(
+              UUID.randomUUID(),
+              new Contact(
+                  "lead" + i + "@fetch.ru", "+7999" + i, new Address("Moscow", "Tverskaya", "1")),
+              "Company " + i,
+              "NEW"));
+    }
+    entityManager.flush();
+  }
+
+  private long countStatements(Supplier<?> action) {
+    entityManager.clear();
+    statistics.clear();
+    action.get();
+    return statistics.getPrepareStatementCount();
+  }
+}
@@ -0,0 +1,208 @@
+package ru.mentee.power.crm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.entity.Company;
+import ru.mentee.power.crm.entity.LeadEntity;
+import ru.mentee.power.crm.model.Lead;
+
+/**
+ * Число SQL-обращений на операции JpaLeadRepository (Hibernate Statistics). Базовая линия — прежний
+ * save (двойной findById + findByName), воспроизведённый в {@link #legacySave} на тех же сущностях.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({JpaLeadRepository.class, CompanyIdResolver.class})
+class JpaLeadRepositorySaveRoundTripTest {
+
+  private static final long LEGACY_NEW_LEAD_NEW_COMPANY = 4;
+  private static final long LEGACY_NEW_LEAD_KNOWN_COMPANY = 3;
+  private static final long LEGACY_UPDATE = 3;
+
+  @Autowired private JpaLeadRepository repository;
+
+  @Autowired private CompanyRepository companyRepository;
+
+  @Autowired private LeadRepository leadRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Test
+  void shouldCreateCompanyOnceAndReuseCachedId() {
+    // Given
+    long legacyNewCompany = measure(() -> legacySave(lead("old1@legacy.ru", "Legacy")));
+    long legacyKnownCompany = measure(() -> legacySave(lead("old2@legacy.ru", "Legacy")));
+
+    // When
+    long newCompany = measureSave(lead("first@acme.ru", "Acme"));
+    long knownCompany = measureSave(lead("second@acme.ru", "Acme"));
+
+    // Then: lookup + upsert компании + insert лида, затем только lookup + insert лида
+    assertThat(legacyNewCompany).isEqualTo(LEGACY_NEW_LEAD_NEW_COMPANY);
+    assertThat(legacyKnownCompany).isEqualTo(LEGACY_NEW_LEAD_KNOWN_COMPANY);
+    assertThat(newCompany).isEqualTo(3);
+    assertThat(knownCompany).isEqualTo(2);
+    assertThat(companyRepository.findAll())
+        .extracting(Company::getName)
+        .containsOnly("Acme", "Legacy");
+    assertThat(repository.findByEmail("second@acme.ru").orElseThrow().company()).isEqualTo("Acme");
+  }
+
+  @Test
+  void shouldUpdateWithSingleExistenceCheck() {
+    // Given
+    Lead lead = lead("update@acme.ru", "Acme");
+    measureSave(lead);
+    Lead legacy = lead("legacy-update@acme.ru", "Acme");
+    legacySave(legacy);
+    long legacyUpdate =
+        measure(() -> legacySave(new Lead(legacy.id(), legacy.contact(), "Acme", "CONTACTED")));
+
+    // When
+    long update = measureSave(new Lead(lead.id(), lead.contact(), "Acme", "CONTACTED"));
+
+    // Then: один SELECT по id и один UPDATE
+    assertThat(legacyUpdate).isEqualTo(LEGACY_UPDATE);
+    assertThat(update).isEqualTo(2);
+    assertThat(repository.findById(lead.id()).status()).isEqualTo("CONTACTED");
+  }
+
+  @Test
+  void shouldReuseExistingCompanyAndEvictLeastRecentlyUsedNames() {
+    // Given
+    Company existing = new Company();
+    existing.setName("Existing");
+    existing = companyRepository.saveAndFlush(existing);
+    CompanyIdResolver resolver =
+        new CompanyIdResolver(entityManager, companyRepository, event -> {}, 2);
+
+    // When
+    Company resolved = resolver.resolve("Existing");
+    resolver.resolve("Second");
+    resolver.resolve("Third");
+
+    // Then
+    assertThat(resolved.getId()).isEqualTo(existing.getId());
+    assertThat(existing.getId().version()).isEqualTo(7);
+    assertThat(resolver.cachedSize()).isEqualTo(2);
+    assertThat(companyRepository.findByName("Third")).isPresent();
+  }
+
+  @Test
+  void shouldPersistEntityWithPreassignedIdWithoutSelect() {
+    // Given
+    LeadEntity entity = new LeadEntity();
+    entity.setId(UUID.randomUUID());
+    entity.setEmail("entity@acme.ru");
+    entity.setPhone("+79990000000");
+    entity.setCompanyName("Acme");
+    entity.setStatus("NEW");
+    statistics.clear();
+
+    // When
+    leadRepository.save(entity);
+    entityManager.flush();
+
+    // Then: isNew() по @Version — persist и один INSERT вместо SELECT + INSERT от merge
+    assertThat(entity.getVersion()).isZero();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldLoadLeadsByIdsWithOneQueryPerChunk() {
+    // Given
+    int count = JpaLeadRepository.IN_CLAUSE_CHUNK_SIZE + 1;
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Lead lead = lead("batch" + i + "@acme.ru", "Acme");
+      repository.save(lead);
+      ids.add(lead.id());
+    }
+    ids.add(UUID.randomUUID());
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    // When
+    List<Lead> leads = repository.findAllByIds(ids);
+
+    // Then: два IN-запроса вместо запроса на каждый id, неизвестный id пропущен
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(leads).hasSize(count).extracting(Lead::company).containsOnly("Acme");
+  }
+
+  private long measureSave(Lead lead) {
+    return measure(() -> repository.save(lead));
+  }
+
+  private long measure(Runnable save) {
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+    save.run();
+    entityManager.flush();
+    return statistics.getPrepareStatementCount();
+  }
+
+  /** save до CompanyIdResolver: findById на проверку, второй findById на update, findByName. */
+  private void legacySave(Lead lead) {
+    if (leadRepository.findById(lead.id()).isEmpty()) {
+      LeadEntity e = new LeadEntity();
+      e.setId(lead.id());
+      copyLegacy(lead, e);
+      entityManager.persist(e);
+    } else {
+      LeadEntity e = leadRepository.findById(lead.id()).orElseThrow();
+      copyLegacy(lead, e);
+      leadRepository.save(e);
+    }
+  }
+
+  private void copyLegacy(Lead lead, LeadEntity e) {
+    e.setEmail(lead.contact().email());
+    e.setPhone(lead.contact().phone());
+    e.setStatus(lead.status());
+    e.setCompany(
+        companyRepository
+            .findByName(lead.company())
+            .orElseGet(
+                () -> {
+                  Company company = new Company();
+                  company.setName(lead.company());
+                  return companyRepository.save(company);
+                }));
+    e.setCity(lead.contact().address().city());
+    e.setStreet(lead.contact().address().street());
+    e.setZip(lead.contact().address().zip());
+  }
+
+  private static Lead lead(String email, String company) {
+    return new Lead(
+        UUID.randomUUID(),
+        new Contact(email, "+79990000000", new Address("Moscow", "Tverskaya", "101000")),
+        company,
+        "NEW");
+  }
+}
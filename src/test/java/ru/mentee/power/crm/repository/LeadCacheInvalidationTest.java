@@ -0,0 +1,148 @@
+package ru.mentee.power.crm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.entity.LeadEntity;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.service.LeadProcessingEngine;
+import ru.mentee.power.crm.service.LeadProcessor;
+import ru.mentee.power.crm.service.LeadService;
+import ru.mentee.power.crm.service.OptimisticLockRetry;
+import ru.mentee.power.crm.spring.repository.JpaDealRepository;
+
+/**
+ * Кэш лидов поверх JPA: изменения LeadEntity через Spring Data репозиторий (мимо декоратора)
+ * вытесняют запись через LeadEntityListener и @Version. Без обёртывающей транзакции теста.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({
+  JpaLeadRepository.class,
+  CompanyIdResolver.class,
+  CachingLeadDomainRepository.class,
+  JpaDealRepository.class,
+  LeadService.class,
+  LeadProcessingEngine.class,
+  LeadProcessor.class,
+  OptimisticLockRetry.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeadCacheInvalidationTest {
+
+  @Autowired private CachingLeadDomainRepository cache;
+  @Autowired private LeadService leadService;
+  @Autowired private LeadRepository leadRepository;
+  @Autowired private CompanyRepository companyRepository;
+  @Autowired private CompanyIdResolver companyIdResolver;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void cleanUp() {
+    leadRepository.deleteAll();
+    companyRepository.deleteAll();
+    companyIdResolver.evict("Acme");
+  }
+
+  @Test
+  void shouldEvictWhenEntityIsUpdatedOutsideDomainRepository() {
+    // Given
+    Lead lead = savedLead("entity@acme.ru");
+    cache.findById(lead.id());
+    long loadsBefore = cache.stats().loads();
+
+    // When
+    LeadEntity entity = leadRepository.findById(lead.id()).orElseThrow();
+    entity.setStatus("CONTACTED");
+    leadRepository.save(entity);
+
+    // Then
+    assertThat(cache.findById(lead.id()).status()).isEqualTo("CONTACTED");
+    assertThat(cache.stats().loads() - loadsBefore).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotCacheRowReadBetweenFlushAndCommit() {
+    // Given
+    Lead lead = savedLead("racing@acme.ru");
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+    long hitsBefore = cache.stats().hits();
+
+    // When: пока изменение сброшено, но не закоммичено, другой поток читает старую версию
+    String seenBeforeCommit =
+        tx.execute(
+            status -> {
+              LeadEntity entity = leadRepository.findById(lead.id()).orElseThrow();
+              entity.setStatus("QUALIFIED");
+              leadRepository.flush();
+              return CompletableFuture.supplyAsync(() -> cache.findById(lead.id()).status()).join();
+            });
+
+    // Then: старая строка ниже версии из события — в кэш не попала
+    assertThat(seenBeforeCommit).isEqualTo("NEW");
+    assertThat(cache.findById(lead.id()).status()).isEqualTo("QUALIFIED");
+    assertThat(cache.findById(lead.id()).status()).isEqualTo("QUALIFIED");
+    assertThat(cache.stats().hits() - hitsBefore).isEqualTo(1);
+  }
+
+  @Test
+  void shouldReadOwnWritesInsideTransaction() {
+    // Given
+    Lead lead = savedLead("own@acme.ru");
+    cache.findById(lead.id());
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+    // When
+    String insideTransaction =
+        tx.execute(
+            status -> {
+              cache.save(new Lead(lead.id(), lead.contact(), lead.company(), "CONTACTED"));
+              return cache.findById(lead.id()).status();
+            });
+
+    // Then
+    assertThat(insideTransaction).isEqualTo("CONTACTED");
+    assertThat(cache.findById(lead.id()).status()).isEqualTo("CONTACTED");
+  }
+
+  @Test
+  void shouldServeRepeatedLeadServiceReadsFromCache() {
+    // Given
+    Lead lead = savedLead("service@acme.ru");
+    CachingLeadDomainRepository.Stats before = cache.stats();
+
+    // When: чтения через транзакционный прокси LeadService, как со страниц лида и конвертации
+    leadService.findById(lead.id());
+    leadService.findById(lead.id());
+    leadService.findByEmail("service@acme.ru");
+
+    // Then: одна загрузка, повторные чтения — из кэша
+    CachingLeadDomainRepository.Stats after = cache.stats();
+    assertThat(after.loads() - before.loads()).isEqualTo(1);
+    assertThat(after.hits() - before.hits()).isEqualTo(2);
+  }
+
+  private Lead savedLead(String email) {
+    Lead lead =
+        new Lead(
+            UUID.randomUUID(),
+            new Contact(email, "+79990000000", new Address("Moscow", "Tverskaya", "101000")),
+            "Acme",
+            "NEW");
+    cache.save(lead);
+    return lead;
+  }
+}
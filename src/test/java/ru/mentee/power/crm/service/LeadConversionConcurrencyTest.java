@@ -0,0 +1,125 @@
+package ru.mentee.power.crm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.entity.DealEntityRepository;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.repository.CompanyIdResolver;
+import ru.mentee.power.crm.repository.CompanyRepository;
+import ru.mentee.power.crm.repository.JpaLeadRepository;
+import ru.mentee.power.crm.repository.LeadRepository;
+import ru.mentee.power.crm.spring.exception.LeadAlreadyConvertedException;
+import ru.mentee.power.crm.spring.repository.JpaDealRepository;
+
+/**
+ * Compare-and-set конверсия на H2: 64 конкурирующих конвертера на каждый лид, без обёртывающей
+ * транзакции теста — каждая конверсия коммитится сама.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({
+  JpaLeadRepository.class,
+  CompanyIdResolver.class,
+  JpaDealRepository.class,
+  LeadService.class,
+  LeadProcessingEngine.class,
+  LeadProcessor.class,
+  OptimisticLockRetry.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeadConversionConcurrencyTest {
+
+  private static final int CONVERTERS = 64;
+  private static final int LEADS = 4;
+
+  @Autowired private LeadService leadService;
+  @Autowired private JpaLeadRepository domainRepository;
+  @Autowired private LeadRepository leadRepository;
+  @Autowired private DealEntityRepository dealEntityRepository;
+  @Autowired private CompanyRepository companyRepository;
+  @Autowired private CompanyIdResolver companyIdResolver;
+
+  @AfterEach
+  void tearDown() {
+    dealEntityRepository.deleteAll();
+    leadRepository.deleteAll();
+    companyRepository.deleteAll();
+    companyIdResolver.evict("Acme");
+  }
+
+  @Test
+  void shouldCreateExactlyOneDealPerLead_whenConvertersRace() throws Exception {
+    // Given
+    List<UUID> leadIds = new ArrayList<>();
+    for (int i = 0; i < LEADS; i++) {
+      Lead lead =
+          new Lead(
+              UUID.randomUUID(),
+              new Contact("race" + i + "@acme.ru", "+7", new Address("Moscow", "Arbat", "1")),
+              "Acme",
+              LeadStatus.QUALIFIED.name());
+      domainRepository.save(lead);
+      leadIds.add(lead.id());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(CONVERTERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Boolean>> attempts = new ArrayList<>();
+
+    // When: 64 потока на каждый лид стартуют одновременно
+    for (UUID leadId : leadIds) {
+      for (int i = 0; i < CONVERTERS; i++) {
+        attempts.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  try {
+                    leadService.convertLeadToDeal(leadId, BigDecimal.TEN);
+                    return true;
+                  } catch (LeadAlreadyConvertedException alreadyConverted) {
+                    return false;
+                  }
+                }));
+      }
+    }
+    start.countDown();
+    int won = 0;
+    for (Future<Boolean> attempt : attempts) {
+      if (attempt.get(30, TimeUnit.SECONDS)) {
+        won++;
+      }
+    }
+    executor.shutdown();
+
+    // Then: по одному победителю и одной сделке на лид, лид в CONVERTED с увеличенной версией
+    assertThat(won).isEqualTo(LEADS);
+    List<Deal> deals = new JpaDealRepository(dealEntityRepository).findAll();
+    assertThat(deals).hasSize(LEADS);
+    assertThat(deals).extracting(Deal::getLeadId).containsExactlyInAnyOrderElementsOf(leadIds);
+    for (UUID leadId : leadIds) {
+      var entity = leadRepository.findById(leadId).orElseThrow();
+      assertThat(entity.getStatus()).isEqualTo(LeadStatus.CONVERTED.name());
+      assertThat(entity.getVersion()).isEqualTo(1L);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package ru.mentee.power.crm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.repository.CompanyIdResolver;
+import ru.mentee.power.crm.repository.CompanyRepository;
+import ru.mentee.power.crm.repository.JpaLeadRepository;
+import ru.mentee.power.crm.repository.LeadDomainRepository;
+import ru.mentee.power.crm.repository.LeadRepository;
+import ru.mentee.power.crm.service.LeadProcessingResult.Outcome;
+import ru.mentee.power.crm.service.LeadProcessingResult.Status;
+
+/**
+ * Чанковая обработка на H2: транзакция на чанк вместо транзакции на лид и savepoint на лид. Тест
+ * без обёртывающей транзакции — чанки коммитятся по-настоящему, данные чистятся после теста.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({JpaLeadRepository.class, CompanyIdResolver.class, LeadProcessingEngineTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeadProcessingEngineTest {
+
+  private static final int LEADS = 25;
+  private static final int CHUNK_SIZE = 10;
+
+  /** Лид, запись которого падает уже после UPDATE (флаг взводится в тесте). */
+  private static volatile UUID poisoned;
+
+  @Autowired private JpaLeadRepository domainRepository;
+  @Autowired private LeadRepository leadRepository;
+  @Autowired private CompanyRepository companyRepository;
+  @Autowired private LeadProcessor processor;
+  @Autowired private CompanyIdResolver companyIdResolver;
+  @Autowired private EntityManager entityManager;
+
+  private Statistics statistics;
+
+  @TestConfiguration
+  static class Config {
+    @Bean
+    LeadProcessor leadProcessor(JpaLeadRepository repository, EntityManager entityManager) {
+      LeadDomainRepository failing = mock(LeadDomainRepository.class, delegatesTo(repository));
+      doAnswer(
+              invocation -> {
+                Lead lead = invocation.getArgument(0);
+                repository.save(lead);
+                entityManager.flush();
+                if (lead.id().equals(poisoned)) {
+                  throw new IllegalStateException("processing failed: " + lead.id());
+                }
+                return null;
+              })
+          .when(failing)
+          .save(any());
+      return new LeadProcessor(failing);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterEach
+  void tearDown() {
+    poisoned = null;
+    leadRepository.deleteAll();
+    companyRepository.deleteAll();
+    companyIdResolver.evict("Acme");
+  }
+
+  @Test
+  void shouldCommitPerChunkAndRollBackOnlyTheFailedLead() {
+    // Given
+    List<UUID> ids = createLeads();
+    UUID missing = UUID.randomUUID();
+    ids.add(missing);
+    poisoned = ids.get(12);
+    LeadProcessingEngine engine = new LeadProcessingEngine(processor, CHUNK_SIZE, 3, "virtual");
+    statistics.clear();
+
+    // When
+    LeadProcessingResult result = engine.process(ids);
+    engine.shutdown();
+
+    // Then: 26 id — 3 чанка и 3 commit вместо commit на каждый лид
+    assertThat(result.chunks()).isEqualTo(3);
+    assertThat(statistics.getTransactionCount()).isEqualTo(3);
+    assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(3);
+    assertThat(result.outcomes()).extracting(Outcome::id).containsExactlyElementsOf(ids);
+    assertThat(result.processed()).isEqualTo(LEADS - 1);
+    assertThat(result.notFound()).isEqualTo(1);
+    assertThat(result.failed()).isEqualTo(1);
+    assertThat(result.outcomes().get(12).status()).isEqualTo(Status.FAILED);
+    assertThat(result.outcomes().get(12).error()).contains("processing failed");
+    assertThat(result.outcomes()).allSatisfy(outcome -> assertThat(outcome.duration()).isNotNull());
+
+    // And: UPDATE упавшего лида откачен до savepoint, соседи по чанку зафиксированы
+    assertThat(statusOf(poisoned)).isEqualTo(LeadStatus.NEW.name());
+    assertThat(statusOf(ids.get(11))).isEqualTo(LeadStatus.PROCESSED.name());
+    assertThat(statusOf(ids.get(13))).isEqualTo(LeadStatus.PROCESSED.name());
+  }
+
+  @Test
+  void shouldProcessChunksOnForkJoinPool() {
+    // Given
+    List<UUID> ids = createLeads();
+    LeadProcessingEngine engine = new LeadProcessingEngine(processor, CHUNK_SIZE, 2, "fork-join");
+
+    // When
+    LeadProcessingResult result = engine.process(ids);
+    engine.shutdown();
+
+    // Then
+    assertThat(result.processed()).isEqualTo(LEADS);
+    assertThat(leadRepository.findAll())
+        .extracting(entity -> entity.getStatus())
+        .containsOnly(LeadStatus.PROCESSED.name());
+  }
+
+  private String statusOf(UUID id) {
+    return leadRepository.findById(id).orElseThrow().getStatus();
+  }
+
+  private List<UUID> createLeads() {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < LEADS; i++) {
+      Lead lead =
+          new Lead(
+              UUID.randomUUID(),
+              new Contact(
+                  "chunk" + i + "@acme.ru",
+                  "+79990000000",
+                  new Address("Moscow", "Tverskaya", "101000")),
+              "Acme",
+              LeadStatus.NEW.name());
+      domainRepository.save(lead);
+      ids.add(lead.id());
+    }
+    return ids;
+  }
+}
@@ -5,14 +5,14 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.util.Optional;
-import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import ru.mentee.power.crm.domain.Address;
-import ru.mentee.power.crm.domain.Contact;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.model.LeadStatus;
 import ru.mentee.power.crm.repository.LeadDomainRepository;
@@ -34,51 +34,42 @@ public class LeadServiceMockTest {
 
   @Test
   void shouldCallRepositorySave_whenAddingNewLead() {
-    // Given: Repository возвращает пустой Optional (email уникален)
-    when(mockRepository.findByEmail(anyString())).thenReturn(Optional.empty());
-
-    // When: настраиваем save
+    // Given: Repository атомарно занимает email (email уникален)
+    when(mockRepository.saveIfEmailAbsent(any(Lead.class))).thenReturn(true);
     Address address = new Address("City", "Street", "12345");
-    doNothing().when(mockRepository).save(any(Lead.class));
 
     // When: вызываем бизнес-метод
     Lead result =
         service.addLead("new@example.com", "Company", LeadStatus.NEW, address, "1234567890");
 
-    // Then: проверяем что Repository.save() был вызван ровно 1 раз
-    verify(mockRepository, times(1)).save(any(Lead.class));
+    // Then: проверяем что сохранение было вызвано ровно 1 раз
+    verify(mockRepository, times(1)).saveIfEmailAbsent(any(Lead.class));
 
     // Then: проверяем результат
     assertThat(result.contact().email()).isEqualTo("new@example.com");
   }
 
   @Test
-  void shouldNotCallSave_whenEmailExists() {
-    // Given: Repository возвращает существующий Lead
-    Lead existingLead =
-        new Lead(
-            UUID.randomUUID(),
-            new Contact(
-                "existing@example.com", "1234567890", new Address("City", "Street", "12345")),
-            "Existing Company",
-            LeadStatus.NEW.name());
-    when(mockRepository.findByEmail("existing@example.com")).thenReturn(Optional.of(existingLead));
+  void shouldThrow_whenEmailExists() {
+    // Given: email уже занят другим лидом
+    when(mockRepository.saveIfEmailAbsent(any(Lead.class))).thenReturn(false);
 
     // When/Then: ожидаем исключение
     assertThatThrownBy(
             () ->
-                service.addLead("existing@example.com", "New Company", LeadStatus.NEW, null, null))
+                service.addLead(
+                    "existing@example.com",
+                    "New Company",
+                    LeadStatus.NEW,
+                    new Address("City", "Street", "12345"),
+                    "1234567890"))
         .isInstanceOf(IllegalStateException.class);
-
-    // Then: save() НЕ должен быть вызван
-    verify(mockRepository, never()).save(any(Lead.class));
   }
 
   @Test
-  void shouldCallFindByEmail_beforeSave() {
+  void shouldCheckEmailAndSaveInSingleAtomicCall() {
     // Given
-    when(mockRepository.findByEmail(anyString())).thenReturn(Optional.empty());
-    doNothing().when(mockRepository).save(any(Lead.class));
+    when(mockRepository.saveIfEmailAbsent(any(Lead.class))).thenReturn(true);
 
     // When
     service.addLead(
@@ -88,9 +79,25 @@ public class LeadServiceMockTest {
         new Address("City", "Street", "12345"),
         "1234567890");
 
-    // Then: проверяем порядок вызовов
-    var inOrder = inOrder(mockRepository);
-    inOrder.verify(mockRepository).findByEmail("test@example.com");
-    inOrder.verify(mockRepository).save(any(Lead.class));
+    // Then: нет отдельной проверки findByEmail перед сохранением (check-then-act)
+    verify(mockRepository).saveIfEmailAbsent(any(Lead.class));
+    verify(mockRepository, never()).findByEmail(anyString());
+    verify(mockRepository, never()).save(any(Lead.class));
+  }
+
+  @Test
+  void shouldUseRepositoryIndexes_whenFindingByEmailOrStatus() {
+    // Given
+    when(mockRepository.findByEmail("indexed@example.com")).thenReturn(Optional.empty());
+    when(mockRepository.findByStatus(eq("NEW"), any(Pageable.class))).thenReturn(Page.empty());
+
+    // When
+    service.findByEmail("indexed@example.com");
+    service.findByStatus(LeadStatus.NEW);
+
+    // Then: полный скан через findAll() не выполняется
+    verify(mockRepository).findByEmail("indexed@example.com");
+    verify(mockRepository).findByStatus(eq("NEW"), any(Pageable.class));
+    verify(mockRepository, never()).findAll();
   }
 }
@@ -224,4 +224,19 @@ public class LeadServiceTest {
                   .isEqualTo(org.springframework.http.HttpStatus.NOT_FOUND);
             });
   }
+
+  @Test
+  void shouldResolveCompanyNamesByIds_skippingUnknownIds() {
+    // Given
+    Address address = new Address("Test City", "Test Street", "12345");
+    Lead first = service.addLead("a@example.com", "Alpha", LeadStatus.NEW, address, "+1");
+    Lead second = service.addLead("b@example.com", "Beta", LeadStatus.NEW, address, "+2");
+    UUID unknown = UUID.randomUUID();
+
+    // When
+    var names = service.findCompanyNamesByIds(List.of(first.id(), second.id(), unknown));
+
+    // Then
+    assertThat(names).containsOnly(entry(first.id(), "Alpha"), entry(second.id(), "Beta"));
+  }
 }
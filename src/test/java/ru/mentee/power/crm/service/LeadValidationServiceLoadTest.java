@@ -0,0 +1,208 @@
+package ru.mentee.power.crm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.repository.InMemoryLeadRepository;
+import ru.mentee.power.crm.spring.client.EmailValidationBatcher;
+import ru.mentee.power.crm.spring.client.EmailValidationClient;
+import ru.mentee.power.crm.spring.repository.InMemoryDealRepository;
+
+/**
+ * Нагрузочное сравнение синхронной и асинхронной валидации против медленного внешнего сервиса.
+ * Вместо WireMock (его Jetty 9 недоступен на текущем classpath) — HTTP-заглушка на JDK HttpServer с
+ * задержкой ответа и без пакетного эндпоинта (батчер переходит на одиночные вызовы). Пул из
+ * SERVLET_THREADS потоков играет роль коннектора Tomcat.
+ */
+class LeadValidationServiceLoadTest {
+
+  private static final int SERVLET_THREADS = 4;
+  private static final int REQUESTS = 40;
+  private static final long VALIDATOR_DELAY_MS = 200;
+  private static final Address ADDRESS = new Address("Moscow", "Tverskaya", "101000");
+
+  private HttpServer validator;
+  private final AtomicInteger validatorCalls = new AtomicInteger();
+  private volatile long validatorDelayMs = VALIDATOR_DELAY_MS;
+  private InMemoryLeadRepository leadRepository;
+  private EmailValidationClient client;
+  private EmailValidationBatcher batcher;
+  private ExecutorService servletPool;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    validator = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    validator.setExecutor(Executors.newCachedThreadPool());
+    validator.createContext(
+        "/api/validate/email",
+        exchange -> {
+          validatorCalls.incrementAndGet();
+          sleep(validatorDelayMs);
+          String email = exchange.getRequestURI().getQuery().substring("email=".length());
+          byte[] body =
+              ("{\"email\":\"" + email + "\",\"valid\":true,\"reason\":\"ok\"}")
+                  .getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    validator.createContext(
+        "/api/validate/emails",
+        exchange -> {
+          exchange.sendResponseHeaders(404, -1);
+          exchange.close();
+        });
+    validator.start();
+    leadRepository = new InMemoryLeadRepository();
+    servletPool = Executors.newFixedThreadPool(SERVLET_THREADS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    servletPool.shutdownNow();
+    if (batcher != null) {
+      batcher.shutdown();
+    }
+    validator.stop(0);
+  }
+
+  @Test
+  void asyncVariantReleasesServletThreadsAndMultipliesThroughput() throws Exception {
+    // Given
+    LeadValidationService service = service(Duration.ofSeconds(2), 200);
+
+    // When
+    long syncMillis = timeSync(service, "sync");
+    long asyncMillis = timeAsync(service, "async");
+
+    // Then: синхронно пул из 4 потоков обслуживает 40 запросов волнами по 4 (~2 с), асинхронно
+    // все валидации идут одновременно (~1 задержка валидатора)
+    assertThat(leadRepository.size()).isEqualTo(2 * REQUESTS);
+    assertThat(syncMillis).isGreaterThanOrEqualTo(REQUESTS / SERVLET_THREADS * VALIDATOR_DELAY_MS);
+    assertThat(asyncMillis * 3).isLessThan(syncMillis);
+  }
+
+  @Test
+  void asyncRetriesTimedOutAttemptsThenFallsBackToCreatingLead() throws Exception {
+    // Given: каждая попытка дольше attempt-timeout
+    LeadValidationService service = service(Duration.ofMillis(50), 200);
+    validatorDelayMs = 300;
+
+    // When
+    CompletableFuture<Lead> future =
+        service.createLeadWithValidationAsync(
+            "slow@example.com", "Slow", LeadStatus.NEW, ADDRESS, "+7");
+
+    // Then: вызывающий поток не ждёт, а после трёх попыток лид создаётся без валидации.
+    // Повторы присоединяются к ещё летящему запросу — медленный сервис получает один вызов
+    assertThat(future).isNotDone();
+    Lead lead = future.get(5, TimeUnit.SECONDS);
+    assertThat(lead.contact().email()).isEqualTo("slow@example.com");
+    assertThat(client.stats().misses()).isEqualTo(1);
+    assertThat(batcher.stats().singleCalls()).isEqualTo(1);
+    assertThat(validatorCalls).hasValue(1);
+  }
+
+  @Test
+  void asyncRejectsCallsBeyondBulkheadLimit() throws Exception {
+    // Given
+    LeadValidationService service = service(Duration.ofSeconds(2), 1);
+    CompletableFuture<Lead> first =
+        service.createLeadWithValidationAsync("a@example.com", "A", LeadStatus.NEW, ADDRESS, "+7");
+
+    // When
+    CompletableFuture<Lead> second =
+        service.createLeadWithValidationAsync("b@example.com", "B", LeadStatus.NEW, ADDRESS, "+7");
+
+    // Then
+    assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(BulkheadFullException.class);
+    assertThat(first.get(5, TimeUnit.SECONDS).company()).isEqualTo("A");
+    assertThat(leadRepository.findByEmail("b@example.com")).isEmpty();
+  }
+
+  private long timeSync(LeadValidationService service, String prefix) throws Exception {
+    long start = System.nanoTime();
+    List<Future<Lead>> results = new ArrayList<>();
+    for (int i = 0; i < REQUESTS; i++) {
+      String email = prefix + i + "@example.com";
+      results.add(
+          servletPool.submit(
+              () -> service.createLeadWithValidation(email, "Co", LeadStatus.NEW, ADDRESS, "+7")));
+    }
+    for (Future<Lead> result : results) {
+      result.get(30, TimeUnit.SECONDS);
+    }
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private long timeAsync(LeadValidationService service, String prefix) throws Exception {
+    long start = System.nanoTime();
+    List<Future<CompletableFuture<Lead>>> submitted = new ArrayList<>();
+    for (int i = 0; i < REQUESTS; i++) {
+      String email = prefix + i + "@example.com";
+      submitted.add(
+          servletPool.submit(
+              () ->
+                  service.createLeadWithValidationAsync(
+                      email, "Co", LeadStatus.NEW, ADDRESS, "+7")));
+    }
+    for (Future<CompletableFuture<Lead>> request : submitted) {
+      request.get(30, TimeUnit.SECONDS).get(30, TimeUnit.SECONDS);
+    }
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private LeadValidationService service(Duration attemptTimeout, int maxConcurrent) {
+    client =
+        new EmailValidationClient(
+            new RestTemplate(),
+            "http://localhost:" + validator.getAddress().getPort(),
+            1000,
+            Duration.ofHours(1),
+            Duration.ofMinutes(10),
+            Duration.ofMinutes(10),
+            3);
+    String baseUrl = "http://localhost:" + validator.getAddress().getPort();
+    batcher =
+        new EmailValidationBatcher(
+            client, new RestTemplate(), baseUrl, Duration.ofMillis(5), 100, REQUESTS);
+    LeadService leadService = new LeadService(leadRepository, new InMemoryDealRepository());
+    return new LeadValidationService(
+        leadService, client, batcher, 3, Duration.ofMillis(20), attemptTimeout, maxConcurrent);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package ru.mentee.power.crm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.repository.CompanyIdResolver;
+import ru.mentee.power.crm.repository.CompanyRepository;
+import ru.mentee.power.crm.repository.JpaLeadRepository;
+import ru.mentee.power.crm.repository.LeadRepository;
+import ru.mentee.power.crm.spring.repository.JpaDealRepository;
+
+/**
+ * Повтор при конфликте @Version: много потоков обновляют один лид на H2 без обёртывающей транзакции
+ * теста — ни одно обновление не теряется и не уходит клиенту ошибкой.
+ */
+@DataJpaTest(properties = "lead.optimistic-retry.max-attempts=100")
+@ActiveProfiles("test")
+@Import({
+  JpaLeadRepository.class,
+  CompanyIdResolver.class,
+  JpaDealRepository.class,
+  LeadService.class,
+  LeadProcessingEngine.class,
+  LeadProcessor.class,
+  OptimisticLockRetry.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OptimisticLockRetryTest {
+
+  private static final int THREADS = 16;
+  private static final int UPDATES_PER_THREAD = 10;
+
+  @Autowired private LeadService leadService;
+  @Autowired private OptimisticLockRetry optimisticLockRetry;
+  @Autowired private JpaLeadRepository domainRepository;
+  @Autowired private LeadRepository leadRepository;
+  @Autowired private CompanyRepository companyRepository;
+  @Autowired private CompanyIdResolver companyIdResolver;
+
+  @AfterEach
+  void tearDown() {
+    leadRepository.deleteAll();
+    companyRepository.deleteAll();
+    companyIdResolver.evict("Acme");
+  }
+
+  @Test
+  void shouldApplyEveryConcurrentUpdate_whenThreadsContendForSameLead() throws Exception {
+    // Given
+    UUID leadId = UUID.randomUUID();
+    domainRepository.save(
+        new Lead(
+            leadId,
+            new Contact("contended@acme.ru", "+7", new Address("Moscow", "Arbat", "1")),
+            "Acme",
+            LeadStatus.NEW.name()));
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // When: каждый поток пишет свои телефоны в один и тот же лид
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int n = 0; n < UPDATES_PER_THREAD; n++) {
+                  leadService.update(
+                      leadId,
+                      "contended@acme.ru",
+                      "+7-" + thread + "-" + n,
+                      "Acme",
+                      LeadStatus.CONTACTED);
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Then: версия выросла на каждое обновление — потерянных нет; конфликты были и все повторены
+    assertThat(leadRepository.findById(leadId).orElseThrow().getVersion())
+        .isEqualTo((long) THREADS * UPDATES_PER_THREAD);
+    OptimisticLockRetry.Stats stats = optimisticLockRetry.stats();
+    assertThat(stats.conflicts()).isPositive();
+    assertThat(stats.retries()).isEqualTo(stats.conflicts());
+    assertThat(stats.exhausted()).isZero();
+  }
+
+  @Test
+  void shouldRetryOnlyConflictsAndGiveUpAfterMaxAttempts() {
+    // Given
+    OptimisticLockRetry retry =
+        new OptimisticLockRetry(
+            TransactionOperations.withoutTransaction(),
+            3,
+            Duration.ofMillis(1),
+            2.0,
+            0.5,
+            Duration.ofMillis(5));
+    AtomicInteger calls = new AtomicInteger();
+
+    // When
+    String result =
+        retry.execute(
+            "flaky",
+            () -> {
+              if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Lead.class, "id");
+              }
+              return "ok";
+            });
+
+    // Then: два конфликта повторены, третья попытка прошла
+    assertThat(result).isEqualTo("ok");
+    assertThat(retry.stats()).isEqualTo(new OptimisticLockRetry.Stats(2, 2, 0));
+
+    // And: постоянный конфликт исчерпывает попытки, прочие ошибки не повторяются
+    assertThatThrownBy(
+            () ->
+                retry.execute(
+                    "always",
+                    () -> {
+                      throw new ObjectOptimisticLockingFailureException(Lead.class, "id");
+                    }))
+        .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    calls.set(0);
+    assertThatThrownBy(
+            () ->
+                retry.execute(
+                    "broken",
+                    () -> {
+                      calls.incrementAndGet();
+                      throw new IllegalArgumentException("Lead not found");
+                    }))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(calls).hasValue(1);
+    assertThat(retry.stats()).isEqualTo(new OptimisticLockRetry.Stats(5, 4, 1));
+  }
+
+  @Test
+  void shouldExposeCountersAsJmxAttributes() throws Exception {
+    // Given
+    OptimisticLockRetry retry =
+        new OptimisticLockRetry(
+            TransactionOperations.withoutTransaction(),
+            2,
+            Duration.ofMillis(1),
+            2.0,
+            0.5,
+            Duration.ofMillis(5));
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+    exporter.setServer(server);
+    exporter.setEnsureUniqueRuntimeObjectNames(false);
+    exporter.registerManagedResource(retry);
+
+    // When: постоянный конфликт — один повтор и отказ
+    assertThatThrownBy(
+            () ->
+                retry.execute(
+                    "always",
+                    () -> {
+                      throw new ObjectOptimisticLockingFailureException(Lead.class, "id");
+                    }))
+        .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+    // Then
+    ObjectName name = new ObjectName("ru.mentee.power.crm:type=OptimisticLockRetry");
+    assertThat(server.getAttribute(name, "Conflicts")).isEqualTo(2L);
+    assertThat(server.getAttribute(name, "Retries")).isEqualTo(1L);
+    assertThat(server.getAttribute(name, "Exhausted")).isEqualTo(1L);
+    exporter.destroy();
+  }
+}
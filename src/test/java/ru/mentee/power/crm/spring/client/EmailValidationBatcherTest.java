@@ -0,0 +1,195 @@
+package ru.mentee.power.crm.spring.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Микробатчинг против HTTP-заглушки на JDK HttpServer (WireMock 2.x на текущем classpath не
+ * стартует): число вызовов внешнего сервиса и fallback на одиночные вызовы.
+ */
+class EmailValidationBatcherTest {
+
+  private static final int CALLERS = 500;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicInteger batchCalls = new AtomicInteger();
+  private final AtomicInteger singleCalls = new AtomicInteger();
+  private final AtomicInteger concurrentSingles = new AtomicInteger();
+  private final AtomicInteger maxConcurrentSingles = new AtomicInteger();
+  private volatile boolean batchSupported = true;
+
+  private HttpServer server;
+  private EmailValidationClient client;
+  private EmailValidationBatcher batcher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/api/validate/emails", this::handleBatch);
+    server.createContext("/api/validate/email", this::handleSingle);
+    server.start();
+    String baseUrl = "http://localhost:" + server.getAddress().getPort();
+    RestTemplate restTemplate = new RestTemplate();
+    client =
+        new EmailValidationClient(
+            restTemplate,
+            baseUrl,
+            10_000,
+            Duration.ofHours(1),
+            Duration.ofMinutes(10),
+            Duration.ofMinutes(10),
+            3);
+    batcher =
+        new EmailValidationBatcher(client, restTemplate, baseUrl, Duration.ofMillis(20), 100, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    batcher.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  void shouldCutUpstreamCallsByAnOrderOfMagnitude() throws Exception {
+    // When
+    List<EmailValidationResponse> responses = validateConcurrently(0, CALLERS);
+
+    // Then: каждый вызывающий получил ответ по своему адресу, а сервис — единицы запросов
+    for (int i = 0; i < CALLERS; i++) {
+      assertThat(responses.get(i).email()).isEqualTo(email(i));
+      assertThat(responses.get(i).valid()).isEqualTo(i % 2 == 0);
+    }
+    assertThat(singleCalls).hasValue(0);
+    assertThat(batchCalls.get()).isPositive().isLessThanOrEqualTo(CALLERS / 10);
+    assertThat(batcher.stats().batchedEmails()).isEqualTo(CALLERS);
+
+    // And: ответы пакета закэшированы в клиенте
+    assertThat(batcher.validate(email(0)).get(5, TimeUnit.SECONDS).valid()).isTrue();
+    assertThat(batchCalls.get()).isLessThanOrEqualTo(CALLERS / 10);
+  }
+
+  @Test
+  void shouldFallBackToBoundedSingleCallsWithoutBatchEndpoint() throws Exception {
+    // Given
+    batchSupported = false;
+
+    // When
+    List<EmailValidationResponse> responses = validateConcurrently(0, 40);
+
+    int probes = batchCalls.get();
+    List<EmailValidationResponse> later = validateConcurrently(40, 40);
+
+    // Then: после 404 пакетный эндпоинт больше не пробуется, одиночные вызовы — не больше 4 сразу
+    assertThat(responses).extracting(EmailValidationResponse::email).contains(email(0), email(39));
+    assertThat(later).extracting(EmailValidationResponse::email).contains(email(40), email(79));
+    assertThat(probes).isPositive();
+    assertThat(batchCalls).hasValue(probes);
+    assertThat(singleCalls).hasValue(80);
+    assertThat(maxConcurrentSingles.get()).isLessThanOrEqualTo(4);
+    assertThat(batcher.stats().singleCalls()).isEqualTo(80);
+  }
+
+  @Test
+  void shouldJoinInFlightValidationOfSameAddress() throws Exception {
+    // Given
+    batchSupported = false;
+    CompletableFuture<EmailValidationResponse> first = batcher.validate(email(2));
+
+    // When: повтор (например, retry после таймаута) до прихода ответа
+    Thread.sleep(30);
+    CompletableFuture<EmailValidationResponse> retry = batcher.validate(email(2));
+
+    // Then
+    assertThat(retry.get(5, TimeUnit.SECONDS).valid()).isTrue();
+    assertThat(first.get(5, TimeUnit.SECONDS).valid()).isTrue();
+    assertThat(singleCalls).hasValue(1);
+  }
+
+  private List<EmailValidationResponse> validateConcurrently(int from, int count) throws Exception {
+    ExecutorService callers = Executors.newFixedThreadPool(32);
+    try {
+      List<Future<CompletableFuture<EmailValidationResponse>>> submitted = new ArrayList<>();
+      for (int i = from; i < from + count; i++) {
+        String email = email(i);
+        submitted.add(callers.submit(() -> batcher.validate(email)));
+      }
+      List<EmailValidationResponse> responses = new ArrayList<>();
+      for (Future<CompletableFuture<EmailValidationResponse>> future : submitted) {
+        responses.add(future.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+      }
+      return responses;
+    } finally {
+      callers.shutdownNow();
+    }
+  }
+
+  private void handleBatch(HttpExchange exchange) throws IOException {
+    batchCalls.incrementAndGet();
+    if (!batchSupported) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    String[] emails = objectMapper.readValue(exchange.getRequestBody(), String[].class);
+    List<EmailValidationResponse> responses = new ArrayList<>();
+    for (String email : emails) {
+      responses.add(answer(email));
+    }
+    respond(exchange, objectMapper.writeValueAsBytes(responses));
+  }
+
+  private void handleSingle(HttpExchange exchange) throws IOException {
+    singleCalls.incrementAndGet();
+    int running = concurrentSingles.incrementAndGet();
+    maxConcurrentSingles.accumulateAndGet(running, Math::max);
+    try {
+      Thread.sleep(20);
+      String email = exchange.getRequestURI().getQuery().substring("email=".length());
+      respond(exchange, objectMapper.writeValueAsBytes(answer(email)));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      concurrentSingles.decrementAndGet();
+    }
+  }
+
+  /**
+   * Чётные адреса валидны, нечётные — нет (домены разные, негативный кэш домена не срабатывает).
+   */
+  private static EmailValidationResponse answer(String email) {
+    int index = Integer.parseInt(email.substring(4, email.indexOf('@')));
+    return new EmailValidationResponse(email, index % 2 == 0, "stub");
+  }
+
+  private static String email(int i) {
+    return "user" + i + "@d" + i + ".example.com";
+  }
+
+  private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package ru.mentee.power.crm.spring.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Кэш, негативный кэш домена и схлопывание запросов EmailValidationClient (MockRestServiceServer).
+ */
+class EmailValidationClientCacheTest {
+
+  private static final Duration VALID_TTL = Duration.ofHours(1);
+  private static final Duration INVALID_TTL = Duration.ofMinutes(10);
+  private static final Duration DOMAIN_TTL = Duration.ofMinutes(5);
+
+  private MutableClock clock;
+  private MockRestServiceServer mockServer;
+  private EmailValidationClient client;
+
+  @BeforeEach
+  void setUp() {
+    RestTemplate restTemplate = new RestTemplate();
+    mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+    clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    client =
+        new EmailValidationClient(
+            restTemplate, "http://validator", 100, VALID_TTL, INVALID_TTL, DOMAIN_TTL, 3, clock);
+  }
+
+  @Test
+  void shouldServeRepeatedLookupsFromCache() {
+    // Given
+    mockServer
+        .expect(once(), requestTo(containsString(encoded("john@example.com"))))
+        .andRespond(withSuccess(json("john@example.com", true), APPLICATION_JSON));
+
+    // When
+    EmailValidationResponse first = client.validateEmail("john@example.com");
+    EmailValidationResponse second = client.validateEmail(" John@Example.com ");
+
+    // Then
+    mockServer.verify();
+    assertThat(first.valid()).isTrue();
+    assertThat(second).isEqualTo(first);
+    assertThat(client.stats()).isEqualTo(new EmailValidationStats(1, 0, 1, 0));
+  }
+
+  @Test
+  void shouldExposeCountersAsJmxAttributes() throws Exception {
+    // Given
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+    exporter.setServer(server);
+    exporter.setEnsureUniqueRuntimeObjectNames(false);
+    exporter.registerManagedResource(client);
+    mockServer
+        .expect(once(), requestTo(containsString(encoded("jmx@example.com"))))
+        .andRespond(withSuccess(json("jmx@example.com", true), APPLICATION_JSON));
+
+    // When
+    client.validateEmail("jmx@example.com");
+    client.validateEmail("jmx@example.com");
+
+    // Then
+    ObjectName name = new ObjectName("ru.mentee.power.crm:type=EmailValidationCache");
+    assertThat(server.getAttribute(name, "Hits")).isEqualTo(1L);
+    assertThat(server.getAttribute(name, "Misses")).isEqualTo(1L);
+    assertThat(server.getAttribute(name, "DomainHits")).isEqualTo(0L);
+    assertThat(server.getAttribute(name, "Coalesced")).isEqualTo(0L);
+    exporter.destroy();
+  }
+
+  @Test
+  void shouldExpireInvalidAnswersBeforeValidOnes() {
+    // Given
+    mockServer
+        .expect(once(), requestTo(containsString(encoded("good@example.com"))))
+        .andRespond(withSuccess(json("good@example.com", true), APPLICATION_JSON));
+    mockServer
+        .expect(times(2), requestTo(containsString(encoded("bad@example.com"))))
+        .andRespond(withSuccess(json("bad@example.com", false), APPLICATION_JSON));
+    client.validateEmail("good@example.com");
+    client.validateEmail("bad@example.com");
+
+    // When: invalid-ttl истёк, valid-ttl — нет
+    clock.advance(INVALID_TTL);
+    client.validateEmail("good@example.com");
+    client.validateEmail("bad@example.com");
+
+    // Then
+    mockServer.verify();
+    assertThat(client.stats().misses()).isEqualTo(3);
+    assertThat(client.stats().hits()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRejectWholeDomainAfterRepeatedInvalidAnswers() {
+    // Given: три отказа подряд по разным адресам домена; d@spam.ru запрашивается только после TTL
+    for (String email : List.of("a@spam.ru", "b@spam.ru", "c@spam.ru")) {
+      mockServer
+          .expect(once(), requestTo(containsString(encoded(email))))
+          .andRespond(withSuccess(json(email, false), APPLICATION_JSON));
+    }
+    mockServer
+        .expect(once(), requestTo(containsString(encoded("d@spam.ru"))))
+        .andRespond(withSuccess(json("d@spam.ru", true), APPLICATION_JSON));
+    List.of("a@spam.ru", "b@spam.ru", "c@spam.ru").forEach(client::validateEmail);
+
+    // When
+    EmailValidationResponse rejected = client.validateEmail("d@spam.ru");
+    clock.advance(DOMAIN_TTL);
+    EmailValidationResponse afterTtl = client.validateEmail("d@spam.ru");
+
+    // Then: первый ответ — без запроса во внешний сервис, после TTL домен проверяется снова
+    mockServer.verify();
+    assertThat(rejected.valid()).isFalse();
+    assertThat(rejected.reason()).contains("spam.ru");
+    assertThat(afterTtl.valid()).isTrue();
+    assertThat(client.stats().domainHits()).isEqualTo(1);
+    assertThat(client.stats().misses()).isEqualTo(4);
+  }
+
+  @Test
+  void shouldNotCacheServiceErrors() {
+    // Given
+    mockServer
+        .expect(once(), requestTo(containsString(encoded("retry@example.com"))))
+        .andRespond(withServerError());
+    mockServer
+        .expect(once(), requestTo(containsString(encoded("retry@example.com"))))
+        .andRespond(withSuccess(json("retry@example.com", true), APPLICATION_JSON));
+
+    // When
+    EmailValidationResponse failed = client.validateEmail("retry@example.com");
+    EmailValidationResponse recovered = client.validateEmail("retry@example.com");
+
+    // Then
+    mockServer.verify();
+    assertThat(failed.reason()).contains("Validation service error");
+    assertThat(recovered.valid()).isTrue();
+  }
+
+  @Test
+  void shouldCoalesceConcurrentLookupsOfSameEmail() throws Exception {
+    // Given: ответ сервиса задерживается, пока все остальные вызовы не начнут ждать его
+    int callers = 8;
+    CountDownLatch release = new CountDownLatch(1);
+    mockServer
+        .expect(once(), requestTo(containsString(encoded("slow@example.com"))))
+        .andRespond(
+            request -> {
+              try {
+                release.await(10, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return withSuccess(json("slow@example.com", true), APPLICATION_JSON)
+                  .createResponse(request);
+            });
+    ExecutorService pool = Executors.newFixedThreadPool(callers);
+
+    // When
+    List<Future<EmailValidationResponse>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < callers; i++) {
+        results.add(pool.submit(() -> client.validateEmail("slow@example.com")));
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (client.stats().coalesced() < callers - 1 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+
+      // Then
+      for (Future<EmailValidationResponse> result : results) {
+        assertThat(result.get(10, TimeUnit.SECONDS).valid()).isTrue();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    mockServer.verify();
+    assertThat(client.stats()).isEqualTo(new EmailValidationStats(0, 0, 1, callers - 1));
+  }
+
+  private static String encoded(String email) {
+    return "email=" + URLEncoder.encode(email, StandardCharsets.UTF_8);
+  }
+
+  private static String json(String email, boolean valid) {
+    return """
+        {"email": "%s", "valid": %s, "reason": "stub"}
+        """
+        .formatted(email, valid);
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
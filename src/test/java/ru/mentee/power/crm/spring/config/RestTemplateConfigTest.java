@@ -0,0 +1,162 @@
+package ru.mentee.power.crm.spring.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import ru.mentee.power.crm.spring.client.EmailValidationClient;
+import ru.mentee.power.crm.spring.client.EmailValidationResponse;
+import ru.mentee.power.crm.spring.client.OutboundHttpPoolMetrics;
+
+/** Пул keep-alive соединений, таймауты и кодирование запроса на реальном HTTP-сервере (JDK). */
+class RestTemplateConfigTest {
+
+  private final RestTemplateConfig config = new RestTemplateConfig();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private final Set<String> receivedEmails = ConcurrentHashMap.newKeySet();
+
+  private HttpServer server;
+  private PoolingHttpClientConnectionManager connectionManager;
+  private CloseableHttpClient httpClient;
+  private RestTemplate restTemplate;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext(
+        "/api/validate/email",
+        exchange -> {
+          clientPorts.add(exchange.getRemoteAddress().getPort());
+          String email = exchange.getRequestURI().getQuery().substring("email=".length());
+          receivedEmails.add(email);
+          if (email.startsWith("slow")) {
+            sleep(500);
+          }
+          byte[] body =
+              ("{\"email\":\"" + email + "\",\"valid\":true,\"reason\":\"ok\"}")
+                  .getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.start();
+    connectionManager =
+        config.outboundConnectionManager(
+            10, 5, Duration.ofSeconds(1), Duration.ofMillis(200), Duration.ofMinutes(5));
+    httpClient =
+        config.outboundHttpClient(
+            connectionManager,
+            Duration.ofSeconds(1),
+            Duration.ofMillis(200),
+            Duration.ofSeconds(30));
+    restTemplate = config.restTemplate(httpClient);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    httpClient.close();
+    server.stop(0);
+  }
+
+  @Test
+  void shouldReuseSingleKeepAliveConnectionForSequentialCalls() {
+    // When
+    for (int i = 0; i < 20; i++) {
+      restTemplate.getForObject(url("user" + i + "@example.com"), EmailValidationResponse.class);
+    }
+
+    // Then: все 20 запросов через одно TCP-соединение, после вызовов оно свободно в пуле
+    assertThat(clientPorts).hasSize(1);
+    OutboundHttpPoolMetrics.Stats stats = new OutboundHttpPoolMetrics(connectionManager).stats();
+    assertThat(stats.leased()).isZero();
+    assertThat(stats.available()).isEqualTo(1);
+    assertThat(stats.max()).isEqualTo(10);
+    assertThat(stats.routes()).isEqualTo(1);
+  }
+
+  @Test
+  void poolMetricsShouldBeReadableOverJmx() throws Exception {
+    // Given
+    MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+    AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+    exporter.setServer(mbeanServer);
+    exporter.setEnsureUniqueRuntimeObjectNames(false);
+    exporter.registerManagedResource(new OutboundHttpPoolMetrics(connectionManager));
+
+    // When
+    restTemplate.getForObject(url("jmx@example.com"), EmailValidationResponse.class);
+
+    // Then
+    ObjectName name = new ObjectName("ru.mentee.power.crm:type=OutboundHttpPool");
+    assertThat(mbeanServer.getAttribute(name, "Leased")).isEqualTo(0);
+    assertThat(mbeanServer.getAttribute(name, "Available")).isEqualTo(1);
+    assertThat(mbeanServer.getAttribute(name, "Max")).isEqualTo(10);
+    assertThat(mbeanServer.getAttribute(name, "Routes")).isEqualTo(1);
+    exporter.destroy();
+  }
+
+  @Test
+  void shouldFailFastWhenReadTimeoutExceeded() {
+    assertThatThrownBy(
+            () -> restTemplate.getForObject(url("slow@example.com"), EmailValidationResponse.class))
+        .isInstanceOf(ResourceAccessException.class);
+  }
+
+  @Test
+  void emailValidationClientShouldEncodeReservedCharacters() {
+    // Given
+    EmailValidationClient client =
+        new EmailValidationClient(
+            restTemplate,
+            "http://localhost:" + server.getAddress().getPort(),
+            100,
+            Duration.ofHours(1),
+            Duration.ofMinutes(10),
+            Duration.ofMinutes(10),
+            3);
+
+    // When
+    EmailValidationResponse response = client.validateEmail("first+tag&x=1@example.com");
+
+    // Then: сервер получил адрес целиком, а не обрезанный по & и с пробелом вместо +
+    assertThat(receivedEmails).containsExactly("first+tag&x=1@example.com");
+    assertThat(response.valid()).isTrue();
+  }
+
+  private String url(String email) {
+    return "http://localhost:"
+        + server.getAddress().getPort()
+        + "/api/validate/email?email="
+        + email;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
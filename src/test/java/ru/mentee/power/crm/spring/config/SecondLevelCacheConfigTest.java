@@ -0,0 +1,143 @@
+package ru.mentee.power.crm.spring.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mentee.power.crm.domain.Product;
+import ru.mentee.power.crm.entity.Company;
+import ru.mentee.power.crm.repository.CompanyIdResolver;
+import ru.mentee.power.crm.repository.CompanyRepository;
+import ru.mentee.power.crm.spring.repository.ProductJpaRepository;
+
+/**
+ * Second-level cache справочников: повторные поиски Company/Product в пределах TTL не ходят в БД.
+ * Без обёртывающей транзакции теста — кэш наполняется только после commit.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({SecondLevelCacheConfig.class, ReferenceCacheMetrics.class, CompanyIdResolver.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheConfigTest {
+
+  @Autowired private CompanyRepository companyRepository;
+  @Autowired private ProductJpaRepository productRepository;
+  @Autowired private CompanyIdResolver companyIdResolver;
+  @Autowired private ReferenceCacheMetrics metrics;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    productRepository.deleteAll();
+    companyRepository.deleteAll();
+    companyIdResolver.evict("Resolved");
+  }
+
+  @Test
+  void shouldServeRepeatedReferenceLookupsWithoutSql() {
+    // Given
+    Company company = new Company();
+    company.setName("Acme");
+    company = companyRepository.save(company);
+    Product product = productRepository.save(product("SKU-1", true));
+    productRepository.save(product("SKU-2", false));
+    lookUp(company, product);
+    Map<String, ReferenceCacheMetrics.Stats> before = metrics.stats();
+    statistics.clear();
+
+    // When
+    for (int i = 0; i < 10; i++) {
+      lookUp(company, product);
+    }
+
+    // Then: запросы — из региона запросов, findById — из регионов сущностей; ни одного SQL
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+    Map<String, ReferenceCacheMetrics.Stats> after = metrics.stats();
+    assertThat(hits(after, before, SecondLevelCacheConfig.QUERY_REGION)).isEqualTo(30);
+    assertThat(hits(after, before, SecondLevelCacheConfig.COMPANY_REGION)).isEqualTo(10);
+    assertThat(hits(after, before, SecondLevelCacheConfig.PRODUCT_REGION)).isEqualTo(10);
+    assertThat(after.get(SecondLevelCacheConfig.QUERY_REGION).hitRatio()).isGreaterThan(0.8);
+  }
+
+  @Test
+  void shouldRerunQueryAfterWriteToItsTable() {
+    // Given
+    productRepository.save(product("SKU-1", true));
+    productRepository.findByActiveTrue();
+    statistics.clear();
+
+    // When
+    productRepository.save(product("SKU-2", true));
+    long afterInsert = statistics.getPrepareStatementCount();
+
+    // Then: запись в products делает результат устаревшим — один повторный SELECT
+    assertThat(productRepository.findByActiveTrue())
+        .extracting(Product::getSku)
+        .containsExactlyInAnyOrder("SKU-1", "SKU-2");
+    assertThat(statistics.getPrepareStatementCount() - afterInsert).isEqualTo(1);
+  }
+
+  @Test
+  void shouldKeepProductQueriesCachedWhenResolverInsertsCompany() {
+    // Given
+    productRepository.save(product("SKU-1", true));
+    productRepository.findBySku("SKU-1");
+    statistics.clear();
+
+    // When: native INSERT компании объявляет затронутой только таблицу companies
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(status -> companyIdResolver.resolve("Resolved"));
+    long afterInsert = statistics.getPrepareStatementCount();
+
+    // Then
+    assertThat(productRepository.findBySku("SKU-1")).isPresent();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterInsert);
+    assertThat(companyRepository.findByName("Resolved")).isPresent();
+  }
+
+  private void lookUp(Company company, Product product) {
+    assertThat(companyRepository.findByName("Acme")).isPresent();
+    assertThat(companyRepository.findById(company.getId())).isPresent();
+    assertThat(productRepository.findBySku("SKU-1")).isPresent();
+    assertThat(productRepository.findById(product.getId())).isPresent();
+    assertThat(productRepository.findByActiveTrue()).hasSize(1);
+  }
+
+  private static long hits(
+      Map<String, ReferenceCacheMetrics.Stats> after,
+      Map<String, ReferenceCacheMetrics.Stats> before,
+      String region) {
+    return after.get(region).hits() - before.get(region).hits();
+  }
+
+  private static Product product(String sku, boolean active) {
+    Product product = new Product();
+    product.setName("Product " + sku);
+    product.setSku(sku);
+    product.setPrice(new BigDecimal("100.00"));
+    product.setActive(active);
+    return product;
+  }
+}
@@ -9,7 +9,6 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
 import org.springframework.web.server.ResponseStatusException;
@@ -63,11 +63,11 @@ public class LeadControllerUnitTest {
 
   @Test
   void shouldDelegateShowLeadsToService_whenNoFilter() {
-    when(mockLeadService.findLeads(null, null)).thenReturn(Collections.emptyList());
+    when(mockLeadService.findLeads(null, null, 0, 20)).thenReturn(Page.empty());
 
-    String viewName = controller.showLeads(null, null, model);
+    String viewName = controller.showLeads(null, null, 0, 20, model);
 
-    verify(mockLeadService).findLeads(null, null);
+    verify(mockLeadService).findLeads(null, null, 0, 20);
     verify(model).addAttribute(eq("leads"), any());
     verify(model).addAttribute("search", "");
     verify(model).addAttribute("status", "");
@@ -76,11 +76,11 @@ public class LeadControllerUnitTest {
 
   @Test
   void shouldDelegateShowLeadsToService_whenSearchAndStatusFilter() {
-    when(mockLeadService.findLeads("test", "NEW")).thenReturn(Collections.emptyList());
+    when(mockLeadService.findLeads("test", "NEW", 0, 20)).thenReturn(Page.empty());
 
-    String viewName = controller.showLeads("test", "NEW", model);
+    String viewName = controller.showLeads("test", "NEW", 0, 20, model);
 
-    verify(mockLeadService).findLeads("test", "NEW");
+    verify(mockLeadService).findLeads("test", "NEW", 0, 20);
     verify(model).addAttribute(eq("leads"), any());
     verify(model).addAttribute("search", "test");
     verify(model).addAttribute("status", "NEW");
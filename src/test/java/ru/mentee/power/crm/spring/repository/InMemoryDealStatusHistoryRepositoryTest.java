@@ -0,0 +1,74 @@
+package ru.mentee.power.crm.spring.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.DealStatusChange;
+import ru.mentee.power.crm.spring.repository.DealStatusHistoryRepository.StageDurations;
+
+class InMemoryDealStatusHistoryRepositoryTest {
+
+  private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+  private final InMemoryDealStatusHistoryRepository repository =
+      new InMemoryDealStatusHistoryRepository();
+
+  @Test
+  void shouldAggregateLikeSqlWithinSketchAccuracy() {
+    // Given: тот же сценарий, что в JpaDealStatusHistoryRepositoryTest
+    UUID lost = UUID.randomUUID();
+    UUID proposal = UUID.randomUUID();
+    UUID qualified = UUID.randomUUID();
+    enter(lost, DealStatus.NEW, null, 0);
+    enter(lost, DealStatus.QUALIFIED, DealStatus.NEW, 10);
+    enter(lost, DealStatus.LOST, DealStatus.QUALIFIED, 70);
+    enter(proposal, DealStatus.NEW, null, 0);
+    enter(proposal, DealStatus.QUALIFIED, DealStatus.NEW, 20);
+    enter(proposal, DealStatus.PROPOSAL_SENT, DealStatus.QUALIFIED, 50);
+    enter(qualified, DealStatus.NEW, null, 0);
+    enter(qualified, DealStatus.QUALIFIED, DealStatus.NEW, 30);
+    enter(UUID.randomUUID(), DealStatus.NEW, null, 0);
+
+    // When
+    Map<DealStatus, Long> reached = repository.countDealsReached();
+    Map<DealStatus, StageDurations> durations = repository.stageDurations();
+
+    // Then
+    assertThat(reached)
+        .containsExactlyInAnyOrderEntriesOf(
+            Map.of(
+                DealStatus.NEW, 4L,
+                DealStatus.QUALIFIED, 3L,
+                DealStatus.PROPOSAL_SENT, 1L,
+                DealStatus.LOST, 1L));
+    assertThat(durations).containsOnlyKeys(DealStatus.NEW, DealStatus.QUALIFIED);
+    assertThat(durations.get(DealStatus.NEW).completed()).isEqualTo(3);
+    assertThat(durations.get(DealStatus.NEW).p50Seconds()).isCloseTo(20, withinPercentage(1));
+    assertThat(durations.get(DealStatus.NEW).p90Seconds()).isCloseTo(28, withinPercentage(1));
+    assertThat(durations.get(DealStatus.QUALIFIED).p50Seconds()).isCloseTo(45, withinPercentage(1));
+    assertThat(durations.get(DealStatus.QUALIFIED).p90Seconds()).isCloseTo(57, withinPercentage(1));
+  }
+
+  @Test
+  void shouldKeepRelativeErrorBoundedForWideDurations() {
+    // Given: от секунды до ~28 часов
+    InMemoryDealStatusHistoryRepository.DurationSketch sketch =
+        new InMemoryDealStatusHistoryRepository.DurationSketch();
+    for (int seconds = 1; seconds <= 100_000; seconds++) {
+      sketch.add(seconds);
+    }
+
+    // Then
+    assertThat(sketch.quantile(0.5)).isCloseTo(50_000.5, withinPercentage(1));
+    assertThat(sketch.quantile(0.9)).isCloseTo(90_000.1, withinPercentage(1));
+  }
+
+  private void enter(UUID dealId, DealStatus status, DealStatus previous, long second) {
+    repository.append(new DealStatusChange(dealId, status, previous, T0.plusSeconds(second)));
+  }
+}
@@ -0,0 +1,97 @@
+package ru.mentee.power.crm.spring.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.entity.DealEntityRepository;
+
+/**
+ * Число SQL-команд на сохранение сделок (Hibernate Statistics). До DealEntity.isNew() каждая
+ * вставка шла через merge: SELECT + INSERT на сделку, без JDBC-батчей.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(JpaDealRepository.class)
+class JpaDealRepositoryInsertTest {
+
+  private static final int DEALS = 1000;
+  private static final int BATCH_SIZE = 50;
+  private static final long BEFORE_STATEMENTS = 2L * DEALS;
+
+  @Autowired private JpaDealRepository repository;
+
+  @Autowired private DealEntityRepository entityRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void shouldInsertThousandDealsInJdbcBatchesWithoutSelects() {
+    // When
+    for (int i = 0; i < DEALS; i++) {
+      repository.insert(new Deal(UUID.randomUUID(), BigDecimal.valueOf(i)));
+    }
+    entityManager.flush();
+
+    // Then: ни одного SELECT перед INSERT, команда готовится раз на батч
+    assertThat(statistics.getEntityLoadCount()).isZero();
+    assertThat(statistics.getPrepareStatementCount())
+        .isLessThanOrEqualTo(DEALS / BATCH_SIZE)
+        .isLessThan(BEFORE_STATEMENTS);
+    assertThat(statistics.getEntityInsertCount()).isEqualTo(DEALS);
+    assertThat(entityRepository.count()).isEqualTo(DEALS);
+  }
+
+  @Test
+  void shouldUpdateExistingDealWithSingleStatement() {
+    // Given
+    Deal deal = new Deal(UUID.randomUUID(), new BigDecimal("100.00"));
+    repository.insert(deal);
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    // When
+    deal.transitionTo(DealStatus.QUALIFIED);
+    repository.save(deal);
+
+    // Then: один UPDATE, без SELECT от merge
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(repository.findById(deal.getId()).orElseThrow().getStatus())
+        .isEqualTo(DealStatus.QUALIFIED);
+  }
+
+  @Test
+  void shouldInsertUnknownDealOnSave() {
+    // Given
+    Deal deal = new Deal(UUID.randomUUID(), new BigDecimal("5.00"));
+
+    // When
+    repository.save(deal);
+    entityManager.flush();
+    entityManager.clear();
+
+    // Then
+    assertThat(repository.findById(deal.getId())).isPresent();
+  }
+}
@@ -0,0 +1,65 @@
+package ru.mentee.power.crm.spring.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.KanbanColumn;
+
+/** Канбан на стороне БД: top-N через ROW_NUMBER() и итоги через GROUP BY — два запроса. */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(JpaDealRepository.class)
+class JpaDealRepositoryKanbanTest {
+
+  @Autowired private JpaDealRepository repository;
+
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  void shouldReturnTopDealsPerStatusAndTotalsWithTwoQueries() {
+    // Given
+    LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+    for (int i = 0; i < 30; i++) {
+      repository.save(deal(DealStatus.NEW, "100.50", base.plusMinutes(i)));
+    }
+    repository.save(deal(DealStatus.WON, "7", base));
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    // When
+    Map<DealStatus, KanbanColumn> columns = repository.findKanbanColumns(3);
+
+    // Then
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    KanbanColumn newColumn = columns.get(DealStatus.NEW);
+    assertThat(newColumn.deals())
+        .extracting(Deal::getCreatedAt)
+        .containsExactly(base.plusMinutes(29), base.plusMinutes(28), base.plusMinutes(27));
+    assertThat(newColumn.totalCount()).isEqualTo(30);
+    assertThat(newColumn.totalAmount()).isEqualByComparingTo("3015.00");
+    assertThat(columns.get(DealStatus.WON).totalAmount()).isEqualByComparingTo("7");
+    assertThat(columns.get(DealStatus.LOST).deals()).isEmpty();
+    assertThat(columns).containsOnlyKeys(DealStatus.values());
+  }
+
+  private static Deal deal(DealStatus status, String amount, LocalDateTime createdAt) {
+    return new Deal(
+        UUID.randomUUID(), UUID.randomUUID(), new BigDecimal(amount), status, createdAt);
+  }
+}
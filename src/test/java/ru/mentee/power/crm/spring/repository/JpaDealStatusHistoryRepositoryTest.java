@@ -0,0 +1,71 @@
+package ru.mentee.power.crm.spring.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.DealStatusChange;
+import ru.mentee.power.crm.spring.repository.DealStatusHistoryRepository.StageDurations;
+
+/** Агрегаты воронки считаются SQL-запросами по deal_status_history (H2). */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(JpaDealStatusHistoryRepository.class)
+class JpaDealStatusHistoryRepositoryTest {
+
+  private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Autowired private JpaDealStatusHistoryRepository repository;
+
+  @Test
+  void shouldCountReachedDealsAndTimeInStagePercentiles() {
+    // Given: NEW покинули через 10, 20 и 30 с; QUALIFIED — через 60 и 30 с
+    UUID lost = UUID.randomUUID();
+    UUID proposal = UUID.randomUUID();
+    UUID qualified = UUID.randomUUID();
+    UUID fresh = UUID.randomUUID();
+    enter(lost, DealStatus.NEW, null, 0);
+    enter(lost, DealStatus.QUALIFIED, DealStatus.NEW, 10);
+    enter(lost, DealStatus.LOST, DealStatus.QUALIFIED, 70);
+    enter(proposal, DealStatus.NEW, null, 0);
+    enter(proposal, DealStatus.QUALIFIED, DealStatus.NEW, 20);
+    enter(proposal, DealStatus.PROPOSAL_SENT, DealStatus.QUALIFIED, 50);
+    enter(qualified, DealStatus.NEW, null, 0);
+    enter(qualified, DealStatus.QUALIFIED, DealStatus.NEW, 30);
+    enter(fresh, DealStatus.NEW, null, 0);
+
+    // When
+    Map<DealStatus, Long> reached = repository.countDealsReached();
+    Map<DealStatus, StageDurations> durations = repository.stageDurations();
+
+    // Then: текущие статусы сделок в квантили не входят
+    assertThat(reached)
+        .containsExactlyInAnyOrderEntriesOf(
+            Map.of(
+                DealStatus.NEW, 4L,
+                DealStatus.QUALIFIED, 3L,
+                DealStatus.PROPOSAL_SENT, 1L,
+                DealStatus.LOST, 1L));
+    assertThat(durations).containsOnlyKeys(DealStatus.NEW, DealStatus.QUALIFIED);
+    StageDurations stayedNew = durations.get(DealStatus.NEW);
+    assertThat(stayedNew.completed()).isEqualTo(3);
+    assertThat(stayedNew.p50Seconds()).isCloseTo(20, within(1e-6));
+    assertThat(stayedNew.p90Seconds()).isCloseTo(28, within(1e-6));
+    StageDurations stayedQualified = durations.get(DealStatus.QUALIFIED);
+    assertThat(stayedQualified.completed()).isEqualTo(2);
+    assertThat(stayedQualified.p50Seconds()).isCloseTo(45, within(1e-6));
+    assertThat(stayedQualified.p90Seconds()).isCloseTo(57, within(1e-6));
+  }
+
+  private void enter(UUID dealId, DealStatus status, DealStatus previous, long second) {
+    repository.append(new DealStatusChange(dealId, status, previous, T0.plusSeconds(second)));
+  }
+}
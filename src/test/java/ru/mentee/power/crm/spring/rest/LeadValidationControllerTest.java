@@ -0,0 +1,74 @@
+package ru.mentee.power.crm.spring.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.model.LeadStatus;
+import ru.mentee.power.crm.service.LeadValidationService;
+import ru.mentee.power.crm.spring.dto.generated.CreateValidatedLeadRequest;
+import ru.mentee.power.crm.spring.dto.generated.LeadResponse;
+import ru.mentee.power.crm.spring.mapper.LeadMapperImpl;
+
+class LeadValidationControllerTest {
+
+  private final LeadValidationService service = mock(LeadValidationService.class);
+  private final LeadValidationController controller =
+      new LeadValidationController(service, new LeadMapperImpl());
+
+  @Test
+  void shouldStorePhoneAndAddressFromRequestAndReturnLeadResponse() {
+    // Given
+    UUID id = UUID.randomUUID();
+    Address address = new Address("Москва", "Тверская, 1", "101000");
+    when(service.createLeadWithValidationAsync(
+            eq("ivan@example.com"), eq("Ромашка"), eq(LeadStatus.NEW), any(), eq("+79991234567")))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new Lead(
+                    id,
+                    new Contact("ivan@example.com", "+79991234567", address),
+                    "Ромашка",
+                    "NEW")));
+    CreateValidatedLeadRequest request =
+        new CreateValidatedLeadRequest()
+            .email("ivan@example.com")
+            .company("Ромашка")
+            .phone("+79991234567")
+            .city("Москва")
+            .street("Тверская, 1")
+            .zip("101000");
+
+    // When
+    ResponseEntity<LeadResponse> response = controller.createValidatedLead(request).join();
+
+    // Then
+    ArgumentCaptor<Address> stored = ArgumentCaptor.forClass(Address.class);
+    verify(service)
+        .createLeadWithValidationAsync(
+            eq("ivan@example.com"),
+            eq("Ромашка"),
+            eq(LeadStatus.NEW),
+            stored.capture(),
+            eq("+79991234567"));
+    assertThat(stored.getValue()).isEqualTo(address);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(response.getHeaders().getLocation()).hasToString("/api/leads/" + id);
+    assertThat(response.getBody().getId()).isEqualTo(id);
+    assertThat(response.getBody().getEmail()).isEqualTo("ivan@example.com");
+    assertThat(response.getBody().getCompany()).isEqualTo("Ромашка");
+    assertThat(response.getBody().getCreatedAt()).isNotNull();
+  }
+}
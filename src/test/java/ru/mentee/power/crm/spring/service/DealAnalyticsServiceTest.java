@@ -0,0 +1,82 @@
+package ru.mentee.power.crm.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealEvent;
+import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.spring.repository.InMemoryDealStatusHistoryRepository;
+
+class DealAnalyticsServiceTest {
+
+  private final DealAnalyticsService service =
+      new DealAnalyticsService(
+          new InMemoryDealStatusHistoryRepository(),
+          Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC));
+
+  @Test
+  void shouldReportStageConversionAndWinRate() {
+    // Given: четыре сделки, две квалифицированы, одна выиграна
+    for (int i = 0; i < 4; i++) {
+      Deal deal = new Deal(UUID.randomUUID(), BigDecimal.TEN);
+      service.onDealEvent(DealEvent.created(deal));
+      if (i < 2) {
+        advance(deal, DealStatus.QUALIFIED);
+      }
+      if (i == 0) {
+        advance(deal, DealStatus.PROPOSAL_SENT);
+        advance(deal, DealStatus.NEGOTIATION);
+        advance(deal, DealStatus.WON);
+      }
+      if (i == 1) {
+        advance(deal, DealStatus.LOST);
+      }
+    }
+    service.onDealEvent(
+        DealEvent.amountChanged(new Deal(UUID.randomUUID(), BigDecimal.ONE), BigDecimal.TEN));
+
+    // When
+    DealFunnelReport report = service.funnel();
+
+    // Then: смена суммы в историю статусов не попадает
+    assertThat(report.stages())
+        .extracting(DealFunnelReport.Stage::status)
+        .containsExactly(DealStatus.values());
+    assertThat(stage(report, DealStatus.NEW).reached()).isEqualTo(4);
+    assertThat(stage(report, DealStatus.NEW).conversionToNext()).isEqualTo(0.5);
+    assertThat(stage(report, DealStatus.QUALIFIED).conversionToNext()).isEqualTo(0.5);
+    assertThat(stage(report, DealStatus.NEGOTIATION).conversionToNext()).isEqualTo(1.0);
+    assertThat(stage(report, DealStatus.WON).conversionToNext()).isNull();
+    assertThat(stage(report, DealStatus.LOST).reached()).isEqualTo(1);
+    assertThat(stage(report, DealStatus.LOST).conversionToNext()).isNull();
+    assertThat(stage(report, DealStatus.NEW).completedStays()).isEqualTo(2);
+    assertThat(stage(report, DealStatus.WON).p50Seconds()).isNull();
+    assertThat(report.winRate()).isEqualTo(0.25);
+  }
+
+  @Test
+  void shouldReportEmptyFunnelWithoutRates() {
+    // When
+    DealFunnelReport report = service.funnel();
+
+    // Then
+    assertThat(report.winRate()).isNull();
+    assertThat(report.stages()).allSatisfy(stage -> assertThat(stage.reached()).isZero());
+  }
+
+  private void advance(Deal deal, DealStatus status) {
+    DealStatus previous = deal.getStatus();
+    deal.transitionTo(status);
+    service.onDealEvent(DealEvent.transitioned(deal, previous));
+  }
+
+  private static DealFunnelReport.Stage stage(DealFunnelReport report, DealStatus status) {
+    return report.stages().get(status.ordinal());
+  }
+}
@@ -4,16 +4,23 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.mentee.power.crm.domain.Address;
 import ru.mentee.power.crm.domain.Contact;
 import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealEvent;
 import ru.mentee.power.crm.domain.DealStatus;
+import ru.mentee.power.crm.domain.KanbanColumn;
 import ru.mentee.power.crm.model.Lead;
 import ru.mentee.power.crm.model.LeadStatus;
 import ru.mentee.power.crm.service.LeadService;
+import ru.mentee.power.crm.spring.exception.LeadAlreadyConvertedException;
 import ru.mentee.power.crm.spring.repository.DealRepository;
 import ru.mentee.power.crm.spring.repository.InMemoryDealRepository;
 import ru.mentee.power.crm.spring.repository.LeadRepositoryAdapter;
@@ -82,12 +89,97 @@ public class DealServiceTest {
         .hasMessageContaining("Lead not found");
   }
 
+  @Test
+  void convertLeadToDeal_throwsDedicatedExceptionWhenAlreadyConverted() {
+    UUID leadId = UUID.randomUUID();
+    coreLeadRepository.save(
+        new Lead(
+            leadId,
+            new Contact("x@x.com", "+7", new Address("c", "s", "z")),
+            "Co",
+            LeadStatus.QUALIFIED.name()));
+    dealService.convertLeadToDeal(leadId, BigDecimal.ONE);
+
+    assertThatThrownBy(() -> dealService.convertLeadToDeal(leadId, BigDecimal.ONE))
+        .isInstanceOf(LeadAlreadyConvertedException.class)
+        .hasMessageContaining(leadId.toString());
+    assertThat(dealRepository.findAll()).hasSize(1);
+  }
+
   @Test
   void scenario5_qualifiedCanTransitionToProposalSent_notToWon() {
     assertThat(DealStatus.QUALIFIED.canTransitionTo(DealStatus.PROPOSAL_SENT)).isTrue();
     assertThat(DealStatus.QUALIFIED.canTransitionTo(DealStatus.WON)).isFalse();
   }
 
+  @Test
+  void kanbanBoard_keepsNewestDealsPerColumnAndTotalsForAll() {
+    LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+    for (int i = 0; i < 5; i++) {
+      dealRepository.save(
+          new Deal(
+              UUID.randomUUID(),
+              UUID.randomUUID(),
+              BigDecimal.TEN,
+              DealStatus.NEW,
+              base.plusDays(i)));
+    }
+    dealRepository.save(
+        new Deal(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE, DealStatus.WON, base));
+
+    Map<DealStatus, KanbanColumn> board = dealService.getKanbanBoard(2);
+
+    KanbanColumn newColumn = board.get(DealStatus.NEW);
+    assertThat(newColumn.deals())
+        .extracting(Deal::getCreatedAt)
+        .containsExactly(base.plusDays(4), base.plusDays(3));
+    assertThat(newColumn.totalCount()).isEqualTo(5);
+    assertThat(newColumn.totalAmount()).isEqualByComparingTo("50");
+    assertThat(newColumn.isTruncated()).isTrue();
+    assertThat(board.get(DealStatus.WON).deals()).hasSize(1);
+    assertThat(board.get(DealStatus.LOST)).isEqualTo(KanbanColumn.empty(DealStatus.LOST));
+    assertThat(board).containsOnlyKeys(DealStatus.values());
+  }
+
+  @Test
+  void shouldPublishEventsForTransitionAndActualAmountChange() {
+    // Given
+    List<Object> events = new ArrayList<>();
+    var service =
+        new DealService(
+            dealRepository,
+            new LeadRepositoryAdapter(coreLeadRepository),
+            new LeadService(coreLeadRepository, dealRepository),
+            events::add);
+    Deal deal = createDealInStatus(DealStatus.QUALIFIED);
+    dealRepository.save(deal);
+
+    // When
+    service.transitionDealStatus(deal.getId(), DealStatus.PROPOSAL_SENT);
+    service.changeDealAmount(deal.getId(), new BigDecimal("2"));
+    service.changeDealAmount(deal.getId(), new BigDecimal("2.00"));
+
+    // Then: сумма, равная текущей, события не порождает
+    assertThat(events)
+        .containsExactly(
+            new DealEvent(
+                DealEvent.Type.TRANSITIONED,
+                deal.getId(),
+                deal.getLeadId(),
+                DealStatus.PROPOSAL_SENT,
+                DealStatus.QUALIFIED,
+                BigDecimal.ONE,
+                BigDecimal.ONE),
+            new DealEvent(
+                DealEvent.Type.AMOUNT_CHANGED,
+                deal.getId(),
+                deal.getLeadId(),
+                DealStatus.PROPOSAL_SENT,
+                DealStatus.PROPOSAL_SENT,
+                new BigDecimal("2"),
+                BigDecimal.ONE));
+  }
+
   private Deal createDealInStatus(DealStatus status) {
     var leadId = UUID.randomUUID();
     var lead =
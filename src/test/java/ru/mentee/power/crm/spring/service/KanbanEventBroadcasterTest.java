@@ -0,0 +1,155 @@
+package ru.mentee.power.crm.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.mentee.power.crm.domain.Address;
+import ru.mentee.power.crm.domain.Contact;
+import ru.mentee.power.crm.domain.Deal;
+import ru.mentee.power.crm.domain.DealEvent;
+import ru.mentee.power.crm.model.Lead;
+import ru.mentee.power.crm.repository.InMemoryLeadRepository;
+import ru.mentee.power.crm.service.LeadService;
+import ru.mentee.power.crm.spring.repository.InMemoryDealRepository;
+
+class KanbanEventBroadcasterTest {
+
+  private static final Duration MAX_DELAY = Duration.ofSeconds(5);
+
+  private final InMemoryLeadRepository leadRepository = new InMemoryLeadRepository();
+  private final LeadService leadService =
+      new LeadService(leadRepository, new InMemoryDealRepository());
+  private KanbanEventBroadcaster broadcaster;
+
+  @AfterEach
+  void tearDown() {
+    broadcaster.shutdown();
+  }
+
+  @Test
+  void shouldPushDealEventWithLeadNameToSubscriber() {
+    // Given
+    broadcaster = broadcaster(8, 10);
+    RecordingEmitter browser = new RecordingEmitter();
+    broadcaster.subscribe(browser);
+    Deal deal = dealOfLead("Acme");
+
+    // When
+    broadcaster.onDealEvent(DealEvent.created(deal));
+
+    // Then: первый кадр — приветствие с retry, второй — событие deal
+    awaitTrue(() -> browser.frames.size() == 2);
+    assertThat(browser.frames.get(0)).contains("retry:3000").contains(":ready");
+    assertThat(browser.frames.get(1))
+        .contains("event:deal")
+        .contains("\"type\":\"CREATED\"")
+        .contains("\"dealId\":\"" + deal.getId() + "\"")
+        .contains("\"leadName\":\"Acme\"");
+    assertThat(broadcaster.stats().published()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldEvictStalledSubscriberWithoutDelayingOthers() {
+    // Given: один браузер завис на записи в сокет
+    broadcaster = broadcaster(2, 10);
+    CountDownLatch unblock = new CountDownLatch(1);
+    RecordingEmitter stalled = new RecordingEmitter(unblock);
+    RecordingEmitter healthy = new RecordingEmitter();
+    broadcaster.subscribe(stalled);
+    broadcaster.subscribe(healthy);
+    Deal deal = dealOfLead("Acme");
+
+    // When
+    for (int i = 1; i <= 5; i++) {
+      broadcaster.onDealEvent(DealEvent.created(deal));
+      int frames = i + 1;
+      awaitTrue(() -> healthy.frames.size() == frames);
+    }
+
+    // Then: буфер зависшего переполнился — он отключён, здоровый получил всё
+    assertThat(broadcaster.stats().evicted()).isEqualTo(1);
+    assertThat(broadcaster.stats().subscribers()).isEqualTo(1);
+    assertThat(healthy.frames).hasSize(6);
+    unblock.countDown();
+  }
+
+  @Test
+  void shouldRejectSubscribersOverLimit() {
+    // Given
+    broadcaster = broadcaster(8, 1);
+    broadcaster.subscribe(new RecordingEmitter());
+
+    // When / Then
+    assertThatThrownBy(() -> broadcaster.subscribe(new RecordingEmitter()))
+        .isInstanceOf(ResponseStatusException.class)
+        .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(broadcaster.stats().rejected()).isEqualTo(1);
+  }
+
+  private KanbanEventBroadcaster broadcaster(int bufferSize, int maxSubscribers) {
+    return new KanbanEventBroadcaster(
+        leadService, bufferSize, maxSubscribers, Duration.ofHours(1), Duration.ofMinutes(30));
+  }
+
+  private Deal dealOfLead(String name) {
+    UUID leadId = UUID.randomUUID();
+    leadRepository.save(
+        new Lead(
+            leadId,
+            new Contact("a@acme.ru", "+79990000000", new Address("Moscow", "Tverskaya", "101000")),
+            name,
+            "QUALIFIED"));
+    return new Deal(leadId, new BigDecimal("1000.00"));
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    Instant deadline = Instant.now().plus(MAX_DELAY);
+    while (!condition.getAsBoolean()) {
+      assertThat(Instant.now()).as("delivery delay").isBefore(deadline);
+      Thread.onSpinWait();
+    }
+  }
+
+  /** Ответ браузера: запоминает кадры текстом; с latch — зависает на первой записи. */
+  private static final class RecordingEmitter extends SseEmitter {
+    final List<String> frames = new CopyOnWriteArrayList<>();
+    private final CountDownLatch unblock;
+
+    RecordingEmitter() {
+      this(new CountDownLatch(0));
+    }
+
+    RecordingEmitter(CountDownLatch unblock) {
+      this.unblock = unblock;
+    }
+
+    @Override
+    public void send(Set<DataWithMediaType> items) {
+      try {
+        unblock.await(MAX_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      frames.add(
+          items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+    }
+  }
+}
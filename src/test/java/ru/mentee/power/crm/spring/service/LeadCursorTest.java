@@ -0,0 +1,34 @@
+package ru.mentee.power.crm.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.crm.spring.exception.InvalidCursorException;
+
+class LeadCursorTest {
+
+  @Test
+  void shouldRoundTripThroughOpaqueToken() {
+    // Given
+    LeadCursor cursor =
+        new LeadCursor(Instant.parse("2025-11-25T10:30:00.123456Z"), UUID.randomUUID());
+
+    // When
+    String token = cursor.encode();
+
+    // Then
+    assertThat(token).doesNotContain("|", "=", "/", "+");
+    assertThat(LeadCursor.decode(token)).isEqualTo(cursor);
+  }
+
+  @Test
+  void shouldRejectTamperedToken() {
+    assertThatThrownBy(() -> LeadCursor.decode("not a cursor"))
+        .isInstanceOf(InvalidCursorException.class);
+    assertThatThrownBy(() -> LeadCursor.decode("MjAyNXxub3QtYS11dWlk"))
+        .isInstanceOf(InvalidCursorException.class);
+  }
+}
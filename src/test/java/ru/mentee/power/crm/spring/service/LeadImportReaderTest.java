@@ -0,0 +1,69 @@
+package ru.mentee.power.crm.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.crm.spring.exception.InvalidImportFileException;
+
+class LeadImportReaderTest {
+
+  @Test
+  void shouldReadCsvByHeaderNamesWithQuotedFields() throws IOException {
+    // Given
+    String csv =
+        "phone,email,company\n"
+            + "+7999,a@x.ru,\"Рога, \"\"Копыта\"\"\"\n"
+            + "\n"
+            + "+7998,b@x.ru\n";
+
+    // When
+    List<LeadImportRecord> records = readAll(csv);
+
+    // Then
+    assertThat(records).hasSize(2);
+    assertThat(records.get(0).email()).isEqualTo("a@x.ru");
+    assertThat(records.get(0).company()).isEqualTo("Рога, \"Копыта\"");
+    assertThat(records.get(1).line()).isEqualTo(4);
+    assertThat(records.get(1).company()).isNull();
+  }
+
+  @Test
+  void shouldReadNdjsonAndMarkMalformedLines() throws IOException {
+    // Given
+    String ndjson = "{\"email\":\"a@x.ru\",\"phone\":\"+7999\"}\n{broken\n[1]\n";
+
+    // When
+    List<LeadImportRecord> records = readAll(ndjson);
+
+    // Then
+    assertThat(records).extracting(LeadImportRecord::email).containsExactly("a@x.ru", null, null);
+    assertThat(records)
+        .extracting(LeadImportRecord::error)
+        .containsExactly(null, "malformed JSON", "JSON object expected");
+  }
+
+  @Test
+  void shouldRejectEmptyFileAndCsvWithoutEmailColumn() {
+    assertThatThrownBy(() -> readAll("\n\n")).isInstanceOf(InvalidImportFileException.class);
+    assertThatThrownBy(() -> readAll("phone,company\n+7999,Acme\n"))
+        .isInstanceOf(InvalidImportFileException.class);
+  }
+
+  private static List<LeadImportRecord> readAll(String content) throws IOException {
+    List<LeadImportRecord> records = new ArrayList<>();
+    try (LeadImportReader reader =
+        new LeadImportReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+      LeadImportRecord record;
+      while ((record = reader.next()) != null) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+}
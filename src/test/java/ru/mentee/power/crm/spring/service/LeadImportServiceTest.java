@@ -0,0 +1,115 @@
+package ru.mentee.power.crm.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import ru.mentee.power.crm.entity.LeadEntity;
+import ru.mentee.power.crm.repository.CompanyIdResolver;
+import ru.mentee.power.crm.repository.CompanyRepository;
+import ru.mentee.power.crm.repository.LeadRepository;
+import ru.mentee.power.crm.spring.service.LeadImportResult.ChunkResult;
+import ru.mentee.power.crm.spring.service.LeadImportResult.Reject;
+
+@DataJpaTest(properties = {"lead.import.chunk-size=2", "lead.import.batch-size=2"})
+@ActiveProfiles("test")
+@Import({LeadImportService.class, LeadImportChunkWriter.class, CompanyIdResolver.class})
+class LeadImportServiceTest {
+
+  @Autowired private LeadImportService importService;
+
+  @Autowired private LeadImportChunkWriter chunkWriter;
+
+  @Autowired private LeadRepository leadRepository;
+
+  @Autowired private CompanyRepository companyRepository;
+
+  @Test
+  void shouldImportInChunksSkippingDuplicatesAndRejectingInvalidRecords() {
+    // Given
+    LeadEntity existing = new LeadEntity();
+    existing.setEmail("existing@x.ru");
+    existing.setPhone("+79990000000");
+    existing.setCompanyName("Old");
+    existing.setStatus("NEW");
+    existing.setCreatedAt(Instant.now());
+    leadRepository.saveAndFlush(existing);
+    String csv =
+        "email,phone,company,status\n"
+            + "a@x.ru,+7901,Acme,contacted\n"
+            + "existing@x.ru,+7902,Acme,\n"
+            + "not-an-email,+7903,Acme,\n"
+            + "a@x.ru,+7904,Acme,\n"
+            + "b@x.ru,+7905,,\n";
+
+    // When
+    LeadImportResult result =
+        importService.importLeads(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+    // Then
+    assertThat(result.totalRecords()).isEqualTo(5);
+    assertThat(result.imported()).isEqualTo(2);
+    assertThat(result.duplicates()).isEqualTo(2);
+    assertThat(result.rejected()).isEqualTo(1);
+    assertThat(result.chunks()).extracting(ChunkResult::records).containsExactly(2, 2, 1);
+    assertThat(result.rejects())
+        .extracting(Reject::line, Reject::reason)
+        .containsExactly(
+            tuple(3L, "email already exists"),
+            tuple(4L, "invalid email"),
+            tuple(5L, "email already exists"));
+    LeadEntity imported = leadRepository.findByEmail("a@x.ru").orElseThrow();
+    assertThat(imported.getStatus()).isEqualTo("CONTACTED");
+    assertThat(imported.getCompany().getId())
+        .isEqualTo(companyRepository.findByName("Acme").orElseThrow().getId());
+    assertThat(leadRepository.findByEmail("b@x.ru").orElseThrow().getCompanyName()).isEqualTo("-");
+  }
+
+  @Test
+  void shouldRejectOnlyFailingRecords_whenChunkWriteFails() {
+    // Given: запись чанка с poison@x.ru падает в БД, как при параллельной вставке того же email
+    LeadImportChunkWriter failingWriter =
+        new LeadImportChunkWriter(null, null, null, 0) {
+          @Override
+          public Outcome write(int index, List<LeadImportRecord> records) {
+            if (records.stream().anyMatch(r -> "poison@x.ru".equals(r.email()))) {
+              throw new DataIntegrityViolationException("duplicate key value violates unique");
+            }
+            return chunkWriter.write(index, records);
+          }
+        };
+    LeadImportService service = new LeadImportService(failingWriter, 3, 100);
+    String csv =
+        "email,phone\n"
+            + "one@x.ru,+7901\n"
+            + "poison@x.ru,+7902\n"
+            + "one@x.ru,+7903\n"
+            + "two@x.ru,+7904\n";
+
+    // When
+    LeadImportResult result =
+        service.importLeads(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+    // Then: отклонена только сбойная запись, остальные записи упавшего чанка разобраны по одной
+    assertThat(result.imported()).isEqualTo(2);
+    assertThat(result.duplicates()).isEqualTo(1);
+    assertThat(result.rejected()).isEqualTo(1);
+    assertThat(result.chunks())
+        .extracting(ChunkResult::records, ChunkResult::imported, ChunkResult::rejected)
+        .containsExactly(tuple(3, 1, 1), tuple(1, 1, 0));
+    assertThat(result.rejects())
+        .extracting(Reject::line, Reject::reason)
+        .containsExactly(tuple(3L, "write failed"), tuple(4L, "email already exists"));
+    assertThat(leadRepository.findByEmail("one@x.ru")).isPresent();
+    assertThat(leadRepository.findByEmail("poison@x.ru")).isEmpty();
+  }
+}
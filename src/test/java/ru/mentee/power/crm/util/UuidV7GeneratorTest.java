@@ -0,0 +1,129 @@
+package ru.mentee.power.crm.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class UuidV7GeneratorTest {
+
+  /** Порядок UUID как беззнаковых 128 бит — так их сравнивают индексы PostgreSQL и H2. */
+  private static final Comparator<UUID> UNSIGNED =
+      Comparator.comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+          .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+  @Test
+  void shouldEmbedTimestampVersionAndVariant() {
+    // Given
+    Instant now = Instant.parse("2026-10-18T12:00:00Z");
+    UuidV7Generator generator =
+        new UuidV7Generator(Clock.fixed(now, ZoneOffset.UTC), new Random(42));
+
+    // When
+    UUID id = generator.next();
+
+    // Then
+    assertThat(id.version()).isEqualTo(7);
+    assertThat(id.variant()).isEqualTo(2);
+    assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(now.toEpochMilli());
+  }
+
+  @Test
+  void shouldStayMonotonicWithinMillisecondAndWhenClockGoesBack() {
+    // Given
+    MutableClock clock = new MutableClock(1_000_000L);
+    UuidV7Generator generator = new UuidV7Generator(clock, new Random(7));
+    List<UUID> ids = new ArrayList<>();
+
+    // When: 5000 id за одну миллисекунду (переполнение 12-битного счётчика), затем часы назад
+    for (int i = 0; i < 5000; i++) {
+      ids.add(generator.next());
+    }
+    clock.millis = 999_000L;
+    ids.add(generator.next());
+    clock.millis = 2_000_000L;
+    ids.add(generator.next());
+
+    // Then
+    assertThat(ids).isSortedAccordingTo(UNSIGNED).doesNotHaveDuplicates();
+    assertThat(ids).allSatisfy(id -> assertThat(id.version()).isEqualTo(7));
+    assertThat(ids.getLast().getMostSignificantBits() >>> 16).isEqualTo(2_000_000L);
+  }
+
+  @Test
+  void shouldGenerateUniqueIncreasingIdsAcrossThreads() throws Exception {
+    // Given
+    UuidV7Generator generator = new UuidV7Generator();
+    int threads = 8;
+    int perThread = 20_000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<List<UUID>>> results = new ArrayList<>();
+
+    // When
+    try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+      for (int t = 0; t < threads; t++) {
+        results.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  List<UUID> ids = new ArrayList<>(perThread);
+                  for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.next());
+                  }
+                  return ids;
+                }));
+      }
+      start.countDown();
+    }
+
+    // Then: каждый поток видит возрастающую последовательность, дублей нет
+    Set<UUID> all = new HashSet<>();
+    for (Future<List<UUID>> result : results) {
+      List<UUID> ids = result.get();
+      assertThat(ids).isSortedAccordingTo(UNSIGNED);
+      all.addAll(ids);
+    }
+    assertThat(all).hasSize(threads * perThread);
+  }
+
+  private static final class MutableClock extends Clock {
+    long millis;
+
+    MutableClock(long millis) {
+      this.millis = millis;
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(java.time.ZoneId zone) {
+      return this;
+    }
+  }
+}